@@ -0,0 +1,128 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.util.concurrent.RateLimiter;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.AccountSummarySearch;
+
+/**
+ * Deletes the test accounts left behind by earlier runs (e.g. runs that crashed before their @AfterClass methods
+ * ran). Pages through the accounts matching an email filter, and deletes each page with a bounded number of
+ * concurrent requests and a cap on the overall request rate, so a large backlog of accounts doesn't stall the
+ * start of the run or overload the server. There is no limit on the number of pages.
+ *
+ * The worker count and rate cap can be set with the <code>bridge.purge.workers</code> and
+ * <code>bridge.purge.maxDeletesPerSecond</code> system properties.
+ */
+public class AccountPurger {
+    private static final Logger LOG = LoggerFactory.getLogger(AccountPurger.class);
+
+    static final String WORKERS_PROPERTY = "bridge.purge.workers";
+    static final String MAX_DELETES_PER_SECOND_PROPERTY = "bridge.purge.maxDeletesPerSecond";
+    private static final int DEFAULT_WORKERS = 8;
+    private static final int DEFAULT_MAX_DELETES_PER_SECOND = 25;
+    private static final int PAGE_SIZE = 100;
+
+    private final ParticipantsApi participantsApi;
+    private final ForAdminsApi adminApi;
+    private final int workers;
+    private final RateLimiter rateLimiter;
+
+    public AccountPurger(ParticipantsApi participantsApi, ForAdminsApi adminApi) {
+        this(participantsApi, adminApi, Integer.getInteger(WORKERS_PROPERTY, DEFAULT_WORKERS),
+                Integer.getInteger(MAX_DELETES_PER_SECOND_PROPERTY, DEFAULT_MAX_DELETES_PER_SECOND));
+    }
+
+    public AccountPurger(ParticipantsApi participantsApi, ForAdminsApi adminApi, int workers,
+            int maxDeletesPerSecond) {
+        this.participantsApi = participantsApi;
+        this.adminApi = adminApi;
+        this.workers = workers;
+        this.rateLimiter = RateLimiter.create(maxDeletesPerSecond);
+    }
+
+    /**
+     * Delete every account whose email matches the filter and that was created before the given time. Accounts
+     * created later belong to a test that is running right now (e.g. in another fork), and are left alone.
+     *
+     * @return the number of accounts deleted
+     */
+    public int purge(String emailFilter, DateTime createdBefore) throws Exception {
+        long start = System.nanoTime();
+        int deleted = 0;
+        int skipped = 0;
+        int failed = 0;
+        // Accounts we have already tried to delete. If one of them shows up again (e.g. because the delete failed),
+        // page past it instead of trying again forever.
+        Set<String> seenIds = new HashSet<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            AccountSummarySearch search = new AccountSummarySearch().emailFilter(emailFilter).pageSize(PAGE_SIZE);
+            int offsetBy = 0;
+            List<AccountSummary> page;
+            do {
+                page = participantsApi.searchAccountSummaries(search.offsetBy(offsetBy)).execute().body()
+                        .getItems();
+
+                List<Future<Boolean>> deletes = new ArrayList<>();
+                for (AccountSummary summary : page) {
+                    boolean isNew = summary.getCreatedOn() != null && summary.getCreatedOn().isAfter(createdBefore);
+                    if (isNew || !seenIds.add(summary.getId())) {
+                        // Accounts we don't delete stay in the search results, so page past them.
+                        offsetBy++;
+                        skipped++;
+                        continue;
+                    }
+                    deletes.add(executor.submit(() -> delete(summary.getId())));
+                }
+                // Wait for the whole page before searching again, so the next page doesn't include these accounts.
+                for (Future<Boolean> future : deletes) {
+                    if (future.get()) {
+                        deleted++;
+                    } else {
+                        offsetBy++;
+                        failed++;
+                    }
+                }
+            } while (!page.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+
+        long millis = elapsedMillis(start);
+        double perSecond = (millis == 0) ? 0 : (deleted * 1000.0 / millis);
+        LOG.info("Purged {} test accounts in {} ms ({} accounts/s, {} workers), {} skipped, {} failed", deleted,
+                millis, String.format("%.1f", perSecond), workers, skipped, failed);
+        return deleted;
+    }
+
+    private boolean delete(String userId) {
+        rateLimiter.acquire();
+        try {
+            adminApi.deleteUser(userId).execute();
+        } catch(EntityNotFoundException e) {
+            // Another fork deleted it first.
+        } catch(Exception e) {
+            LOG.warn("Could not delete test account {}: {}", userId, e.getMessage());
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,228 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.EnrollmentFilter.ENROLLED;
+import static org.sagebionetworks.bridge.rest.model.EnrollmentFilter.WITHDRAWN;
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.rest.model.Role.RESEARCHER;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_COORDINATOR;
+import static org.sagebionetworks.bridge.rest.model.Role.WORKER;
+import static org.sagebionetworks.bridge.rest.model.StringSearchPosition.PREFIX;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForResearchersApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.OrganizationsApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.api.StudyParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
+import org.sagebionetworks.bridge.rest.model.AccountSummarySearch;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Times searchAccountSummaries over a large number of accounts (10,000 by default), created with the same spread
+ * of languages, data groups, attributes, roles, org memberships and study enrollments (and withdrawals) that
+ * {@link AccountSummarySearchTest} uses. Each filter, and each pair of filters, is timed through the researcher,
+ * worker and study coordinator APIs, and each API pages through every account to the last page. Like the test, every
+ * search is limited to the accounts this benchmark creates with an email filter.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class AccountSummarySearchBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(AccountSummarySearchBenchmark.class);
+
+    static final String ACCOUNTS_PROPERTY = "bridge.accountSearch.accounts";
+    static final String SEED_THREADS_PROPERTY = "bridge.accountSearch.seedThreads";
+    private static final int DEFAULT_ACCOUNTS = 10000;
+    private static final int DEFAULT_SEED_THREADS = 16;
+    private static final int ITERATIONS = 3;
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGING_PAGE_SIZE = 100;
+    private static final List<String> LANGUAGES = ImmutableList.of("en", "es", "fr", "de");
+    private static final List<List<String>> DATA_GROUPS = ImmutableList.of(ImmutableList.of("sdk-int-1"),
+            ImmutableList.of("sdk-int-1", "group1"), ImmutableList.of("sdk-int-2"), ImmutableList.of());
+
+    private static String emailPrefix;
+    private static StudyFixture studyFixture;
+    private static final Map<String, UnaryOperator<AccountSummarySearch>> filters = new LinkedHashMap<>();
+    private static final List<String> rows = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        emailPrefix = "bridge-testing+AccountSummarySearchBenchmark-" + RandomStringUtils.randomAlphabetic(4) + "-";
+        studyFixture = StudyFixture.create(AccountSummarySearchBenchmark.class);
+        seed(Integer.getInteger(ACCOUNTS_PROPERTY, DEFAULT_ACCOUNTS));
+
+        filters.put("language", search -> search.language("fr"));
+        filters.put("allOfGroups", search -> search.allOfGroups(ImmutableList.of("sdk-int-1", "group1")));
+        filters.put("noneOfGroups", search -> search.noneOfGroups(ImmutableList.of("group1")));
+        filters.put("inUse", search -> search.inUse(false));
+        filters.put("adminOnly", search -> search.adminOnly(true));
+        filters.put("orgMembership", search -> search.orgMembership(studyFixture.getOrgId1()));
+        filters.put("externalIdPrefix", search -> search.externalIdFilter("s1-1").stringSearchPosition(PREFIX));
+        filters.put("enrolled", search -> search.enrollment(ENROLLED));
+        filters.put("withdrawn", search -> search.enrollment(WITHDRAWN));
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("account-search", "api,search,pageSize,offsetBy,total,p50,max", rows);
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        new AccountPurger(admin.getClient(ParticipantsApi.class), admin.getClient(ForAdminsApi.class))
+                .purge(emailPrefix, DateTime.now());
+        if (studyFixture != null) {
+            studyFixture.delete();
+        }
+    }
+
+    @Test
+    public void researcher() throws Exception {
+        TestUser researcher = TestUserPool.get().lease(RESEARCHER);
+        try {
+            ForResearchersApi api = researcher.getClient(ForResearchersApi.class);
+            run("researcher", search -> api.searchAccountSummaries(search).execute().body());
+        } finally {
+            TestUserPool.get().release(researcher);
+        }
+    }
+
+    @Test
+    public void worker() throws Exception {
+        TestUser worker = TestUserPool.get().lease(WORKER);
+        try {
+            ForWorkersApi api = worker.getClient(ForWorkersApi.class);
+            run("worker", search -> api.searchAccountSummariesForApp(TEST_APP_ID, search).execute().body());
+        } finally {
+            TestUserPool.get().release(worker);
+        }
+    }
+
+    @Test
+    public void studyCoordinator() throws Exception {
+        TestUser coordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
+        try {
+            StudyParticipantsApi api = coordinator.getClient(StudyParticipantsApi.class);
+            run("studyCoordinator", search -> api.getStudyParticipants(studyFixture.getStudyId1(), search)
+                    .execute().body());
+        } finally {
+            TestUserPool.get().release(coordinator);
+        }
+    }
+
+    private void run(String apiName, ThrowingFunction<AccountSummarySearch, AccountSummaryList> api)
+            throws Exception {
+        List<String> names = new ArrayList<>(filters.keySet());
+        for (int i = 0; i < names.size(); i++) {
+            time(apiName, api, names.get(i));
+            for (int j = i + 1; j < names.size(); j++) {
+                // Enrolled and withdrawn are alternatives, not filters that can be combined.
+                if (!names.get(i).equals("enrolled") || !names.get(j).equals("withdrawn")) {
+                    time(apiName, api, names.get(i), names.get(j));
+                }
+            }
+        }
+
+        // Page through every account to the last page.
+        LatencyHistogram paging = new LatencyHistogram(apiName + " paging");
+        int total = Integer.MAX_VALUE;
+        long lastPageMillis = 0;
+        for (int offsetBy = 0; offsetBy < total; offsetBy += PAGING_PAGE_SIZE) {
+            long start = System.nanoTime();
+            total = api.apply(makeSearch().offsetBy(offsetBy).pageSize(PAGING_PAGE_SIZE)).getTotal();
+            lastPageMillis = elapsedMillis(start);
+            paging.record(lastPageMillis);
+            if (offsetBy % (PAGING_PAGE_SIZE * 20) == 0) {
+                rows.add(format("%s,all,%d,%d,%d,%d,%d", apiName, PAGING_PAGE_SIZE, offsetBy, total,
+                        lastPageMillis, lastPageMillis));
+            }
+        }
+        LOG.info("{} pages of {}: {}, last page {} ms", apiName, PAGING_PAGE_SIZE, paging, lastPageMillis);
+        assertTrue(paging.getCount() > 0);
+    }
+
+    private void time(String apiName, ThrowingFunction<AccountSummarySearch, AccountSummaryList> api,
+            String... filterNames) throws Exception {
+        String name = String.join("+", filterNames);
+        LatencyHistogram latency = new LatencyHistogram(apiName + " " + name);
+        int total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            AccountSummarySearch search = makeSearch().pageSize(PAGE_SIZE);
+            for (String filterName : filterNames) {
+                search = filters.get(filterName).apply(search);
+            }
+            long start = System.nanoTime();
+            total = api.apply(search).getTotal();
+            latency.record(elapsedMillis(start));
+        }
+        LOG.info("{} ({} accounts)", latency, total);
+        rows.add(format("%s,%s,%d,0,%d,%d,%d", apiName, name, PAGE_SIZE, total, latency.getPercentile(50),
+                latency.getMax()));
+    }
+
+    private static AccountSummarySearch makeSearch() {
+        return new AccountSummarySearch().emailFilter(emailPrefix);
+    }
+
+    /**
+     * Create the accounts in parallel. Account i speaks LANGUAGES[i % 4], is in DATA_GROUPS[i % 4], and is:
+     * enrolled in study 1 (i % 5 is 0 or 2), study 2 (1 or 2) or neither; withdrawn from study 1 if i % 20 is 0;
+     * a member of org 1 if i % 10 is 3; a developer if i % 50 is 7; and can be recontacted if i % 3 is 0.
+     */
+    private static void seed(int count) throws Exception {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        ParticipantsApi participantsApi = admin.getClient(ParticipantsApi.class);
+        OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
+        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        String studyId1 = studyFixture.getStudyId1();
+        String studyId2 = studyFixture.getStudyId2();
+
+        Seeder.seed("accounts", count, Integer.getInteger(SEED_THREADS_PROPERTY, DEFAULT_SEED_THREADS), n -> {
+            ImmutableMap.Builder<String, String> externalIds = ImmutableMap.builder();
+            if (n % 5 == 0 || n % 5 == 2) {
+                externalIds.put(studyId1, "s1-" + n);
+            }
+            if (n % 5 == 1 || n % 5 == 2) {
+                externalIds.put(studyId2, "s2-" + n);
+            }
+            SignUp signUp = new SignUp().email(emailPrefix + n + "@sagebase.org")
+                    .languages(ImmutableList.of(LANGUAGES.get(n % LANGUAGES.size())))
+                    .dataGroups(DATA_GROUPS.get(n % DATA_GROUPS.size()))
+                    .externalIds(externalIds.build());
+            if (n % 3 == 0) {
+                signUp.attributes(ImmutableMap.of("can_be_recontacted", "true"));
+            }
+            if (n % 50 == 7) {
+                signUp.roles(ImmutableList.of(DEVELOPER));
+            }
+            String userId = participantsApi.createParticipant(signUp).execute().body().getIdentifier();
+            if (n % 20 == 0) {
+                studiesApi.withdrawParticipant(studyId1, userId, "AccountSummarySearchBenchmark").execute();
+            }
+            if (n % 10 == 3) {
+                orgsApi.addMember(studyFixture.getOrgId1(), userId).execute();
+            }
+        });
+    }
+}
@@ -145,7 +145,8 @@ public class AccountSummarySearchTest {
         studiesApi.withdrawParticipant(
                 STUDY_ID_2, study1withdrawnFrom2User.getUserId(), "reasons").execute();
 
-        researcher = TestUserHelper.createAndSignInUser(AccountSummarySearchTest.class, false, RESEARCHER);
+        researcher = new MeteredTestUser(
+                TestUserHelper.createAndSignInUser(AccountSummarySearchTest.class, false, RESEARCHER));
         worker = TestUserHelper.createAndSignInUser(AccountSummarySearchTest.class, false, WORKER);
         studyCoordinator = TestUserHelper.createAndSignInUser(AccountSummarySearchTest.class, false, STUDY_COORDINATOR);
 
@@ -0,0 +1,217 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_COORDINATOR;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.DateTime;
+import org.joda.time.Days;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.ForStudyCoordinatorsApi;
+import org.sagebionetworks.bridge.rest.api.StudyAdherenceApi;
+import org.sagebionetworks.bridge.rest.api.StudyParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecord;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecordUpdates;
+import org.sagebionetworks.bridge.rest.model.AdherenceReportSearch;
+import org.sagebionetworks.bridge.rest.model.ScheduledAssessment;
+import org.sagebionetworks.bridge.rest.model.ScheduledSession;
+import org.sagebionetworks.bridge.user.TestUser;
+
+/**
+ * Reproduces adherence reporting for a large study. This enrolls a cohort of participants in one study (300 by
+ * default), each with a history: they enrolled up to 12 weeks ago, and have finished a share of their past sessions
+ * that varies from participant to participant. It then times, as study coordinators:
+ *
+ * <ul>
+ *   <li>generating each participant's weekly adherence report (getWeeklyAdherenceReport);</li>
+ *   <li>paging through the study's weekly adherence reports (getWeeklyAdherenceReports);</li>
+ *   <li>many coordinators at once fetching study adherence reports (getStudyParticipantAdherenceReport) and pages
+ *   of weekly reports.</li>
+ * </ul>
+ */
+@Category(IntegrationPerformanceTest.class)
+public class AdherenceReportBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(AdherenceReportBenchmark.class);
+
+    static final String PARTICIPANTS_PROPERTY = "bridge.adherenceReport.participants";
+    private static final int DEFAULT_PARTICIPANTS = 300;
+    private static final int MAX_WEEKS_ENROLLED = 12;
+    private static final int PAGE_SIZE = 50;
+    private static final int SETUP_THREADS = 8;
+    private static final int WRITE_BATCH_SIZE = 100;
+
+    private static StudyFixture studyFixture;
+    private static ScheduleFixture scheduleFixture;
+    private static TestUser coordinator;
+    private static final List<TestUser> participants = Collections.synchronizedList(new ArrayList<>());
+    private static final List<String> rows = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        studyFixture = StudyFixture.create(AdherenceReportBenchmark.class);
+        scheduleFixture = new ScheduleFixture.Builder(studyFixture).withSessions(3).withTimeWindows(2)
+                .withDuration("P26W").build();
+        coordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
+        enrollCohort(Integer.getInteger(PARTICIPANTS_PROPERTY, DEFAULT_PARTICIPANTS));
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("adherence-reports", "phase,participants,requests,p50,p90,p99,max,errors", rows);
+        ScheduleFixture.deleteParticipants(participants);
+        if (coordinator != null) {
+            TestUserPool.get().release(coordinator);
+        }
+        if (scheduleFixture != null) {
+            scheduleFixture.delete();
+        }
+        if (studyFixture != null) {
+            studyFixture.delete();
+        }
+    }
+
+    @Test
+    public void reportsAtCohortScale() throws Exception {
+        String studyId = scheduleFixture.getStudyId();
+
+        // Weekly reports only exist once they have been requested for a participant.
+        StudyParticipantsApi participantsApi = coordinator.getClient(StudyParticipantsApi.class);
+        LatencyHistogram generation = new LatencyHistogram("getWeeklyAdherenceReport");
+        int generationErrors = 0;
+        for (TestUser participant : participants) {
+            long start = System.nanoTime();
+            try {
+                participantsApi.getWeeklyAdherenceReport(studyId, participant.getUserId()).execute();
+                generation.record(elapsedMillis(start));
+            } catch (Exception e) {
+                generationErrors++;
+                LOG.warn("Weekly adherence report failed after {} ms: {}", elapsedMillis(start), e.getMessage());
+            }
+        }
+        addRow(generation, generationErrors);
+
+        StudyAdherenceApi adherenceApi = coordinator.getClient(StudyAdherenceApi.class);
+        LatencyHistogram paging = new LatencyHistogram("getWeeklyAdherenceReports");
+        int total = Integer.MAX_VALUE;
+        for (int offsetBy = 0; offsetBy < total; offsetBy += PAGE_SIZE) {
+            long start = System.nanoTime();
+            total = adherenceApi.getWeeklyAdherenceReports(studyId,
+                    new AdherenceReportSearch().offsetBy(offsetBy).pageSize(PAGE_SIZE)).execute().body().getTotal();
+            paging.record(elapsedMillis(start));
+        }
+        addRow(paging, 0);
+
+        LoadTestRunner runner = LoadTestRunner.fromSystemProperties(10, 5, 60);
+        LoadTestRunner.Result studyReports = runner.run("getStudyParticipantAdherenceReport",
+                new CoordinatorScenario() {
+            @Override
+            public void iterate(TestUser coordinator) throws Exception {
+                TestUser participant = participants.get(ThreadLocalRandom.current().nextInt(participants.size()));
+                coordinator.getClient(ForStudyCoordinatorsApi.class)
+                        .getStudyParticipantAdherenceReport(studyId, participant.getUserId()).execute();
+            }
+        });
+        addRow(studyReports.getLatency(), studyReports.getErrors());
+
+        int pages = Math.max(1, (int) Math.ceil(total / (double) PAGE_SIZE));
+        LoadTestRunner.Result weeklyPages = runner.run("concurrent getWeeklyAdherenceReports",
+                new CoordinatorScenario() {
+            @Override
+            public void iterate(TestUser coordinator) throws Exception {
+                int offsetBy = ThreadLocalRandom.current().nextInt(pages) * PAGE_SIZE;
+                coordinator.getClient(StudyAdherenceApi.class).getWeeklyAdherenceReports(studyId,
+                        new AdherenceReportSearch().offsetBy(offsetBy).pageSize(PAGE_SIZE)).execute();
+            }
+        });
+        addRow(weeklyPages.getLatency(), weeklyPages.getErrors());
+
+        assertTrue("No study adherence reports were returned", studyReports.getSuccesses() > 0);
+    }
+
+    /** Each virtual user is a pooled study coordinator. */
+    private abstract static class CoordinatorScenario implements LoadScenario<TestUser> {
+        @Override
+        public TestUser setUp(int virtualUser) throws Exception {
+            return TestUserPool.get().lease(STUDY_COORDINATOR);
+        }
+        @Override
+        public void tearDown(TestUser coordinator) throws Exception {
+            TestUserPool.get().release(coordinator);
+        }
+    }
+
+    /**
+     * Enroll participants who started the schedule at different times in the last few weeks, and who have each
+     * finished a different share of the sessions that were due since.
+     */
+    private static void enrollCohort(int count) throws Exception {
+        String studyId = scheduleFixture.getStudyId();
+        TestUser first = scheduleFixture.createParticipant(AdherenceReportBenchmark.class);
+        participants.add(first);
+        // Instance GUIDs depend only on the schedule, so every participant has the same ones.
+        List<ScheduledSession> sessions = first.getClient(ForConsentedUsersApi.class)
+                .getTimelineForSelf(studyId, null).execute().body().getSchedule();
+
+        long start = System.nanoTime();
+        AtomicInteger records = new AtomicInteger();
+        Seeder.forEach(count - 1, SETUP_THREADS, n -> {
+            // Seeded, so that the cohort is the same from run to run.
+            Random random = new Random(n + 1);
+            DateTime eventTimestamp = scheduleFixture.getEventTimestamp()
+                    .minusDays(random.nextInt(MAX_WEEKS_ENROLLED * 7));
+            TestUser participant = scheduleFixture.createParticipant(AdherenceReportBenchmark.class, eventTimestamp);
+            participants.add(participant);
+            records.addAndGet(writeHistory(participant, sessions, eventTimestamp, random));
+        });
+        LOG.info("Enrolled {} participants with {} adherence records in {} ms", participants.size(),
+                records.get(), elapsedMillis(start));
+    }
+
+    private static int writeHistory(TestUser participant, List<ScheduledSession> sessions, DateTime eventTimestamp,
+            Random random) throws Exception {
+        int daysEnrolled = Days.daysBetween(eventTimestamp, DateTime.now()).getDays();
+        double compliance = 0.2 + 0.8 * random.nextDouble();
+        List<AdherenceRecord> records = new ArrayList<>();
+        for (ScheduledSession session : sessions) {
+            if (session.getStartDay() >= daysEnrolled || random.nextDouble() > compliance) {
+                continue;
+            }
+            DateTime startedOn = eventTimestamp.plusDays(session.getStartDay()).plusHours(12);
+            records.add(new AdherenceRecord().instanceGuid(session.getInstanceGuid())
+                    .eventTimestamp(eventTimestamp).startedOn(startedOn).finishedOn(startedOn.plusMinutes(10)));
+            for (ScheduledAssessment assessment : session.getAssessments()) {
+                records.add(new AdherenceRecord().instanceGuid(assessment.getInstanceGuid())
+                        .eventTimestamp(eventTimestamp).startedOn(startedOn).finishedOn(startedOn.plusMinutes(10)));
+            }
+        }
+        ForConsentedUsersApi usersApi = participant.getClient(ForConsentedUsersApi.class);
+        for (int i = 0; i < records.size(); i += WRITE_BATCH_SIZE) {
+            List<AdherenceRecord> batch = records.subList(i, Math.min(records.size(), i + WRITE_BATCH_SIZE));
+            usersApi.updateAdherenceRecords(scheduleFixture.getStudyId(), new AdherenceRecordUpdates().records(batch))
+                    .execute();
+        }
+        return records.size();
+    }
+
+    private static void addRow(LatencyHistogram latency, long errors) {
+        LOG.info("{} with {} participants: {}, {} errors", latency.getName(), participants.size(), latency, errors);
+        rows.add(format("%s,%d,%d,%d,%d,%d,%d,%d", latency.getName(), participants.size(), latency.getCount(),
+                latency.getPercentile(50), latency.getPercentile(90), latency.getPercentile(99), latency.getMax(),
+                errors));
+    }
+}
@@ -0,0 +1,236 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.AdherenceRecordType.SESSION;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecord;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecordList;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecordUpdates;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecordsSearch;
+import org.sagebionetworks.bridge.rest.model.ScheduledAssessment;
+import org.sagebionetworks.bridge.rest.model.ScheduledSession;
+import org.sagebionetworks.bridge.user.TestUser;
+
+/**
+ * Times every combination of the AdherenceRecordsSearch filters that {@link AdherenceRecordsTest} checks
+ * (instanceGuids, startTime/endTime, timeWindowGuids, includeRepeats and adherenceRecordType), at several page sizes,
+ * for a participant with many records. The participant is seeded in steps (10,000 and then 50,000 records by
+ * default), and the matrix is run at each step, along with deep pagination through all the records. A search whose
+ * latency grows with the number of records, rather than the number it returns, looks like a full scan and is
+ * flagged in the log.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class AdherenceSearchBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(AdherenceSearchBenchmark.class);
+
+    static final String RECORD_COUNTS_PROPERTY = "bridge.adherenceSearch.recordCounts";
+    static final String PAGE_SIZES_PROPERTY = "bridge.adherenceSearch.pageSizes";
+    private static final String DEFAULT_RECORD_COUNTS = "10000,50000";
+    private static final String DEFAULT_PAGE_SIZES = "50,250,500";
+    private static final int ITERATIONS = 3;
+    private static final int SEED_BATCH_SIZE = 100;
+    private static final int SEED_THREADS = 8;
+    private static final int SESSIONS = 10;
+    private static final int TIME_WINDOWS = 8;
+    // A search is flagged when its latency grows by at least this fraction of the growth in the number of records.
+    private static final double FULL_SCAN_GROWTH = 0.5;
+    private static final long MIN_GROWTH_MILLIS = 50;
+    private static final String[] FILTERS = { "instanceGuids", "timeRange", "timeWindowGuids", "noRepeats",
+            "sessionsOnly" };
+
+    private static StudyFixture studyFixture;
+    private static ScheduleFixture scheduleFixture;
+    private static TestUser participant;
+    private static List<AdherenceRecord> records;
+    private static List<String> timeWindowGuids;
+    // The records written in the first step. Filters select from these, so their results don't grow with the steps.
+    private static int firstStep;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        List<Integer> recordCounts = getIntegers(RECORD_COUNTS_PROPERTY, DEFAULT_RECORD_COUNTS);
+        int maxRecords = 0;
+        for (int count : recordCounts) {
+            maxRecords = Math.max(maxRecords, count);
+        }
+        // Each scheduled session gets a session record and an assessment record.
+        int days = (int) Math.ceil(maxRecords / 2.0 / (SESSIONS * TIME_WINDOWS));
+        studyFixture = StudyFixture.create(AdherenceSearchBenchmark.class);
+        scheduleFixture = new ScheduleFixture.Builder(studyFixture).withSessions(SESSIONS)
+                .withTimeWindows(TIME_WINDOWS).withDuration("P" + days + "D").build();
+        participant = scheduleFixture.createParticipant(AdherenceSearchBenchmark.class);
+
+        DateTime eventTimestamp = scheduleFixture.getEventTimestamp();
+        records = new ArrayList<>();
+        timeWindowGuids = new ArrayList<>();
+        List<ScheduledSession> sessions = participant.getClient(ForConsentedUsersApi.class)
+                .getTimelineForSelf(scheduleFixture.getStudyId(), null).execute().body().getSchedule();
+        for (ScheduledSession session : sessions) {
+            DateTime startedOn = eventTimestamp.plusDays(session.getStartDay()).plusMinutes(records.size() % 1440);
+            records.add(new AdherenceRecord().instanceGuid(session.getInstanceGuid())
+                    .eventTimestamp(eventTimestamp).startedOn(startedOn).finishedOn(startedOn.plusMinutes(5)));
+            for (ScheduledAssessment assessment : session.getAssessments()) {
+                records.add(new AdherenceRecord().instanceGuid(assessment.getInstanceGuid())
+                        .eventTimestamp(eventTimestamp).startedOn(startedOn).finishedOn(startedOn.plusMinutes(5)));
+            }
+            if (!timeWindowGuids.contains(session.getTimeWindowGuid())) {
+                timeWindowGuids.add(session.getTimeWindowGuid());
+            }
+        }
+        firstStep = Math.min(recordCounts.get(0), records.size());
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (participant != null) {
+            participant.signOutAndDeleteUser();
+        }
+        if (scheduleFixture != null) {
+            scheduleFixture.delete();
+        }
+        if (studyFixture != null) {
+            studyFixture.delete();
+        }
+    }
+
+    @Test
+    public void searchLatencyMatrix() throws Exception {
+        List<Integer> pageSizes = getIntegers(PAGE_SIZES_PROPERTY, DEFAULT_PAGE_SIZES);
+        // For each search, its p50 at the first and the last record count.
+        Map<String, long[]> growth = new LinkedHashMap<>();
+        List<Integer> recordCounts = getIntegers(RECORD_COUNTS_PROPERTY, DEFAULT_RECORD_COUNTS);
+        int seeded = 0;
+
+        List<String> rows = new ArrayList<>();
+        for (int recordCount : recordCounts) {
+            seeded = seed(seeded, Math.min(recordCount, records.size()));
+            for (int combination = 0; combination < (1 << FILTERS.length); combination++) {
+                String name = describe(combination);
+                for (int pageSize : pageSizes) {
+                    LatencyHistogram latency = new LatencyHistogram(name);
+                    int total = 0;
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        total = search(search(combination).pageSize(pageSize), latency);
+                    }
+                    rows.add(format("%d,%s,%d,0,%d,%d,%d", seeded, name, pageSize, total,
+                            latency.getPercentile(50), latency.getMax()));
+                    long[] p50s = growth.computeIfAbsent(name + " x" + pageSize,
+                            k -> new long[] { latency.getPercentile(50), 0 });
+                    p50s[1] = latency.getPercentile(50);
+                }
+            }
+            // Deep pagination through everything, with the largest page size.
+            int pageSize = pageSizes.get(pageSizes.size() - 1);
+            for (double depth : new double[] { 0, 0.25, 0.5, 0.9 }) {
+                int offsetBy = (int) (seeded * depth) / pageSize * pageSize;
+                LatencyHistogram latency = new LatencyHistogram("offset " + offsetBy);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    search(new AdherenceRecordsSearch().pageSize(pageSize).offsetBy(offsetBy), latency);
+                }
+                rows.add(format("%d,all,%d,%d,%d,%d,%d", seeded, pageSize, offsetBy, seeded,
+                        latency.getPercentile(50), latency.getMax()));
+                LOG.info("{} records, page of {} at offset {}: {}", seeded, pageSize, offsetBy, latency);
+            }
+        }
+        EndpointMetrics.writeCsvReport("adherence-search", "records,search,pageSize,offsetBy,total,p50,max", rows);
+
+        double recordGrowth = (double) seeded / firstStep;
+        List<String> flagged = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : growth.entrySet()) {
+            long first = Math.max(1, entry.getValue()[0]);
+            long last = entry.getValue()[1];
+            if (recordGrowth > 1 && last - first >= MIN_GROWTH_MILLIS
+                    && (double) last / first - 1 >= (recordGrowth - 1) * FULL_SCAN_GROWTH) {
+                flagged.add(format("%s: %d ms -> %d ms", entry.getKey(), first, last));
+            }
+        }
+        if (flagged.isEmpty()) {
+            LOG.info("No adherence search slowed down with the number of records");
+        } else {
+            LOG.warn("Adherence searches that slowed down with the number of records ({}x), and may be full "
+                    + "scans:\n  {}", format("%.1f", recordGrowth), String.join("\n  ", flagged));
+        }
+        assertTrue(seeded > 0);
+    }
+
+    /** Write records until the participant has the given number of them. Returns the number written. */
+    private static int seed(int from, int to) throws Exception {
+        String studyId = scheduleFixture.getStudyId();
+        ForConsentedUsersApi usersApi = participant.getClient(ForConsentedUsersApi.class);
+        int batches = (to - from + SEED_BATCH_SIZE - 1) / SEED_BATCH_SIZE;
+        long start = System.nanoTime();
+        Seeder.forEach(batches, SEED_THREADS, n -> {
+            int batchStart = from + n * SEED_BATCH_SIZE;
+            List<AdherenceRecord> batch = records.subList(batchStart, Math.min(to, batchStart + SEED_BATCH_SIZE));
+            usersApi.updateAdherenceRecords(studyId, new AdherenceRecordUpdates().records(batch)).execute();
+        });
+        LOG.info("Seeded {} adherence records in {} ms", to - from, elapsedMillis(start));
+        return to;
+    }
+
+    private static int search(AdherenceRecordsSearch search, LatencyHistogram latency) throws Exception {
+        long start = System.nanoTime();
+        AdherenceRecordList list = participant.getClient(ForConsentedUsersApi.class)
+                .searchForAdherenceRecords(scheduleFixture.getStudyId(), search).execute().body();
+        latency.record(elapsedMillis(start));
+        return list.getTotal();
+    }
+
+    /** The search with the filters whose bits are set in the combination. */
+    private static AdherenceRecordsSearch search(int combination) {
+        AdherenceRecordsSearch search = new AdherenceRecordsSearch();
+        if ((combination & 1) != 0) {
+            for (int i = 0; i < 10; i++) {
+                search.addInstanceGuidsItem(records.get(i * firstStep / 10).getInstanceGuid());
+            }
+        }
+        if ((combination & 2) != 0) {
+            DateTime middle = records.get(firstStep / 2).getStartedOn();
+            search.startTime(middle).endTime(middle.plusWeeks(1));
+        }
+        if ((combination & 4) != 0) {
+            search.addTimeWindowGuidsItem(timeWindowGuids.get(0));
+        }
+        if ((combination & 8) != 0) {
+            search.includeRepeats(false);
+        }
+        if ((combination & 16) != 0) {
+            search.adherenceRecordType(SESSION);
+        }
+        return search;
+    }
+
+    private static String describe(int combination) {
+        List<String> filters = new ArrayList<>();
+        for (int i = 0; i < FILTERS.length; i++) {
+            if ((combination & (1 << i)) != 0) {
+                filters.add(FILTERS[i]);
+            }
+        }
+        return filters.isEmpty() ? "all" : String.join("+", filters);
+    }
+
+    private static List<Integer> getIntegers(String property, String defaultValue) {
+        List<Integer> values = new ArrayList<>();
+        for (String value : System.getProperty(property, defaultValue).split(",")) {
+            values.add(Integer.parseInt(value.trim()));
+        }
+        return values;
+    }
+}
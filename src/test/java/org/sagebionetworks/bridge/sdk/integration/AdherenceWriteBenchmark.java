@@ -0,0 +1,135 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecord;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecordUpdates;
+import org.sagebionetworks.bridge.rest.model.ScheduledSession;
+import org.sagebionetworks.bridge.user.TestUser;
+
+/**
+ * Measures adherence record write throughput for different client batch sizes. A population of participants is
+ * shared by a smaller number of concurrent clients, and each client writes a batch of records for the next of its
+ * participants through updateAdherenceRecords, over and over. For each batch size, this reports records per
+ * second and the latency of each batch, and at the end, the batch size with the best throughput.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class AdherenceWriteBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(AdherenceWriteBenchmark.class);
+
+    static final String PARTICIPANTS_PROPERTY = "bridge.adherence.participants";
+    static final String BATCH_SIZES_PROPERTY = "bridge.adherence.batchSizes";
+    private static final int DEFAULT_PARTICIPANTS = 200;
+    private static final String DEFAULT_BATCH_SIZES = "1,10,25,50,100";
+
+    private static StudyFixture studyFixture;
+    private static ScheduleFixture scheduleFixture;
+    private static List<TestUser> participants = new ArrayList<>();
+    private static List<String> instanceGuids;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        studyFixture = StudyFixture.create(AdherenceWriteBenchmark.class);
+        // 4 sessions with 4 windows a day for 26 weeks is about 2,900 session instances to write records for.
+        scheduleFixture = new ScheduleFixture.Builder(studyFixture).withSessions(4).withTimeWindows(4)
+                .withDuration("P26W").build();
+        participants = scheduleFixture.createParticipants(AdherenceWriteBenchmark.class,
+                Integer.getInteger(PARTICIPANTS_PROPERTY, DEFAULT_PARTICIPANTS));
+        // Every participant has the same timeline, since they all have the same schedule and event timestamp.
+        instanceGuids = participants.get(0).getClient(ForConsentedUsersApi.class)
+                .getTimelineForSelf(scheduleFixture.getStudyId(), null).execute().body().getSchedule().stream()
+                .map(ScheduledSession::getInstanceGuid).collect(Collectors.toList());
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        ScheduleFixture.deleteParticipants(participants);
+        if (scheduleFixture != null) {
+            scheduleFixture.delete();
+        }
+        if (studyFixture != null) {
+            studyFixture.delete();
+        }
+    }
+
+    @Test
+    public void writeThroughputByBatchSize() throws Exception {
+        LoadTestRunner runner = LoadTestRunner.fromSystemProperties(20, 5, 30);
+        String studyId = scheduleFixture.getStudyId();
+        DateTime eventTimestamp = scheduleFixture.getEventTimestamp();
+
+        List<String> rows = new ArrayList<>();
+        int bestBatchSize = 0;
+        double bestRecordsPerSecond = 0;
+        for (String value : System.getProperty(BATCH_SIZES_PROPERTY, DEFAULT_BATCH_SIZES).split(",")) {
+            int batchSize = Integer.parseInt(value.trim());
+            // Each client writes for every participant whose index is its own number modulo the number of clients.
+            LoadTestRunner.Result result = runner.run("updateAdherenceRecords x" + batchSize,
+                    new LoadScenario<Client>() {
+                @Override
+                public Client setUp(int virtualUser) {
+                    Client client = new Client();
+                    for (int i = virtualUser; i < participants.size(); i += runner.getUsers()) {
+                        client.participants.add(participants.get(i));
+                    }
+                    if (client.participants.isEmpty()) {
+                        // More clients than participants, so some share.
+                        client.participants.add(participants.get(virtualUser % participants.size()));
+                    }
+                    return client;
+                }
+                @Override
+                public void iterate(Client client) throws Exception {
+                    int batch = client.batches.getAndIncrement();
+                    TestUser participant = client.participants.get(batch % client.participants.size());
+                    AdherenceRecordUpdates updates = new AdherenceRecordUpdates();
+                    DateTime startedOn = DateTime.now();
+                    for (int i = 0; i < batchSize; i++) {
+                        String instanceGuid = instanceGuids.get((batch * batchSize + i) % instanceGuids.size());
+                        updates.addRecordsItem(new AdherenceRecord().instanceGuid(instanceGuid)
+                                .eventTimestamp(eventTimestamp).startedOn(startedOn));
+                    }
+                    participant.getClient(ForConsentedUsersApi.class).updateAdherenceRecords(studyId, updates)
+                            .execute();
+                }
+            });
+            double recordsPerSecond = result.getThroughput() * batchSize;
+            LOG.info("Batches of {}: {} records/s", batchSize, Math.round(recordsPerSecond));
+            rows.add(format("%d,%d,%d,%.1f,%d,%d,%d,%d", batchSize, result.getSuccesses(),
+                    (long) result.getSuccesses() * batchSize, recordsPerSecond,
+                    result.getLatency().getPercentile(50), result.getLatency().getPercentile(90),
+                    result.getLatency().getPercentile(99), result.getErrors()));
+            if (recordsPerSecond > bestRecordsPerSecond) {
+                bestRecordsPerSecond = recordsPerSecond;
+                bestBatchSize = batchSize;
+            }
+        }
+        LOG.info("Best adherence write throughput with {} clients: {} records/s in batches of {}",
+                runner.getUsers(), Math.round(bestRecordsPerSecond), bestBatchSize);
+
+        EndpointMetrics.writeCsvReport("adherence-write-throughput",
+                "batchSize,batches,records,recordsPerSecond,p50,p90,p99,errors", rows);
+        assertTrue("No adherence records were written", bestRecordsPerSecond > 0);
+    }
+
+    /** The participants one client writes records for, in turn. */
+    private static class Client {
+        private final List<TestUser> participants = new ArrayList<>();
+        private final AtomicInteger batches = new AtomicInteger();
+    }
+}
@@ -3,7 +3,6 @@ package org.sagebionetworks.bridge.sdk.integration;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
 import java.io.IOException;
@@ -14,9 +13,12 @@ import java.util.stream.Collectors;
 
 import org.joda.time.DateTime;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.sagebionetworks.bridge.rest.api.AlertsApi;
 import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
 import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
@@ -54,6 +56,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+@Category(ForkSafeTest.class)
 public class AlertsTest {
     private static final String CUSTOM_EVENT = "custom:event1";
 
@@ -76,12 +79,31 @@ public class AlertsTest {
     private Assessment assessment;
     private Schedule2 schedule;
 
+    // This test replaces the study's schedule and adherence threshold, and counts every alert in the study,
+    // so it uses its own study.
+    private static StudyFixture fixture;
+    private static String studyId;
+
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        fixture = StudyFixture.create(AlertsTest.class);
+        studyId = fixture.getStudyId1();
+    }
+
+    @AfterClass
+    public static void afterClass() throws IOException {
+        if (fixture != null) {
+            fixture.delete();
+        }
+    }
+
     @Before
     public void before() throws IOException {
         admin = TestUserHelper.getSignedInAdmin();
         researcher = TestUserHelper.createAndSignInUser(AlertsTest.class, true, Role.RESEARCHER);
         worker = TestUserHelper.createAndSignInUser(AlertsTest.class, true, Role.WORKER);
         user = TestUserHelper.createAndSignInUser(AlertsTest.class, true);
+        fixture.enroll(studyId, user);
         developer = TestUserHelper.createAndSignInUser(AlertsTest.class, true, Role.DEVELOPER, Role.STUDY_DESIGNER);
 
         researcherAlertsApi = researcher.getClient(AlertsApi.class);
@@ -128,7 +150,7 @@ public class AlertsTest {
                 .duration("P7D")
                 .sessions(sessions)
                 .studyBursts(ImmutableList.of(burst));
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId, schedule).execute().body();
     }
 
     @After
@@ -166,10 +188,10 @@ public class AlertsTest {
         AlertList alerts;
         do {
             alerts = researcherAlertsApi
-                    .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute()
+                    .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute()
                     .body();
             researcherAlertsApi
-                    .deleteAlerts(STUDY_ID_1,
+                    .deleteAlerts(studyId,
                             new AlertIdCollection().alertIds(
                                     alerts.getItems().stream().map(alert -> alert.getId())
                                             .collect(Collectors.toList())))
@@ -184,51 +206,51 @@ public class AlertsTest {
         //
         // make sure there is an alert for their enrollment
         AlertList alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert enrollmentAlert = assertOneMatchingAlert(alerts, CategoryEnum.NEW_ENROLLMENT, user.getUserId());
 
         // delete the enrollment alert
         researcherAlertsApi
-                .deleteAlerts(STUDY_ID_1, new AlertIdCollection().alertIds(ImmutableList.of(enrollmentAlert.getId())))
+                .deleteAlerts(studyId, new AlertIdCollection().alertIds(ImmutableList.of(enrollmentAlert.getId())))
                 .execute();
 
         // make sure the enrollment alert no longer exists
         AlertList alertsAfterDelete = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertNoMatchingAlerts(alertsAfterDelete, CategoryEnum.NEW_ENROLLMENT, user.getUserId());
     }
 
     @Test
     public void timelineAccessed() throws IOException {
         // access the timeline
-        usersApi.getTimelineForSelf(STUDY_ID_1, null).execute();
+        usersApi.getTimelineForSelf(studyId, null).execute();
 
         // make sure there is an alert for timeline access
         AlertList alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert timelineAccessAlert = assertOneMatchingAlert(alerts, CategoryEnum.TIMELINE_ACCESSED,
                 user.getUserId());
 
         // delete the timeline access alert
-        researcherAlertsApi.deleteAlerts(STUDY_ID_1,
+        researcherAlertsApi.deleteAlerts(studyId,
                 new AlertIdCollection().alertIds(ImmutableList.of(timelineAccessAlert.getId()))).execute();
 
         // make sure the timeline access alert no longer exists
         AlertList alertsAfterDelete = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertNoMatchingAlerts(alertsAfterDelete, CategoryEnum.TIMELINE_ACCESSED, user.getUserId());
     }
 
     @Test
     public void lowAdherence() throws IOException {
         // set adherence threshold
-        Study study = studiesApi.getStudy(STUDY_ID_1).execute().body();
+        Study study = studiesApi.getStudy(studyId).execute().body();
         study.setAdherenceThresholdPercentage(60);
-        studiesApi.updateStudy(STUDY_ID_1, study).execute();
+        studiesApi.updateStudy(studyId, study).execute();
 
         // get initial report
         WeeklyAdherenceReport report = workerApi
-                .getWeeklyAdherenceReportForWorker(admin.getAppId(), STUDY_ID_1, user.getUserId()).execute()
+                .getWeeklyAdherenceReportForWorker(admin.getAppId(), studyId, user.getUserId()).execute()
                 .body();
 
         // that may have triggered an alert because adherence is technically 0% so
@@ -236,7 +258,7 @@ public class AlertsTest {
         deleteAlerts();
 
         // get enrollment event to be able to perform adherence updates
-        StudyActivityEventList events = usersApi.getStudyActivityEvents(STUDY_ID_1).execute().body();
+        StudyActivityEventList events = usersApi.getStudyActivityEvents(studyId).execute().body();
         StudyActivityEvent enrollmentEvent = events.getItems().stream()
                 .filter(event -> event.getEventId().equals("enrollment"))
                 .findFirst().get();
@@ -253,28 +275,28 @@ public class AlertsTest {
             records.add(adherenceRecord);
         }
         AdherenceRecordUpdates updates = new AdherenceRecordUpdates().records(records);
-        usersApi.updateAdherenceRecords(STUDY_ID_1, updates).execute();
+        usersApi.updateAdherenceRecords(studyId, updates).execute();
 
         // get weekly adherence report (should trigger adherence alert because adherence
         // is <=60%)
         report = workerApi
-                .getWeeklyAdherenceReportForWorker(admin.getAppId(), STUDY_ID_1, user.getUserId()).execute()
+                .getWeeklyAdherenceReportForWorker(admin.getAppId(), studyId, user.getUserId()).execute()
                 .body();
         assertEquals(Integer.valueOf(60), report.getWeeklyAdherencePercent());
 
         // make sure there is an alert for low adherence
         AlertList alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert lowAdherenceAlert = assertOneMatchingAlert(alerts, CategoryEnum.LOW_ADHERENCE, user.getUserId());
 
         // delete the alert
         researcherAlertsApi
-                .deleteAlerts(STUDY_ID_1, new AlertIdCollection().alertIds(ImmutableList.of(lowAdherenceAlert.getId())))
+                .deleteAlerts(studyId, new AlertIdCollection().alertIds(ImmutableList.of(lowAdherenceAlert.getId())))
                 .execute();
 
         // make sure there are no alerts for low adherence
         AlertList alertsAfterDelete = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertNoMatchingAlerts(alertsAfterDelete, CategoryEnum.LOW_ADHERENCE, user.getUserId());
 
         // submit another adherence record, adherence should now be 70%
@@ -285,18 +307,18 @@ public class AlertsTest {
                 .startedOn(DateTime.now())
                 .finishedOn(DateTime.now());
         updates = new AdherenceRecordUpdates().records(ImmutableList.of(adherenceRecord));
-        usersApi.updateAdherenceRecords(STUDY_ID_1, updates).execute();
+        usersApi.updateAdherenceRecords(studyId, updates).execute();
 
         // get weekly adherence report (should NOT trigger adherence alert because
         // adherence is now 70% which is >60%)
         report = workerApi
-                .getWeeklyAdherenceReportForWorker(admin.getAppId(), STUDY_ID_1, user.getUserId()).execute()
+                .getWeeklyAdherenceReportForWorker(admin.getAppId(), studyId, user.getUserId()).execute()
                 .body();
         assertEquals(Integer.valueOf(70), report.getWeeklyAdherencePercent());
 
         // make sure there are no alerts for low adherence
         AlertList alertsAfterGoodAdherence = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertNoMatchingAlerts(alertsAfterGoodAdherence, CategoryEnum.LOW_ADHERENCE, user.getUserId());
     }
 
@@ -305,30 +327,30 @@ public class AlertsTest {
         // update study burst event
         StudyActivityEventRequest request = new StudyActivityEventRequest().clientTimeZone("America/Los_Angeles")
                 .eventId(CUSTOM_EVENT).timestamp(DateTime.now());
-        usersApi.createStudyActivityEvent(STUDY_ID_1, request, true, true).execute();
+        usersApi.createStudyActivityEvent(studyId, request, true, true).execute();
 
         // make sure there is an alert for study burst change
         AlertList alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert studyBurstChangeAlert = assertOneMatchingAlert(alerts, CategoryEnum.STUDY_BURST_CHANGE, user.getUserId());
 
         // delete the alert
-        researcherAlertsApi.deleteAlerts(STUDY_ID_1,
+        researcherAlertsApi.deleteAlerts(studyId,
                 new AlertIdCollection().alertIds(ImmutableList.of(studyBurstChangeAlert.getId()))).execute();
 
         // make sure there are no alerts for study burst change
         AlertList alertsAfterDelete = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertNoMatchingAlerts(alertsAfterDelete, CategoryEnum.STUDY_BURST_CHANGE, user.getUserId());
 
         // update study burst event with updateBursts = false
         request = new StudyActivityEventRequest().clientTimeZone("America/Los_Angeles")
                 .eventId(CUSTOM_EVENT).timestamp(DateTime.now());
-        usersApi.createStudyActivityEvent(STUDY_ID_1, request, true, false).execute();
+        usersApi.createStudyActivityEvent(studyId, request, true, false).execute();
 
         // no study burst alerts should exist
         AlertList alertsAfterEvent = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertNoMatchingAlerts(alertsAfterEvent, CategoryEnum.STUDY_BURST_CHANGE, user.getUserId());
     }
 
@@ -340,19 +362,20 @@ public class AlertsTest {
 
         // new enrollment alert
         user2 = TestUserHelper.createAndSignInUser(AlertsTest.class, true);
+        fixture.enroll(studyId, user2);
         // timeline retrieved alert
-        usersApi.getTimelineForSelf(STUDY_ID_1, null).execute();
+        usersApi.getTimelineForSelf(studyId, null).execute();
 
         // no filters
         AlertList alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertEquals(2, alerts.getItems().size());
         assertOneMatchingAlert(alerts, Alert.CategoryEnum.NEW_ENROLLMENT, user2.getUserId());
         assertOneMatchingAlert(alerts, Alert.CategoryEnum.TIMELINE_ACCESSED, user.getUserId());
 
         // new enrollment only
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1,
+                .getAlerts(studyId,
                         new AlertFilter().alertCategories(ImmutableList.of(AlertCategoriesEnum.NEW_ENROLLMENT)), 0, 100)
                 .execute().body();
         assertEquals(1, alerts.getItems().size());
@@ -360,7 +383,7 @@ public class AlertsTest {
 
         // timeline retrieved only
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1,
+                .getAlerts(studyId,
                         new AlertFilter().alertCategories(ImmutableList.of(AlertCategoriesEnum.TIMELINE_ACCESSED)), 0,
                         100)
                 .execute().body();
@@ -369,7 +392,7 @@ public class AlertsTest {
 
         // both filters
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(
+                .getAlerts(studyId, new AlertFilter().alertCategories(
                         ImmutableList.of(AlertCategoriesEnum.NEW_ENROLLMENT, AlertCategoriesEnum.TIMELINE_ACCESSED)), 0,
                         100)
                 .execute().body();
@@ -379,7 +402,7 @@ public class AlertsTest {
 
         // duplicate filters are ignored
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(
+                .getAlerts(studyId, new AlertFilter().alertCategories(
                         ImmutableList.of(
                                 AlertCategoriesEnum.NEW_ENROLLMENT,
                                 AlertCategoriesEnum.NEW_ENROLLMENT,
@@ -402,22 +425,24 @@ public class AlertsTest {
 
         // new enrollment alert
         user3 = TestUserHelper.createAndSignInUser(AlertsTest.class, true);
+        fixture.enroll(studyId, user3);
 
         // check categories and counts
         assertCategoriesAndCounts(ImmutableMap.of(AlertCategoryAndCount.CategoryEnum.NEW_ENROLLMENT, 1));
 
         // new enrollment alert
         user4 = TestUserHelper.createAndSignInUser(AlertsTest.class, true);
+        fixture.enroll(studyId, user4);
 
         // check categories and counts
         assertCategoriesAndCounts(ImmutableMap.of(AlertCategoryAndCount.CategoryEnum.NEW_ENROLLMENT, 2));
 
         // trigger low adherence alert
-        workerApi.getWeeklyAdherenceReportForWorker(admin.getAppId(), STUDY_ID_1, user3.getUserId()).execute();
+        workerApi.getWeeklyAdherenceReportForWorker(admin.getAppId(), studyId, user3.getUserId()).execute();
 
         // verify 1 low adherence alert
         AlertList alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert lowAdherenceAlert1 = assertOneMatchingAlert(alerts, CategoryEnum.LOW_ADHERENCE, user3.getUserId());
         // alert should be unread
         assertFalse(lowAdherenceAlert1.isRead());
@@ -428,11 +453,11 @@ public class AlertsTest {
 
         // trigger low adherence alert again, should overwrite alert (testing
         // overwriting in unread state)
-        workerApi.getWeeklyAdherenceReportForWorker(admin.getAppId(), STUDY_ID_1, user3.getUserId()).execute();
+        workerApi.getWeeklyAdherenceReportForWorker(admin.getAppId(), studyId, user3.getUserId()).execute();
 
         // verify new adherence alert
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert lowAdherenceAlert2 = assertOneMatchingAlert(alerts, CategoryEnum.LOW_ADHERENCE, user3.getUserId());
         // alert should be unread
         assertFalse(lowAdherenceAlert2.isRead());
@@ -444,11 +469,11 @@ public class AlertsTest {
                 AlertCategoryAndCount.CategoryEnum.LOW_ADHERENCE, 1));
 
         // mark as read
-        researcherAlertsApi.markAlertsRead(STUDY_ID_1,
+        researcherAlertsApi.markAlertsRead(studyId,
                 new AlertIdCollection().alertIds(ImmutableList.of(lowAdherenceAlert2.getId()))).execute();
         // make sure alert is marked as read but otherwise unchanged
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert lowAdherenceAlert2Read = assertOneMatchingAlert(alerts, CategoryEnum.LOW_ADHERENCE, user3.getUserId());
         assertTrue(lowAdherenceAlert2Read.isRead());
         assertEquals(lowAdherenceAlert2.getId(), lowAdherenceAlert2Read.getId());
@@ -463,11 +488,11 @@ public class AlertsTest {
 
         // trigger low adherence alert again, should overwrite alert (testing
         // overwriting in read state)
-        workerApi.getWeeklyAdherenceReportForWorker(admin.getAppId(), STUDY_ID_1, user3.getUserId()).execute();
+        workerApi.getWeeklyAdherenceReportForWorker(admin.getAppId(), studyId, user3.getUserId()).execute();
 
         // verify new adherence alert
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert lowAdherenceAlert3 = assertOneMatchingAlert(alerts, CategoryEnum.LOW_ADHERENCE, user3.getUserId());
         // alert should be unread
         assertFalse(lowAdherenceAlert3.isRead());
@@ -480,11 +505,11 @@ public class AlertsTest {
 
         // still need to test unread -> read -> unread
         // mark as read
-        researcherAlertsApi.markAlertsRead(STUDY_ID_1,
+        researcherAlertsApi.markAlertsRead(studyId,
                 new AlertIdCollection().alertIds(ImmutableList.of(lowAdherenceAlert3.getId()))).execute();
         // make sure alert is marked as read but otherwise unchanged
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert lowAdherenceAlert3Read = assertOneMatchingAlert(alerts, CategoryEnum.LOW_ADHERENCE, user3.getUserId());
         assertTrue(lowAdherenceAlert3Read.isRead());
         assertEquals(lowAdherenceAlert3.getId(), lowAdherenceAlert3Read.getId());
@@ -498,11 +523,11 @@ public class AlertsTest {
                 AlertCategoryAndCount.CategoryEnum.LOW_ADHERENCE, 1));
 
         // mark as unread
-        researcherAlertsApi.markAlertsUnread(STUDY_ID_1,
+        researcherAlertsApi.markAlertsUnread(studyId,
                 new AlertIdCollection().alertIds(ImmutableList.of(lowAdherenceAlert3.getId()))).execute();
         // make sure alert is marked as unread but otherwise unchanged
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         Alert lowAdherenceAlert3Unread = assertOneMatchingAlert(alerts, CategoryEnum.LOW_ADHERENCE, user3.getUserId());
         assertFalse(lowAdherenceAlert3Unread.isRead());
         assertEquals(lowAdherenceAlert3.getId(), lowAdherenceAlert3Unread.getId());
@@ -516,12 +541,12 @@ public class AlertsTest {
                 AlertCategoryAndCount.CategoryEnum.LOW_ADHERENCE, 1));
 
         // delete low adherence alert
-        researcherAlertsApi.deleteAlerts(STUDY_ID_1,
+        researcherAlertsApi.deleteAlerts(studyId,
                 new AlertIdCollection().alertIds(ImmutableList.of(lowAdherenceAlert3.getId()))).execute();
 
         // verify deletion
         alerts = researcherAlertsApi
-                .getAlerts(STUDY_ID_1, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
+                .getAlerts(studyId, new AlertFilter().alertCategories(ImmutableList.of()), 0, 100).execute().body();
         assertNoMatchingAlerts(alerts, CategoryEnum.LOW_ADHERENCE, user3.getUserId());
 
         // check categories and counts
@@ -530,7 +555,7 @@ public class AlertsTest {
 
     private void assertCategoriesAndCounts(Map<AlertCategoryAndCount.CategoryEnum, Integer> expectedCategoriesAndCounts)
             throws IOException {
-        AlertCategoriesAndCounts alertCategoriesAndCounts = researcherAlertsApi.getAlertCategoriesAndCounts(STUDY_ID_1)
+        AlertCategoriesAndCounts alertCategoriesAndCounts = researcherAlertsApi.getAlertCategoriesAndCounts(studyId)
                 .execute().body();
         assertEquals(expectedCategoriesAndCounts.size(), alertCategoriesAndCounts.getAlertCategoriesAndCounts().size());
         for (AlertCategoryAndCount categoryAndCount : alertCategoriesAndCounts.getAlertCategoriesAndCounts()) {
@@ -0,0 +1,237 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.ForSuperadminsApi;
+import org.sagebionetworks.bridge.rest.model.App;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Simulates the storm of authentication when many participants open their apps at the same time. Each account is
+ * given one of three flows, in equal numbers:
+ * <ul>
+ *     <li>signIn: sign in with email and password;</li>
+ *     <li>reauth: reauthenticate with the reauth token of the account's last session (the token is rotated by every
+ *     reauthentication, so each account keeps the one it was last given);</li>
+ *     <li>refresh: call the API with a session that has expired on the server, so the REST client gets a 401,
+ *     signs in again behind the scenes, and retries the call (as in SessionRefreshTest). The session is ended with
+ *     an untimed sign-out before each round.</li>
+ * </ul>
+ * In each round, every account runs its flow once, and all of them are released at the same moment. The throughput
+ * of a flow is the number of its calls that succeeded divided by the time from the release until the last call of
+ * the round finished. Reauthentication is turned on for the app while this runs. The signIn and reauth calls are
+ * made through {@link HttpTransport}, so its pool needs a connection per thread (see
+ * {@link HttpTransport#checkConcurrency}).
+ */
+@Category(IntegrationPerformanceTest.class)
+public class AuthStormBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(AuthStormBenchmark.class);
+
+    static final String ACCOUNTS_PROPERTY = "bridge.authStorm.accounts";
+    static final String THREADS_PROPERTY = "bridge.authStorm.threads";
+    static final String ROUNDS_PROPERTY = "bridge.authStorm.rounds";
+    private static final int SETUP_THREADS = 8;
+    private static final ObjectMapper JSON_OBJECT_MAPPER = new ObjectMapper();
+    private static final String SIGN_IN = "signIn";
+    private static final String REAUTH = "reauth";
+    private static final String REFRESH = "refresh";
+    private static final String[] FLOWS = { SIGN_IN, REAUTH, REFRESH };
+
+    private static final List<Account> accounts = Collections.synchronizedList(new ArrayList<>());
+    private static String hostUrl;
+    private static Boolean reauthenticationEnabled;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        ForSuperadminsApi superadminApi = TestUserHelper.getSignedInAdmin().getClient(ForSuperadminsApi.class);
+        App app = superadminApi.getApp(TEST_APP_ID).execute().body();
+        reauthenticationEnabled = app.isReauthenticationEnabled();
+        if (!Boolean.TRUE.equals(reauthenticationEnabled)) {
+            app.setReauthenticationEnabled(true);
+            superadminApi.updateApp(TEST_APP_ID, app).execute();
+        }
+
+        int count = Integer.getInteger(ACCOUNTS_PROPERTY, 1500);
+        Seeder.seed("accounts", count, SETUP_THREADS, n -> accounts.add(new Account(FLOWS[n % FLOWS.length],
+                new MeteredTestUser(TestUserHelper.createAndSignInUser(AuthStormBenchmark.class, true)))));
+        hostUrl = accounts.get(0).user.getClientManager().getHostUrl();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        List<Account> toDelete = new ArrayList<>(accounts);
+        Seeder.forEach(toDelete.size(), SETUP_THREADS, n -> {
+            TestUser user = toDelete.get(n).user;
+            try {
+                user.signOutAndDeleteUser();
+            } catch (Exception e) {
+                LOG.warn("Could not delete {}: {}", user.getEmail(), e.getMessage());
+            }
+        });
+
+        if (reauthenticationEnabled != null && !reauthenticationEnabled) {
+            ForSuperadminsApi superadminApi = TestUserHelper.getSignedInAdmin().getClient(ForSuperadminsApi.class);
+            App app = superadminApi.getApp(TEST_APP_ID).execute().body();
+            app.setReauthenticationEnabled(false);
+            superadminApi.updateApp(TEST_APP_ID, app).execute();
+        }
+    }
+
+    @Test
+    public void storm() throws Exception {
+        int threads = Integer.getInteger(THREADS_PROPERTY, 100);
+        int rounds = Integer.getInteger(ROUNDS_PROPERTY, 3);
+        // The signIn and reauth flows call through HttpTransport, which needs a connection for each thread.
+        HttpTransport.get().checkConcurrency(threads);
+        List<String> rows = new ArrayList<>();
+        long succeeded = 0;
+        for (int round = 1; round <= rounds; round++) {
+            expireRefreshSessions();
+
+            Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+            Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+            for (String flow : FLOWS) {
+                latencies.put(flow, new LatencyHistogram(flow));
+            }
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            long elapsedMillis;
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Account account : accounts) {
+                    futures.add(executor.submit(() -> {
+                        release.await();
+                        long start = System.nanoTime();
+                        try {
+                            runFlow(account);
+                            latencies.get(account.flow).record(elapsedMillis(start));
+                        } catch (Exception e) {
+                            errors.computeIfAbsent(account.flow + " " + e.getClass().getSimpleName(),
+                                    k -> new AtomicLong()).incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                long start = System.nanoTime();
+                release.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                elapsedMillis = Math.max(1, elapsedMillis(start));
+            } finally {
+                executor.shutdownNow();
+            }
+
+            LOG.info("Round {}: {} accounts in {} ms, errors {}", round, accounts.size(), elapsedMillis, errors);
+            for (String flow : FLOWS) {
+                LatencyHistogram latency = latencies.get(flow);
+                long flowErrors = 0;
+                for (Map.Entry<String, AtomicLong> entry : errors.entrySet()) {
+                    if (entry.getKey().startsWith(flow + " ")) {
+                        flowErrors += entry.getValue().get();
+                    }
+                }
+                double throughput = latency.getCount() * 1000.0 / elapsedMillis;
+                double errorRate = flowErrors / (double) Math.max(1, latency.getCount() + flowErrors);
+                LOG.info("Round {} {}: {} succeeded ({} per second), {} failed ({}%), {}", round, flow,
+                        latency.getCount(), format("%.1f", throughput), flowErrors,
+                        format("%.2f", errorRate * 100), latency);
+                rows.add(format("%d,%s,%d,%d,%.4f,%.1f,%d,%d,%d,%d", round, flow, latency.getCount(), flowErrors,
+                        errorRate, throughput, latency.getPercentile(50), latency.getPercentile(90),
+                        latency.getPercentile(99), latency.getMax()));
+                succeeded += latency.getCount();
+            }
+        }
+
+        EndpointMetrics.writeCsvReport("auth-storm",
+                "round,flow,succeeded,errors,errorRate,perSecond,p50,p90,p99,max", rows);
+        assertTrue("No authentication succeeded", succeeded > 0);
+    }
+
+    private static void runFlow(Account account) throws Exception {
+        switch (account.flow) {
+            case SIGN_IN:
+                authenticate(account, "/v3/auth/signIn", "{\"appId\":\"" + account.user.getAppId()
+                        + "\",\"email\":\"" + account.user.getEmail() + "\",\"password\":\""
+                        + account.user.getPassword() + "\"}");
+                break;
+            case REAUTH:
+                authenticate(account, "/v3/auth/reauth", "{\"appId\":\"" + account.user.getAppId()
+                        + "\",\"email\":\"" + account.user.getEmail() + "\",\"reauthToken\":\""
+                        + account.reauthToken + "\"}");
+                break;
+            default:
+                // The server has dropped the session, so the client signs in again and retries.
+                account.user.getClient(ForConsentedUsersApi.class).getActivityEvents().execute();
+        }
+    }
+
+    /** Sign in or reauthenticate, and keep the reauth token of the new session. */
+    private static void authenticate(Account account, String path, String body) throws Exception {
+        HttpResponse response = EndpointMetrics.get().execute("POST", path, Request.Post(hostUrl + path)
+                .bodyString(body, ContentType.APPLICATION_JSON));
+        int status = response.getStatusLine().getStatusCode();
+        if (status != 200) {
+            throw new IllegalStateException("POST " + path + " returned " + status);
+        }
+        JsonNode session = JSON_OBJECT_MAPPER.readTree(EntityUtils.toString(response.getEntity()));
+        if (session.hasNonNull("reauthToken")) {
+            account.reauthToken = session.get("reauthToken").textValue();
+        }
+    }
+
+    /** Sign the refresh accounts out on the server only, so their clients still hold the expired session. */
+    private static void expireRefreshSessions() throws Exception {
+        List<Account> refreshAccounts = new ArrayList<>();
+        for (Account account : accounts) {
+            if (REFRESH.equals(account.flow)) {
+                refreshAccounts.add(account);
+            }
+        }
+        Seeder.forEach(refreshAccounts.size(), SETUP_THREADS, n -> HttpTransport.get().execute(
+                Request.Post(hostUrl + "/v3/auth/signOut")
+                        .setHeader("Bridge-Session", refreshAccounts.get(n).user.getSession().getSessionToken())
+                        .bodyString("{}", ContentType.APPLICATION_JSON)));
+    }
+
+    private static class Account {
+        private final String flow;
+        private final TestUser user;
+        private volatile String reauthToken;
+
+        Account(String flow, TestUser user) {
+            this.flow = flow;
+            this.user = user;
+            this.reauthToken = user.getSession().getReauthToken();
+        }
+    }
+}
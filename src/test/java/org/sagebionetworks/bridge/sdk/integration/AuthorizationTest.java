@@ -51,13 +51,13 @@ public class AuthorizationTest {
 
     @BeforeClass
     public static void beforeTests() throws Exception {
-        developer = TestUserHelper.createAndSignInUser(AuthorizationTest.class, false, DEVELOPER);
-        researcher = TestUserHelper.createAndSignInUser(AuthorizationTest.class, false, RESEARCHER);
-        studyDesigner = TestUserHelper.createAndSignInUser(AuthorizationTest.class, false, STUDY_DESIGNER);
-        studyCoordinator = TestUserHelper.createAndSignInUser(AuthorizationTest.class, false, STUDY_COORDINATOR);
+        developer = TestUserPool.get().lease(DEVELOPER);
+        researcher = TestUserPool.get().lease(RESEARCHER);
+        studyDesigner = TestUserPool.get().lease(STUDY_DESIGNER);
+        studyCoordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
 
         // remove the app-scoped accounts from an organization (at first) to verify they work
-        // without organizational associations
+        // without organizational associations (the pool restores their membership on release)
         TestUser admin = TestUserHelper.getSignedInAdmin();
         ForOrgAdminsApi orgApi = admin.getClient(ForOrgAdminsApi.class);
         orgApi.removeMember(SAGE_ID, developer.getUserId()).execute();
@@ -88,16 +88,16 @@ public class AuthorizationTest {
     @AfterClass
     public static void afterTests() throws Exception {
         if (developer != null) {
-            developer.signOutAndDeleteUser();    
+            TestUserPool.get().release(developer);
         }
         if (researcher != null) {
-            researcher.signOutAndDeleteUser();    
+            TestUserPool.get().release(researcher);
         }
         if (studyDesigner != null) {
-            studyDesigner.signOutAndDeleteUser();            
+            TestUserPool.get().release(studyDesigner);
         }
         if (studyCoordinator != null) {
-            studyCoordinator.signOutAndDeleteUser();    
+            TestUserPool.get().release(studyCoordinator);
         }
     }
     
@@ -113,7 +113,7 @@ public class ConsentTest {
         adminUser = TestUserHelper.getSignedInAdmin();
 
         // Make researcher.
-        researchUser = TestUserHelper.createAndSignInUser(ConsentTest.class, true, RESEARCHER);
+        researchUser = TestUserPool.get().lease(RESEARCHER);
 
         // Make phone user.
         IntegTestUtils.deletePhoneUser();
@@ -131,7 +131,7 @@ public class ConsentTest {
     @AfterClass
     public static void deleteResearcher() throws Exception {
         if (researchUser != null) {
-            researchUser.signOutAndDeleteUser();
+            TestUserPool.get().release(researchUser);
         }
     }
 
@@ -209,7 +209,7 @@ public class ConsentTest {
     // BRIDGE-1594
     @Test
     public void giveConsentAndWithdrawTwice() throws Exception {
-        TestUser developer = TestUserHelper.createAndSignInUser(ConsentTest.class, true, DEVELOPER);
+        TestUser developer = TestUserPool.get().lease(DEVELOPER);
         TestUser user = TestUserHelper.createAndSignInUser(ConsentTest.class, false);
         SubpopulationsApi subpopsApi = developer.getClientManager().getClient(SubpopulationsApi.class);
         GuidVersionHolder keys = null;
@@ -257,7 +257,7 @@ public class ConsentTest {
         } finally {
             adminUser.getClient(SubpopulationsApi.class).deleteSubpopulation(keys.getGuid(), true).execute();
             user.signOutAndDeleteUser();
-            developer.signOutAndDeleteUser();
+            TestUserPool.get().release(developer);
         }
     }
 
@@ -465,12 +465,12 @@ public class ConsentTest {
 
     @Test
     public void canResendConsentAgreement() throws Exception {
-        TestUser testUser = TestUserHelper.createAndSignInUser(ConsentTest.class, true);
+        TestUser testUser = TestUserPool.get().leaseParticipant();
         try {
             ForConsentedUsersApi userApi = testUser.getClient(ForConsentedUsersApi.class);
             userApi.resendConsentAgreement(testUser.getDefaultSubpopulation()).execute();
         } finally {
-            testUser.signOutAndDeleteUser();
+            TestUserPool.get().release(testUser);
         }
     }
 
@@ -775,7 +775,7 @@ public class ConsentTest {
     private void withdrawalTest(WithdrawMethod withdrawMethod) throws Exception {
         TestUser user = null;
         Subpopulation subpop = null;
-        TestUser devUser = TestUserHelper.createAndSignInUser(ConsentTest.class, true, DEVELOPER);
+        TestUser devUser = TestUserPool.get().lease(DEVELOPER);
         SubpopulationsApi subpopApi = devUser.getClient(SubpopulationsApi.class);
         try {
             AppsApi appsApi = devUser.getClient(AppsApi.class);
@@ -812,7 +812,7 @@ public class ConsentTest {
             if (subpop != null && subpop.getGuid() != null) {
                 adminUser.getClient(SubpopulationsApi.class).deleteSubpopulation(subpop.getGuid(), true).execute();
             }
-            devUser.signOutAndDeleteUser();
+            TestUserPool.get().release(devUser);
         }
     }
 }
@@ -33,7 +33,7 @@ public class CriteriaTest {
     @Before
     public void before() throws Exception {
         appConfigGuids = new HashSet<>();
-        developer = TestUserHelper.createAndSignInUser(CriteriaTest.class, false, DEVELOPER);
+        developer = TestUserPool.get().lease(DEVELOPER);
         user = TestUserHelper.createAndSignInUser(CriteriaTest.class, true);
     }
     
@@ -44,7 +44,7 @@ public class CriteriaTest {
             admin.getClient(ForAdminsApi.class).deleteAppConfig(oneGuid, true).execute();
         }
         if (developer != null) {
-            developer.signOutAndDeleteUser();    
+            TestUserPool.get().release(developer);
         }
         if (user != null) {
             user.signOutAndDeleteUser();
@@ -0,0 +1,368 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.HTTP;
+import retrofit2.http.OPTIONS;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
+
+/**
+ * Latency, status codes and response sizes for every instrumented call the suite makes, grouped by HTTP method and
+ * path template (e.g. "GET /v5/studies/{studyId}/schedule"), so that every run doubles as a latency survey of the
+ * server. At the end of the run InitListener writes the numbers to endpoint-latency.json and
+ * endpoint-latency.csv in the report directory (target/bridge-reports by default, or the
+ * <code>bridge.reportDir</code> system property). When the suite runs in several forks, each fork writes its own
+ * report, with the fork number in the file name.
+ *
+ * Calls are instrumented in one of three ways:
+ * <ul>
+ *   <li>{@link MeteredTestUser} wraps the REST clients of an account; the pooled accounts are all metered;</li>
+ *   <li>{@link #meter(Class, Object)} wraps a single REST client;</li>
+ *   <li>{@link #execute(String, String, Request)} executes a raw HTTP request.</li>
+ * </ul>
+ */
+public class EndpointMetrics {
+    private static final Logger LOG = LoggerFactory.getLogger(EndpointMetrics.class);
+
+    static final String REPORT_DIR_PROPERTY = "bridge.reportDir";
+    static final String FORK_NUMBER_PROPERTY = "bridge.forkNumber";
+    private static final String DEFAULT_REPORT_DIR = "target/bridge-reports";
+    private static final String REPORT_NAME = "endpoint-latency";
+
+    private static final EndpointMetrics INSTANCE = new EndpointMetrics();
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public static EndpointMetrics get() {
+        return INSTANCE;
+    }
+
+    private EndpointMetrics() {
+    }
+
+    /**
+     * Record one call.
+     *
+     * @param status
+     *         the HTTP status code, or 0 if there was no response (e.g. a timeout)
+     * @param bytes
+     *         the size of the response body, or -1 if it isn't known
+     */
+    public void record(String method, String pathTemplate, int status, long bytes, long millis) {
+        record(null, method, pathTemplate, status, bytes, millis);
+    }
+
+    /**
+     * Record one call made through a REST client.
+     *
+     * @param operation
+     *         the name of the API method that was called (e.g. "getTimelineForStudy"), or null
+     */
+    public void record(String operation, String method, String pathTemplate, int status, long bytes,
+            long millis) {
+        EndpointStats stats = endpoints.computeIfAbsent(key(method, pathTemplate), EndpointStats::new);
+        stats.record(status, bytes, millis);
+        if (operation != null) {
+            stats.operations.add(operation);
+        }
+    }
+
+    /** Stats for one endpoint (e.g. "GET /v3/participants/self"), or null if it hasn't been called. */
+    public EndpointStats getStats(String method, String pathTemplate) {
+        return endpoints.get(key(method, pathTemplate));
+    }
+
+    /** Stats for every endpoint that has been called. */
+    public Collection<EndpointStats> getAllStats() {
+        return endpoints.values();
+    }
+
+    /** Wrap a REST client so that every call it executes is recorded. */
+    @SuppressWarnings("unchecked")
+    public <T> T meter(Class<T> service, T client) {
+        return (T) Proxy.newProxyInstance(service.getClassLoader(), new Class<?>[] { service },
+                (proxy, method, args) -> {
+                    Object result = invoke(client, method, args);
+                    if (result instanceof Call) {
+                        return meterCall((Call<?>) result, method);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Execute a raw HTTP request on the shared {@link HttpTransport} and record it. The response entity is
+     * buffered, as with returnResponse().
+     */
+    public HttpResponse execute(String method, String pathTemplate, Request request) throws IOException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse response = HttpTransport.get().execute(request);
+            long bytes = (response.getEntity() == null) ? 0 : response.getEntity().getContentLength();
+            record(method, pathTemplate, response.getStatusLine().getStatusCode(), bytes, elapsedMillis(start));
+            return response;
+        } catch (IOException ex) {
+            record(method, pathTemplate, 0, -1, elapsedMillis(start));
+            throw ex;
+        }
+    }
+
+    /** Write the JSON and CSV reports. Does nothing if no calls were recorded. */
+    public void writeReport() throws IOException {
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        SortedMap<String, EndpointStats> sorted = new TreeMap<>(endpoints);
+
+        ArrayNode array = DefaultObjectMapper.INSTANCE.createArrayNode();
+        for (EndpointStats stats : sorted.values()) {
+            array.add(stats.toJson());
+        }
+        File jsonFile = getReportFile(REPORT_NAME, "json");
+        DefaultObjectMapper.INSTANCE.writerWithDefaultPrettyPrinter().writeValue(jsonFile, array);
+
+        List<String> rows = new ArrayList<>();
+        for (EndpointStats stats : sorted.values()) {
+            rows.add(stats.toCsv());
+        }
+        writeCsvReport(REPORT_NAME, "endpoint,operations,count,p50,p90,p99,max,bytes,unknownSizes,statuses", rows);
+        LOG.info("Wrote latencies for {} endpoints to {}", sorted.size(), jsonFile);
+    }
+
+    /**
+     * A file in the report directory, which is created if necessary. When the suite runs in several forks, the fork
+     * number is added to the name, so that forks don't overwrite each other's reports.
+     */
+    static File getReportFile(String name, String extension) throws IOException {
+        File dir = new File(System.getProperty(REPORT_DIR_PROPERTY, DEFAULT_REPORT_DIR));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create report directory " + dir);
+        }
+        String fork = System.getProperty(FORK_NUMBER_PROPERTY);
+        if (fork != null && !fork.isEmpty() && !fork.startsWith("${")) {
+            name += "-" + fork;
+        }
+        return new File(dir, name + "." + extension);
+    }
+
+    /**
+     * Write a CSV report with the given header and rows to the report directory (see {@link #getReportFile}). Nothing
+     * is written if there are no rows, e.g. because the benchmark failed before it measured anything.
+     */
+    static void writeCsvReport(String name, String header, List<String> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        File file = getReportFile(name, "csv");
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println(header);
+            rows.forEach(writer::println);
+        }
+    }
+
+    private Object meterCall(Call<?> call, Method apiMethod) {
+        String[] template = getTemplate(apiMethod);
+        if (template == null) {
+            return call;
+        }
+        return Proxy.newProxyInstance(Call.class.getClassLoader(), new Class<?>[] { Call.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("clone") && method.getParameterCount() == 0) {
+                        return meterCall(call.clone(), apiMethod);
+                    } else if (method.getName().equals("execute") && method.getParameterCount() == 0) {
+                        return executeCall(call, apiMethod.getName(), template[0], template[1]);
+                    }
+                    return invoke(call, method, args);
+                });
+    }
+
+    private Response<?> executeCall(Call<?> call, String operation, String method, String pathTemplate)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            Response<?> response = call.execute();
+            record(operation, method, pathTemplate, response.code(), getBytes(response.raw()),
+                    elapsedMillis(start));
+            return response;
+        } catch (BridgeSDKException ex) {
+            record(operation, method, pathTemplate, ex.getStatusCode(), -1, elapsedMillis(start));
+            throw ex;
+        } catch (IOException | RuntimeException ex) {
+            record(operation, method, pathTemplate, 0, -1, elapsedMillis(start));
+            throw ex;
+        }
+    }
+
+    /**
+     * The size of a Retrofit response body, or -1 if it isn't known. Retrofit has already read and converted the
+     * body, so this is its declared length: the length of the body as read, or failing that, the Content-Length on
+     * the wire (which is the compressed size, if the body was compressed). Chunked responses have neither.
+     */
+    private static long getBytes(okhttp3.Response raw) {
+        if (raw.body() != null && raw.body().contentLength() >= 0) {
+            return raw.body().contentLength();
+        }
+        okhttp3.Response network = raw.networkResponse();
+        String contentLength = (network == null) ? null : network.header("Content-Length");
+        try {
+            return (contentLength == null) ? -1 : Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** The HTTP method and path template of a Retrofit API method, or null if it isn't annotated with one. */
+    private static String[] getTemplate(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation instanceof GET) {
+                return new String[] { "GET", ((GET) annotation).value() };
+            } else if (annotation instanceof POST) {
+                return new String[] { "POST", ((POST) annotation).value() };
+            } else if (annotation instanceof PUT) {
+                return new String[] { "PUT", ((PUT) annotation).value() };
+            } else if (annotation instanceof DELETE) {
+                return new String[] { "DELETE", ((DELETE) annotation).value() };
+            } else if (annotation instanceof PATCH) {
+                return new String[] { "PATCH", ((PATCH) annotation).value() };
+            } else if (annotation instanceof HEAD) {
+                return new String[] { "HEAD", ((HEAD) annotation).value() };
+            } else if (annotation instanceof OPTIONS) {
+                return new String[] { "OPTIONS", ((OPTIONS) annotation).value() };
+            } else if (annotation instanceof HTTP) {
+                return new String[] { ((HTTP) annotation).method(), ((HTTP) annotation).path() };
+            }
+        }
+        return null;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static String key(String method, String pathTemplate) {
+        return method + " " + (pathTemplate.startsWith("/") ? pathTemplate : "/" + pathTemplate);
+    }
+
+    public static class EndpointStats {
+        private final String endpoint;
+        private final LatencyHistogram latency;
+        private final Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong unknownSizes = new AtomicLong();
+        private final Set<String> operations = ConcurrentHashMap.newKeySet();
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+            this.latency = new LatencyHistogram(endpoint);
+        }
+
+        void record(int status, long responseBytes, long millis) {
+            latency.record(millis);
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+            if (responseBytes > 0) {
+                bytes.addAndGet(responseBytes);
+            } else if (responseBytes < 0) {
+                unknownSizes.incrementAndGet();
+            }
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /** The names of the API methods that call this endpoint. */
+        public Set<String> getOperations() {
+            return operations;
+        }
+
+        /** The bytes of the responses whose size is known. */
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        /** The responses whose size isn't known (e.g. chunked responses), which aren't counted in the bytes. */
+        public long getUnknownSizes() {
+            return unknownSizes.get();
+        }
+
+        public long getStatusCount(int status) {
+            AtomicLong count = statuses.get(status);
+            return (count == null) ? 0 : count.get();
+        }
+
+        ObjectNode toJson() {
+            ObjectNode node = DefaultObjectMapper.INSTANCE.createObjectNode();
+            node.put("endpoint", endpoint);
+            ArrayNode operationsNode = node.putArray("operations");
+            for (String operation : new TreeSet<>(operations)) {
+                operationsNode.add(operation);
+            }
+            node.put("count", latency.getCount());
+            node.put("p50", latency.getPercentile(50));
+            node.put("p90", latency.getPercentile(90));
+            node.put("p99", latency.getPercentile(99));
+            node.put("max", latency.getMax());
+            node.put("bytes", bytes.get());
+            node.put("unknownSizes", unknownSizes.get());
+            ObjectNode statusNode = node.putObject("statuses");
+            for (Map.Entry<Integer, AtomicLong> entry : new TreeMap<>(statuses).entrySet()) {
+                statusNode.put(String.valueOf(entry.getKey()), entry.getValue().get());
+            }
+            return node;
+        }
+
+        String toCsv() {
+            List<String> statusList = new ArrayList<>();
+            for (Map.Entry<Integer, AtomicLong> entry : new TreeMap<>(statuses).entrySet()) {
+                statusList.add(entry.getKey() + "=" + entry.getValue().get());
+            }
+            return String.format("\"%s\",\"%s\",%d,%d,%d,%d,%d,%d,%d,\"%s\"", endpoint,
+                    String.join(" ", new TreeSet<>(operations)), latency.getCount(), latency.getPercentile(50),
+                    latency.getPercentile(90), latency.getPercentile(99), latency.getMax(), bytes.get(),
+                    unknownSizes.get(), String.join(" ", statusList));
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_DESIGNER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.util.EntityUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.user.TestUser;
+
+/**
+ * Measures what conditional GETs save on the schedule and timeline endpoints that {@link EtagsTest} checks. Many
+ * participants (and a study designer) poll these endpoints, once sending the ETag of the last response in
+ * If-None-Match, and once without. Half way through each run the schedule is saved, which invalidates the cached
+ * timelines, so the run also shows how long it takes for polling to get back to 304s.
+ *
+ * For each endpoint and mode this logs the latency, the (uncompressed) bytes transferred and the share of 304
+ * responses, which is the server-side cache hit rate, and reports the hit rate for each second of the run relative
+ * to the schedule change.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class EtagsBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(EtagsBenchmark.class);
+
+    private static final String PARTICIPANT_SELF_TIMELINE_URL = "/v5/studies/%s/participants/self/timeline";
+    private static final String PARTICIPANT_TIMELINE_URL = "/v5/studies/%s/participants/%s/timeline";
+    private static final String TIMELINE_URL = "/v5/studies/%s/timeline";
+    private static final String SCHEDULE_URL = "/v5/studies/%s/schedule";
+    private static final ImmutableList<String> DESIGNER_URLS = ImmutableList.of(SCHEDULE_URL, TIMELINE_URL,
+            PARTICIPANT_TIMELINE_URL);
+
+    private static StudyFixture studyFixture;
+    private static ScheduleFixture scheduleFixture;
+    private static TestUser studyDesigner;
+    private static LoadTestRunner runner;
+    private static final Map<String, PollingStats> results = new ConcurrentHashMap<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        studyFixture = StudyFixture.create(EtagsBenchmark.class);
+        scheduleFixture = new ScheduleFixture.Builder(studyFixture).withSessions(3).withDuration("P4W").build();
+        studyDesigner = TestUserPool.get().lease(STUDY_DESIGNER);
+        runner = LoadTestRunner.fromSystemProperties(20, 5, 60);
+        HttpTransport.get().checkConcurrency(runner.getUsers());
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        PollingStats conditional = results.get("conditional");
+        PollingStats unconditional = results.get("unconditional");
+        if (conditional != null && unconditional != null) {
+            for (String url : unconditional.urls.keySet()) {
+                UrlStats withEtag = conditional.urls.get(url);
+                UrlStats withoutEtag = unconditional.urls.get(url);
+                if (withEtag != null && withoutEtag.requests.get() > 0 && withEtag.requests.get() > 0) {
+                    LOG.info("ETags on {}: {} vs {} bytes per request, p50 {} vs {} ms", url,
+                            withEtag.getBytesPerRequest(), withoutEtag.getBytesPerRequest(),
+                            withEtag.latency.getPercentile(50), withoutEtag.latency.getPercentile(50));
+                }
+            }
+        }
+        if (studyDesigner != null) {
+            TestUserPool.get().release(studyDesigner);
+        }
+        if (scheduleFixture != null) {
+            scheduleFixture.delete();
+        }
+        if (studyFixture != null) {
+            studyFixture.delete();
+        }
+    }
+
+    @Test
+    public void conditionalPolling() throws Exception {
+        PollingStats stats = poll("conditional", true);
+        assertTrue("Conditional GETs should get some 304s", stats.getNotModified() > 0);
+    }
+
+    @Test
+    public void unconditionalPolling() throws Exception {
+        poll("unconditional", false);
+    }
+
+    private PollingStats poll(String mode, boolean conditional) throws Exception {
+        String studyId = scheduleFixture.getStudyId();
+        String hostUrl = studyDesigner.getClientManager().getHostUrl();
+        PollingStats stats = new PollingStats(mode);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicReference<ScheduledFuture<?>> change = new AtomicReference<>();
+        try {
+            runner.run(mode + " polling", new LoadScenario<Poller>() {
+                @Override
+                public Poller setUp(int virtualUser) throws Exception {
+                    return new Poller(scheduleFixture.createParticipant(EtagsBenchmark.class));
+                }
+                @Override
+                public void started() {
+                    // Change the schedule half way through the timed run (the set-up above isn't timed).
+                    stats.startedAt = System.nanoTime();
+                    change.set(scheduler.schedule(() -> {
+                        scheduleFixture.updateSchedule(schedule -> schedule.setName("ScheduleFixture schedule "
+                                + mode));
+                        stats.changedAt = System.nanoTime();
+                        LOG.info("Saved the schedule during {} polling", mode);
+                        return null;
+                    }, runner.getRunMillis() / 2, TimeUnit.MILLISECONDS));
+                }
+                @Override
+                public void iterate(Poller poller) throws Exception {
+                    poller.get(stats, hostUrl, conditional, poller.user, PARTICIPANT_SELF_TIMELINE_URL, studyId);
+                    for (String url : DESIGNER_URLS) {
+                        poller.get(stats, hostUrl, conditional, studyDesigner, url, studyId,
+                                poller.user.getUserId());
+                    }
+                }
+                @Override
+                public void tearDown(Poller poller) throws Exception {
+                    poller.user.signOutAndDeleteUser();
+                }
+            });
+            // Fails the test if the schedule couldn't be saved, since the report would have no change in it.
+            change.get().get();
+        } finally {
+            scheduler.shutdownNow();
+        }
+        results.put(mode, stats);
+        stats.log();
+        stats.writeReport();
+        return stats;
+    }
+
+    /** A participant, and the last ETag it got from each URL. */
+    private static class Poller {
+        private final TestUser user;
+        private final Map<String, String> etags = new HashMap<>();
+
+        Poller(TestUser user) {
+            this.user = user;
+        }
+
+        void get(PollingStats stats, String hostUrl, boolean conditional, TestUser caller, String urlFormat,
+                Object... args) throws IOException {
+            Request request = Request.Get(hostUrl + format(urlFormat, args))
+                    .setHeader("Bridge-Session", caller.getSession().getSessionToken());
+            String etag = etags.get(urlFormat);
+            if (conditional && etag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            long start = System.nanoTime();
+            HttpResponse response = HttpTransport.get().execute(request);
+            long millis = elapsedMillis(start);
+
+            int status = response.getStatusLine().getStatusCode();
+            long bytes = (response.getEntity() == null) ? 0 : EntityUtils.toByteArray(response.getEntity()).length;
+            if (status == 200 && response.getFirstHeader(HttpHeaders.ETAG) != null) {
+                etags.put(urlFormat, response.getFirstHeader(HttpHeaders.ETAG).getValue());
+            } else if (status != 304) {
+                throw new IOException("GET " + urlFormat + " returned " + status);
+            }
+            stats.record(urlFormat.replace("%s", "{id}"), status, bytes, millis);
+        }
+    }
+
+    private static class PollingStats {
+        private final String mode;
+        private volatile long startedAt = System.nanoTime();
+        private volatile long changedAt;
+        private final Map<String, UrlStats> urls = new ConcurrentHashMap<>();
+
+        PollingStats(String mode) {
+            this.mode = mode;
+        }
+
+        void record(String url, int status, long bytes, long millis) {
+            UrlStats stats = urls.computeIfAbsent(url, k -> new UrlStats(mode + " GET " + k));
+            stats.latency.record(millis);
+            stats.requests.incrementAndGet();
+            stats.bytes.addAndGet(bytes);
+            long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+            AtomicLongArray bucket = stats.seconds.computeIfAbsent(second, k -> new AtomicLongArray(2));
+            bucket.incrementAndGet(0);
+            if (status == 304) {
+                stats.notModified.incrementAndGet();
+                bucket.incrementAndGet(1);
+            }
+        }
+
+        long getNotModified() {
+            return urls.values().stream().mapToLong(stats -> stats.notModified.get()).sum();
+        }
+
+        void log() {
+            for (UrlStats stats : urls.values()) {
+                LOG.info("{}: {}% 304s, {} bytes per request; {}", stats.latency.getName(),
+                        stats.getHitRate(), stats.getBytesPerRequest(), stats.latency);
+            }
+        }
+
+        void writeReport() throws IOException {
+            // Seconds are counted from the schedule change, so they are negative before it.
+            long changedSecond = (changedAt == 0) ? 0 : TimeUnit.NANOSECONDS.toSeconds(changedAt - startedAt);
+            List<String> rows = new ArrayList<>();
+            for (Map.Entry<String, UrlStats> entry : new TreeMap<>(urls).entrySet()) {
+                SortedMap<Long, AtomicLongArray> seconds = new TreeMap<>(entry.getValue().seconds);
+                for (Map.Entry<Long, AtomicLongArray> bucket : seconds.entrySet()) {
+                    rows.add(format("GET %s,%d,%d,%d", entry.getKey(), bucket.getKey() - changedSecond,
+                            bucket.getValue().get(0), bucket.getValue().get(1)));
+                }
+            }
+            EndpointMetrics.writeCsvReport("etag-benchmark-" + mode, "endpoint,second,requests,notModified", rows);
+        }
+    }
+
+    private static class UrlStats {
+        private final LatencyHistogram latency;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong notModified = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final Map<Long, AtomicLongArray> seconds = new ConcurrentHashMap<>();
+
+        UrlStats(String name) {
+            this.latency = new LatencyHistogram(name);
+        }
+
+        long getHitRate() {
+            return (requests.get() == 0) ? 0 : Math.round(notModified.get() * 100.0 / requests.get());
+        }
+
+        long getBytesPerRequest() {
+            return (requests.get() == 0) ? 0 : bytes.get() / requests.get();
+        }
+    }
+}
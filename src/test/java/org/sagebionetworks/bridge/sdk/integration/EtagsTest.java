@@ -1,23 +1,24 @@
 package org.sagebionetworks.bridge.sdk.integration;
 
-import static java.lang.String.format;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.sagebionetworks.bridge.rest.model.Role.STUDY_DESIGNER;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
 
 import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.fluent.Request;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.sagebionetworks.bridge.rest.api.ForStudyDesignersApi;
 import org.sagebionetworks.bridge.rest.api.SchedulesV2Api;
-import org.sagebionetworks.bridge.rest.api.StudiesApi;
 import org.sagebionetworks.bridge.rest.model.Schedule2;
-import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.user.TestUser;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 
@@ -25,31 +26,44 @@ import com.google.common.net.HttpHeaders;
 
 import retrofit2.Response;
 
+@Category(ForkSafeTest.class)
 public class EtagsTest {
 
-    private static final String PARTICIPANT_SELF_TIMELINE_URL = "/v5/studies/"+STUDY_ID_1+"/participants/self/timeline";
-    private static final String PARTICIPANT_TIMELINE_URL = "/v5/studies/"+STUDY_ID_1+"/participants/%s/timeline";
-    private static final String TIMELINE_URL = "/v5/studies/"+STUDY_ID_1+"/timeline";
-    private static final String SCHEDULE_URL = "/v5/studies/"+STUDY_ID_1+"/schedule";
+    // The path templates of the SDK's API methods, so these calls are recorded with the SDK's calls.
+    private static final String PARTICIPANT_SELF_TIMELINE_URL = "/v5/studies/{studyId}/participants/self/timeline";
+    private static final String PARTICIPANT_TIMELINE_URL = "/v5/studies/{studyId}/participants/{userId}/timeline";
+    private static final String TIMELINE_URL = "/v5/studies/{studyId}/timeline";
+    private static final String SCHEDULE_URL = "/v5/studies/{studyId}/schedule";
+    private static final Pattern PATH_PARAM = Pattern.compile("\\{[^}]+\\}");
+    
+    // This test deletes and replaces the study's schedule, so it uses its own study.
+    private static StudyFixture fixture;
+    private static String studyId;
     
     TestUser studyDesigner;
     TestUser user;
     Schedule2 schedule;
     String hostUrl;
     
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        fixture = StudyFixture.create(EtagsTest.class);
+        studyId = fixture.getStudyId1();
+    }
+    
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (fixture != null) {
+            fixture.delete();
+        }
+    }
+    
     @Before
     public void before() throws Exception {
         user = TestUserHelper.createAndSignInUser(getClass(), true);
+        fixture.enroll(studyId, user);
         studyDesigner = TestUserHelper.createAndSignInUser(getClass(), false, STUDY_DESIGNER);
         hostUrl = studyDesigner.getClientManager().getHostUrl();
-        
-        // If there's a schedule associated to study 1, we need to delete it.
-        TestUser admin = TestUserHelper.getSignedInAdmin();
-        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
-        Study study = studiesApi.getStudy(STUDY_ID_1).execute().body();
-        if (study.getScheduleGuid() != null) {
-            admin.getClient(SchedulesV2Api.class).deleteSchedule(study.getScheduleGuid()).execute();
-        }
     }
     
     @After
@@ -76,34 +90,34 @@ public class EtagsTest {
         schedule.setName("Test Schedule [EtagsTest]");
         schedule.setDuration("P10W");
         
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId, schedule).execute().body();
         
         ForStudyDesignersApi designApi = studyDesigner.getClient(ForStudyDesignersApi.class);
         
         // First request is a 200, but it has an etag
-        Response<Schedule2> res1 = designApi.getScheduleForStudy(STUDY_ID_1).execute();
+        Response<Schedule2> res1 = designApi.getScheduleForStudy(studyId).execute();
         assertEquals(200, res1.code());
         String etag = res1.headers().get(HttpHeaders.ETAG);
         assertNotNull(etag);
         
         // Request it again through any API, you get a 304.
-        assertStatus(studyDesigner, SCHEDULE_URL, etag, 304);
-        assertStatus(studyDesigner, TIMELINE_URL, etag, 304);
-        assertStatus(studyDesigner, format(PARTICIPANT_TIMELINE_URL, user.getUserId()), etag, 304);
-        assertStatus(user, PARTICIPANT_SELF_TIMELINE_URL, etag, 304);
+        assertStatus(studyDesigner, etag, 304, SCHEDULE_URL, studyId);
+        assertStatus(studyDesigner, etag, 304, TIMELINE_URL, studyId);
+        assertStatus(studyDesigner, etag, 304, PARTICIPANT_TIMELINE_URL, studyId, user.getUserId());
+        assertStatus(user, etag, 304, PARTICIPANT_SELF_TIMELINE_URL, studyId);
         
         // Change the schedule, the cache is busted
         schedule.setDuration("P11D");
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId, schedule).execute().body();
         
         // Now you get the content and a 200
-        assertStatus(studyDesigner, SCHEDULE_URL, etag, 200);
-        assertStatus(studyDesigner, TIMELINE_URL, etag, 200);
-        assertStatus(studyDesigner, format(PARTICIPANT_TIMELINE_URL, user.getUserId()), etag, 200);
-        assertStatus(user, PARTICIPANT_SELF_TIMELINE_URL, etag, 200);
+        assertStatus(studyDesigner, etag, 200, SCHEDULE_URL, studyId);
+        assertStatus(studyDesigner, etag, 200, TIMELINE_URL, studyId);
+        assertStatus(studyDesigner, etag, 200, PARTICIPANT_TIMELINE_URL, studyId, user.getUserId());
+        assertStatus(user, etag, 200, PARTICIPANT_SELF_TIMELINE_URL, studyId);
         
         // Get this new etag
-        Response<Schedule2> res2 = designApi.getScheduleForStudy(STUDY_ID_1).execute();
+        Response<Schedule2> res2 = designApi.getScheduleForStudy(studyId).execute();
         etag = res2.headers().get(HttpHeaders.ETAG);
         
         // Deleting the schedule clears the cache too (which was just set) so we see 404 despite 
@@ -112,17 +126,32 @@ public class EtagsTest {
         admin.getClient(SchedulesV2Api.class).deleteSchedule(schedule.getGuid()).execute();
         schedule = null;
 
-        assertStatus(studyDesigner, SCHEDULE_URL, etag, 404);
-        assertStatus(studyDesigner, TIMELINE_URL, etag, 404);
-        assertStatus(studyDesigner, format(PARTICIPANT_TIMELINE_URL, user.getUserId()), etag, 404);
-        assertStatus(user, PARTICIPANT_SELF_TIMELINE_URL, etag, 404);
+        assertStatus(studyDesigner, etag, 404, SCHEDULE_URL, studyId);
+        assertStatus(studyDesigner, etag, 404, TIMELINE_URL, studyId);
+        assertStatus(studyDesigner, etag, 404, PARTICIPANT_TIMELINE_URL, studyId, user.getUserId());
+        assertStatus(user, etag, 404, PARTICIPANT_SELF_TIMELINE_URL, studyId);
     }
     
-    private void assertStatus(TestUser caller, String url, String etag, int statusCode) throws IOException { 
-        HttpResponse response = Request.Get(hostUrl + url)
-            .setHeader("Bridge-Session", caller.getSession().getSessionToken())
-            .setHeader(HttpHeaders.IF_NONE_MATCH, etag)
-            .execute().returnResponse();
+    private void assertStatus(TestUser caller, String etag, int statusCode, String pathTemplate, Object... args)
+            throws IOException {
+        HttpResponse response = EndpointMetrics.get().execute("GET", pathTemplate,
+                Request.Get(hostUrl + expand(pathTemplate, args))
+                        .setHeader("Bridge-Session", caller.getSession().getSessionToken())
+                        .setHeader(HttpHeaders.IF_NONE_MATCH, etag));
         assertEquals(statusCode, response.getStatusLine().getStatusCode());        
     }
+
+    /** The path template with its parameters replaced by the arguments, in order. */
+    private static String expand(String pathTemplate, Object... args) {
+        Matcher matcher = PATH_PARAM.matcher(pathTemplate);
+        StringBuffer path = new StringBuffer();
+        for (Object arg : args) {
+            if (!matcher.find()) {
+                throw new IllegalArgumentException("Too many arguments for " + pathTemplate);
+            }
+            matcher.appendReplacement(path, Matcher.quoteReplacement(String.valueOf(arg)));
+        }
+        matcher.appendTail(path);
+        return path.toString();
+    }
 }
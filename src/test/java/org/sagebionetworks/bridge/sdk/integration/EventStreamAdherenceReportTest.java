@@ -10,15 +10,17 @@ import static org.sagebionetworks.bridge.rest.model.SessionCompletionState.NOT_Y
 import static org.sagebionetworks.bridge.rest.model.SessionCompletionState.UNSTARTED;
 import static org.sagebionetworks.bridge.sdk.integration.InitListener.CLINIC_VISIT;
 import static org.sagebionetworks.bridge.sdk.integration.InitListener.FAKE_ENROLLMENT;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
 import java.util.Set;
 
 import org.joda.time.DateTime;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.sagebionetworks.bridge.rest.api.AssessmentsApi;
 import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
 import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
@@ -31,7 +33,6 @@ import org.sagebionetworks.bridge.rest.model.ParticipantStudyProgress;
 import org.sagebionetworks.bridge.rest.model.Schedule2;
 import org.sagebionetworks.bridge.rest.model.Session;
 import org.sagebionetworks.bridge.rest.model.SessionCompletionState;
-import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.rest.model.StudyActivityEventRequest;
 import org.sagebionetworks.bridge.rest.model.TimeWindow;
 import org.sagebionetworks.bridge.user.TestUser;
@@ -39,6 +40,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 
 import com.google.common.collect.ImmutableSet;
 
+@Category(ForkSafeTest.class)
 public class EventStreamAdherenceReportTest {
     
     private TestUser participant;
@@ -50,20 +52,29 @@ public class EventStreamAdherenceReportTest {
     private String asmtATag;
     private String asmtBTag;
     
+    // This test deletes and replaces the study's schedule, so it uses its own study.
+    private static StudyFixture fixture;
+    private static String studyId;
+    
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        fixture = StudyFixture.create(EventStreamAdherenceReportTest.class);
+        studyId = fixture.getStudyId1();
+    }
+    
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (fixture != null) {
+            fixture.delete();
+        }
+    }
+    
     @Before
     public void before() throws Exception {
         developer = TestUserHelper.createAndSignInUser(getClass(), false, DEVELOPER);
         ForDevelopersApi developersApi = developer.getClient(ForDevelopersApi.class);
         AssessmentsApi asmtsApi = developer.getClient(AssessmentsApi.class);
         
-        Study study = developersApi.getStudy(STUDY_ID_1).execute().body();
-        
-        // If there's a schedule associated to study 1, we need to delete it.
-        TestUser admin = TestUserHelper.getSignedInAdmin();
-        if (study.getScheduleGuid() != null) {
-            admin.getClient(SchedulesV2Api.class).deleteSchedule(study.getScheduleGuid()).execute();
-        }        
-        
         asmtATag = Tests.randomIdentifier(getClass());
         asmtBTag = Tests.randomIdentifier(getClass());
         
@@ -116,7 +127,7 @@ public class EventStreamAdherenceReportTest {
                 .addSessionsItem(s1)
                 .addSessionsItem(s2)
                 .addSessionsItem(s3);
-        schedule = developersApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = developersApi.saveScheduleForStudy(studyId, schedule).execute().body();
     }
     
     @After
@@ -144,9 +155,10 @@ public class EventStreamAdherenceReportTest {
     @Test
     public void test() throws Exception { 
         participant = TestUserHelper.createAndSignInUser(getClass(), true);
+        fixture.enroll(studyId, participant);
         
         ForConsentedUsersApi userApi = participant.getClient(ForConsentedUsersApi.class);
-        EventStreamAdherenceReport report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(STUDY_ID_1, null, null).execute().body();
+        EventStreamAdherenceReport report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(studyId, null, null).execute().body();
         
         // The user hasn't done anything...
         assertEquals(ParticipantStudyProgress.UNSTARTED, report.getProgression());
@@ -157,9 +169,9 @@ public class EventStreamAdherenceReportTest {
         
         StudyActivityEventRequest request = new StudyActivityEventRequest()
                 .eventId(FAKE_ENROLLMENT).timestamp(DateTime.now());
-        userApi.createStudyActivityEvent(STUDY_ID_1, request, true, false).execute();
+        userApi.createStudyActivityEvent(studyId, request, true, false).execute();
         
-        report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(STUDY_ID_1, 
+        report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(studyId, 
                 DateTime.now(), null).execute().body();
         assertEquals(ParticipantStudyProgress.IN_PROGRESS, report.getProgression());
         assertEquals(report.getStreams().size(), 2);
@@ -173,14 +185,14 @@ public class EventStreamAdherenceReportTest {
         assertEquals(ImmutableSet.of(NOT_YET_AVAILABLE), getStates(report, FAKE_ENROLLMENT));
 
         // This is in the far future when everything will have been expired
-        report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(STUDY_ID_1, 
+        report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(studyId, 
                 DateTime.now().plusYears(2), null).execute().body();
         assertEquals(Integer.valueOf(0), report.getAdherencePercent());
         assertEquals(ImmutableSet.of(NOT_APPLICABLE), getStates(report, CLINIC_VISIT));
         assertEquals(ImmutableSet.of(EXPIRED), getStates(report, FAKE_ENROLLMENT));
         
         // Now lets' step into the schedule...
-        report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(STUDY_ID_1, 
+        report = userApi.getUsersStudyParticipantEventStreamAdherenceReport(studyId, 
                 DateTime.now().plusDays(11), null).execute().body();
         assertEquals(ImmutableSet.of(EXPIRED, UNSTARTED, NOT_YET_AVAILABLE), getStates(report, FAKE_ENROLLMENT));
     }
@@ -0,0 +1,154 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+import static org.sagebionetworks.bridge.rest.model.Role.RESEARCHER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForResearchersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.ExternalIdentifierList;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Measures how getExternalIdsForStudy slows down as offsetBy grows, for a study with a large pool of external IDs
+ * (20,000 by default) that all share one prefix. {@link ExternalIdsV4Test} checks the paging over a handful of IDs;
+ * this times a page at a spread of offsets from the first page to the last, both unfiltered and filtered by the
+ * shared prefix, and then times idFilter lookups of narrower prefixes (matching up to 10,000, 1,000, 100 and 10
+ * IDs) against the unfiltered first page.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class ExternalIdPaginationBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(ExternalIdPaginationBenchmark.class);
+
+    static final String COUNT_PROPERTY = "bridge.externalIds.count";
+    static final String SEED_THREADS_PROPERTY = "bridge.externalIds.seedThreads";
+    private static final int DEFAULT_COUNT = 20000;
+    private static final int DEFAULT_SEED_THREADS = 16;
+    private static final int ITERATIONS = 5;
+    private static final int PAGE_SIZE = 50;
+    private static final double[] DEPTHS = { 0, 0.01, 0.1, 0.25, 0.5, 0.75, 1 };
+
+    private static String prefix;
+    private static int count;
+    private static StudyFixture studyFixture;
+    private static TestUser researcher;
+    private static final List<String> userIds = Collections.synchronizedList(new ArrayList<>());
+    private static final List<String> rows = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        prefix = RandomStringUtils.randomAlphabetic(5) + "-";
+        count = Integer.getInteger(COUNT_PROPERTY, DEFAULT_COUNT);
+        studyFixture = StudyFixture.create(ExternalIdPaginationBenchmark.class);
+        researcher = TestUserPool.get().lease(RESEARCHER);
+        seed();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("external-id-pagination", "idFilter,matches,offsetBy,pageSize,p50,p90,max",
+                rows);
+        deleteAccounts();
+        if (researcher != null) {
+            TestUserPool.get().release(researcher);
+        }
+        if (studyFixture != null) {
+            studyFixture.delete();
+        }
+    }
+
+    @Test
+    public void latencyByOffset() throws Exception {
+        long firstPage = 0;
+        long lastPage = 0;
+        for (String idFilter : new String[] { null, prefix }) {
+            for (double depth : DEPTHS) {
+                int offsetBy = Math.max(0, Math.min(count - PAGE_SIZE, (int) (count * depth)));
+                LatencyHistogram latency = time(idFilter, offsetBy, PAGE_SIZE);
+                if (idFilter == null && depth == 0) {
+                    firstPage = latency.getPercentile(50);
+                } else if (idFilter == null && depth == 1) {
+                    lastPage = latency.getPercentile(50);
+                }
+            }
+        }
+        LOG.info("Unfiltered page of {} at offset {}: {} ms, at offset 0: {} ms ({}x)", PAGE_SIZE, count - PAGE_SIZE,
+                lastPage, firstPage, format("%.1f", (double) lastPage / Math.max(1, firstPage)));
+    }
+
+    @Test
+    public void prefixLookups() throws Exception {
+        time(null, 0, PAGE_SIZE);
+        // IDs are zero-padded to five digits, so dropping the last digit of one matches ten times as many IDs.
+        for (String digits : new String[] { "0", "00", "000", "0000" }) {
+            String idFilter = prefix + digits;
+            LatencyHistogram latency = time(idFilter, 0, PAGE_SIZE);
+            LOG.info("idFilter {}: {}", idFilter, latency);
+        }
+    }
+
+    private static LatencyHistogram time(String idFilter, int offsetBy, int pageSize) throws Exception {
+        ForResearchersApi researchersApi = researcher.getClient(ForResearchersApi.class);
+        String name = (idFilter == null) ? "none" : idFilter;
+        LatencyHistogram latency = new LatencyHistogram(name + " @" + offsetBy);
+        int total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            ExternalIdentifierList list = researchersApi.getExternalIdsForStudy(studyFixture.getStudyId1(),
+                    offsetBy, pageSize, idFilter).execute().body();
+            latency.record(elapsedMillis(start));
+            total = list.getTotal();
+        }
+        if (idFilter == null || idFilter.equals(prefix)) {
+            assertEquals("Total for " + name, count, total);
+        }
+        LOG.info("{} ({} IDs)", latency, total);
+        rows.add(format("%s,%d,%d,%d,%d,%d,%d", name, total, offsetBy, pageSize, latency.getPercentile(50),
+                latency.getPercentile(90), latency.getMax()));
+        return latency;
+    }
+
+    /**
+     * Create an account for each external ID, as ExternalIdsV4Test does, but in parallel. The IDs are the shared
+     * prefix followed by the account's number, zero-padded so that the IDs sort in the order they are numbered.
+     */
+    private static void seed() throws Exception {
+        ParticipantsApi participantsApi = TestUserHelper.getSignedInAdmin().getClient(ParticipantsApi.class);
+        String studyId = studyFixture.getStudyId1();
+        Seeder.seed("external IDs", count, Integer.getInteger(SEED_THREADS_PROPERTY, DEFAULT_SEED_THREADS), n -> {
+            String externalId = prefix + format("%05d", n);
+            userIds.add(participantsApi.createParticipant(new SignUp()
+                    .externalIds(ImmutableMap.of(studyId, externalId))).execute().body().getIdentifier());
+        });
+    }
+
+    private static void deleteAccounts() throws Exception {
+        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        List<String> toDelete = new ArrayList<>(userIds);
+        Seeder.forEach(toDelete.size(), Integer.getInteger(SEED_THREADS_PROPERTY, DEFAULT_SEED_THREADS), n -> {
+            try {
+                adminsApi.deleteUser(toDelete.get(n)).execute();
+            } catch (EntityNotFoundException e) {
+                // Already gone.
+            }
+        });
+    }
+}
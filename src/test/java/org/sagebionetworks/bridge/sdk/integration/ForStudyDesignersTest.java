@@ -32,8 +32,8 @@ public class ForStudyDesignersTest {
     
     @Before
     public void before() throws Exception {
-        studyDesigner = TestUserHelper.createAndSignInUser(ForStudyDesignersTest.class, false, STUDY_DESIGNER);
-        // Put them in org two, so we can verify they cannot see org 1
+        studyDesigner = TestUserPool.get().lease(STUDY_DESIGNER);
+        // Put them in org two, so we can verify they cannot see org 1 (the pool moves them back on release)
         TestUser admin = TestUserHelper.getSignedInAdmin();
         ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
         adminsApi.removeMember(SAGE_ID, studyDesigner.getUserId()).execute();
@@ -43,7 +43,7 @@ public class ForStudyDesignersTest {
     @After
     public void after() throws Exception {
         if (studyDesigner != null) {
-            studyDesigner.signOutAndDeleteUser();
+            TestUserPool.get().release(studyDesigner);
         }
     }
     
@@ -0,0 +1,9 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+/**
+ * Tests that only change the state of their own {@link StudyFixture} and leave the app's settings alone, so they
+ * can run in parallel forks with -DjunitCategory=forkSafeTests.
+ */
+public interface ForkSafeTest {
+
+}
@@ -35,8 +35,8 @@ public class HealthDataDocumentationTest {
     @Before
     public void before() throws IOException {
         admin = TestUserHelper.getSignedInAdmin();
-        researcher = TestUserHelper.createAndSignInUser(HealthDataDocumentationTest.class, false, Role.RESEARCHER);
-        developer = TestUserHelper.createAndSignInUser(HealthDataDocumentationTest.class, false, Role.DEVELOPER);
+        researcher = TestUserPool.get().lease(Role.RESEARCHER);
+        developer = TestUserPool.get().lease(Role.DEVELOPER);
 
         identifier1 = Tests.randomIdentifier(getClass());
         identifier2 = Tests.randomIdentifier(getClass());
@@ -49,10 +49,10 @@ public class HealthDataDocumentationTest {
         adminsApi.deleteAllHealthDataDocumentationForParentId(PARENT_ID);
 
         if (developer != null) {
-            developer.signOutAndDeleteUser();
+            TestUserPool.get().release(developer);
         }
         if (researcher != null) {
-            researcher.signOutAndDeleteUser();
+            TestUserPool.get().release(researcher);
         }
     }
 
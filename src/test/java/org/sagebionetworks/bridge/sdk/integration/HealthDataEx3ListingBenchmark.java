@@ -0,0 +1,203 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+import static org.sagebionetworks.bridge.rest.model.Role.WORKER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForSuperadminsApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.model.HealthDataRecordEx3;
+import org.sagebionetworks.bridge.rest.model.HealthDataRecordEx3List;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Measures how fast the HealthDataEx3 listings can be walked from the first page to the last with
+ * nextPageOffsetKey, the way the export workers walk them. Records (10,000 by default) are created in parallel
+ * through createOrUpdateRecordEx3, spread over several participants and studies, with createdOn values a
+ * millisecond apart in a window of their own. Then getRecordsEx3ForApp, getRecordsEx3ForStudy (for one of the
+ * studies) and getRecordsEx3ForUser (for one of the participants) are walked at each page size, and the records and
+ * pages per second are reported along with the latency of each page.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class HealthDataEx3ListingBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(HealthDataEx3ListingBenchmark.class);
+
+    static final String RECORDS_PROPERTY = "bridge.healthDataEx3.records";
+    static final String PARTICIPANTS_PROPERTY = "bridge.healthDataEx3.participants";
+    static final String STUDIES_PROPERTY = "bridge.healthDataEx3.studies";
+    static final String PAGE_SIZES_PROPERTY = "bridge.healthDataEx3.pageSizes";
+    private static final int DEFAULT_RECORDS = 10000;
+    private static final int DEFAULT_PARTICIPANTS = 20;
+    private static final int DEFAULT_STUDIES = 4;
+    private static final String DEFAULT_PAGE_SIZES = "10,25,50,100";
+    private static final int SEED_THREADS = 16;
+    // Listings are eventually consistent, so wait this long for all the records to show up.
+    private static final long CONSISTENCY_DEADLINE_MILLIS = 60000;
+
+    private static TestUser admin;
+    private static TestUser worker;
+    private static int recordCount;
+    private static DateTime createdOnStart;
+    private static DateTime createdOnEnd;
+    private static final List<TestUser> participants = new ArrayList<>();
+    private static final List<String> healthCodes = new ArrayList<>();
+    private static final List<String> studyIds = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        worker = TestUserPool.get().lease(WORKER);
+        recordCount = Integer.getInteger(RECORDS_PROPERTY, DEFAULT_RECORDS);
+
+        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        for (int i = 0; i < Integer.getInteger(STUDIES_PROPERTY, DEFAULT_STUDIES); i++) {
+            String studyId = Tests.randomIdentifier(HealthDataEx3ListingBenchmark.class);
+            studiesApi.createStudy(new Study().identifier(studyId).name(studyId)).execute();
+            studyIds.add(studyId);
+        }
+        ParticipantsApi participantsApi = admin.getClient(ParticipantsApi.class);
+        for (int i = 0; i < Integer.getInteger(PARTICIPANTS_PROPERTY, DEFAULT_PARTICIPANTS); i++) {
+            TestUser participant = TestUserHelper.createAndSignInUser(HealthDataEx3ListingBenchmark.class, true);
+            participants.add(participant);
+            healthCodes.add(participantsApi.getParticipantById(participant.getUserId(), false).execute().body()
+                    .getHealthCode());
+        }
+
+        // An hour ago, so that no other test is creating records in this window while we list it.
+        createdOnStart = DateTime.now(DateTimeZone.UTC).minusHours(1);
+        createdOnEnd = createdOnStart.plusMillis(recordCount);
+        seed();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        ForSuperadminsApi superadminsApi = admin.getClient(ForSuperadminsApi.class);
+        for (TestUser participant : participants) {
+            superadminsApi.deleteRecordsEx3ForUser(TEST_APP_ID, participant.getUserId()).execute();
+            participant.signOutAndDeleteUser();
+        }
+        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        for (String studyId : studyIds) {
+            studiesApi.deleteStudy(studyId, true).execute();
+        }
+        if (worker != null) {
+            TestUserPool.get().release(worker);
+        }
+    }
+
+    @Test
+    public void fullScanThroughput() throws Exception {
+        ForWorkersApi workersApi = worker.getClient(ForWorkersApi.class);
+        String studyId = studyIds.get(0);
+        String userId = participants.get(0).getUserId();
+        int studyRecords = countFor(studyIds.size(), 0);
+        int userRecords = countFor(participants.size(), 0);
+
+        // Wait until every record can be listed in every listing before timing anything.
+        Tests.retryHelper(() -> walk("getRecordsEx3ForApp", 100, offsetKey -> workersApi.getRecordsEx3ForApp(
+                TEST_APP_ID, createdOnStart, createdOnEnd, 100, offsetKey).execute().body()),
+                (Walk walk) -> walk.records >= recordCount, CONSISTENCY_DEADLINE_MILLIS);
+        Tests.retryHelper(() -> walk("getRecordsEx3ForStudy", 100, offsetKey -> workersApi.getRecordsEx3ForStudy(
+                TEST_APP_ID, studyId, createdOnStart, createdOnEnd, 100, offsetKey).execute().body()),
+                (Walk walk) -> walk.records == studyRecords, CONSISTENCY_DEADLINE_MILLIS);
+        Tests.retryHelper(() -> walk("getRecordsEx3ForUser", 100, offsetKey -> workersApi.getRecordsEx3ForUser(
+                TEST_APP_ID, userId, createdOnStart, createdOnEnd, 100, offsetKey).execute().body()),
+                (Walk walk) -> walk.records == userRecords, CONSISTENCY_DEADLINE_MILLIS);
+
+        List<String> rows = new ArrayList<>();
+        for (String value : System.getProperty(PAGE_SIZES_PROPERTY, DEFAULT_PAGE_SIZES).split(",")) {
+            int pageSize = Integer.parseInt(value.trim());
+            Walk app = walk("getRecordsEx3ForApp", pageSize, offsetKey -> workersApi.getRecordsEx3ForApp(
+                    TEST_APP_ID, createdOnStart, createdOnEnd, pageSize, offsetKey).execute().body());
+            Walk study = walk("getRecordsEx3ForStudy", pageSize, offsetKey -> workersApi.getRecordsEx3ForStudy(
+                    TEST_APP_ID, studyId, createdOnStart, createdOnEnd, pageSize, offsetKey).execute().body());
+            Walk user = walk("getRecordsEx3ForUser", pageSize, offsetKey -> workersApi.getRecordsEx3ForUser(
+                    TEST_APP_ID, userId, createdOnStart, createdOnEnd, pageSize, offsetKey).execute().body());
+            assertEquals("getRecordsEx3ForStudy records", studyRecords, study.records);
+            assertEquals("getRecordsEx3ForUser records", userRecords, user.records);
+            for (Walk walk : new Walk[] { app, study, user }) {
+                LOG.info("{} x{}: {} records in {} pages, {} ms, {} records/s, {} pages/s, {}", walk.name, pageSize,
+                        walk.records, walk.latency.getCount(), walk.millis, format("%.1f", walk.recordsPerSecond()),
+                        format("%.1f", walk.pagesPerSecond()), walk.latency);
+                rows.add(format("%s,%d,%d,%d,%d,%.1f,%.1f,%d,%d,%d", walk.name, pageSize, walk.records,
+                        walk.latency.getCount(), walk.millis, walk.recordsPerSecond(), walk.pagesPerSecond(),
+                        walk.latency.getPercentile(50), walk.latency.getPercentile(90), walk.latency.getMax()));
+            }
+        }
+
+        EndpointMetrics.writeCsvReport("health-data-ex3-listing",
+                "listing,pageSize,records,pages,millis,recordsPerSecond,pagesPerSecond,p50,p90,max", rows);
+    }
+
+    private static Walk walk(String name, int pageSize, ThrowingFunction<String, HealthDataRecordEx3List> function)
+            throws Exception {
+        Walk walk = new Walk(name + " x" + pageSize);
+        walk.name = name;
+        long start = System.nanoTime();
+        String offsetKey = null;
+        do {
+            long pageStart = System.nanoTime();
+            HealthDataRecordEx3List page = function.apply(offsetKey);
+            walk.latency.record(elapsedMillis(pageStart));
+            walk.records += page.getItems().size();
+            offsetKey = page.getNextPageOffsetKey();
+        } while (offsetKey != null);
+        walk.millis = elapsedMillis(start);
+        return walk;
+    }
+
+    /** Record i belongs to participant i % participants, and to study i % studies. */
+    private static void seed() throws Exception {
+        ForWorkersApi workersApi = worker.getClient(ForWorkersApi.class);
+        Seeder.seed("records", recordCount, SEED_THREADS, i -> {
+            HealthDataRecordEx3 record = new HealthDataRecordEx3();
+            record.setCreatedOn(createdOnStart.plusMillis(i));
+            record.setHealthCode(healthCodes.get(i % healthCodes.size()));
+            record.setStudyId(studyIds.get(i % studyIds.size()));
+            workersApi.createOrUpdateRecordEx3(TEST_APP_ID, record).execute();
+        });
+    }
+
+    /** The number of records whose index is the given remainder modulo the divisor. */
+    private static int countFor(int divisor, int remainder) {
+        return recordCount / divisor + (remainder < recordCount % divisor ? 1 : 0);
+    }
+
+    /** One walk through a listing, from the first page to the last. */
+    private static class Walk {
+        private final LatencyHistogram latency;
+        private String name;
+        private int records;
+        private long millis;
+
+        Walk(String histogramName) {
+            this.latency = new LatencyHistogram(histogramName);
+        }
+
+        double recordsPerSecond() {
+            return records * 1000.0 / Math.max(1, millis);
+        }
+
+        double pagesPerSecond() {
+            return latency.getCount() * 1000.0 / Math.max(1, millis);
+        }
+    }
+}
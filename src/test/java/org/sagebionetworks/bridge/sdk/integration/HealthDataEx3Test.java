@@ -48,7 +48,8 @@ public class HealthDataEx3Test {
     @BeforeClass
     public static void beforeClass() throws Exception {
         admin = TestUserHelper.getSignedInAdmin();
-        worker = TestUserHelper.createAndSignInUser(HealthDataEx3Test.class, false, Role.WORKER);
+        worker = new MeteredTestUser(
+                TestUserHelper.createAndSignInUser(HealthDataEx3Test.class, false, Role.WORKER));
         createdOn = DateTime.now(DateTimeZone.UTC);
 
         // Create study.
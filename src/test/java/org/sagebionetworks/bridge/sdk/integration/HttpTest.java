@@ -5,11 +5,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.fluent.Request;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -40,11 +39,12 @@ public class HttpTest {
 
     @Test
     public void testPreflight() throws Exception {
-        HttpResponse response = Request.Options(testBaseUrl+"/v1/apps?summary=true")
-            .setHeader(ACCESS_CONTROL_REQUEST_HEADERS, "accept, content-type")
-            .setHeader(ACCESS_CONTROL_REQUEST_METHOD, "POST")
-            .setHeader(ORIGIN, "https://some.remote.server.org")
-            .connectTimeout(TIMEOUT).execute().returnResponse();
+        HttpResponse response = EndpointMetrics.get().execute("OPTIONS", "/v1/apps",
+                Request.Options(testBaseUrl+"/v1/apps?summary=true")
+                        .setHeader(ACCESS_CONTROL_REQUEST_HEADERS, "accept, content-type")
+                        .setHeader(ACCESS_CONTROL_REQUEST_METHOD, "POST")
+                        .setHeader(ORIGIN, "https://some.remote.server.org")
+                        .connectTimeout(TIMEOUT));
         assertEquals(200, response.getStatusLine().getStatusCode());
         
         assertEquals("Should echo back the origin",
@@ -57,11 +57,10 @@ public class HttpTest {
 
     @Test
     public void testCors() throws Exception {
-        HttpResponse response = Request.Get(testBaseUrl+"/")
+        HttpResponse response = EndpointMetrics.get().execute("GET", "/", Request.Get(testBaseUrl+"/")
                 .setHeader(ORIGIN, "https://some.remote.server.org")
                 .setHeader(REFERER, "https://some.remote.server.org")
-                .connectTimeout(TIMEOUT)
-                .execute().returnResponse();
+                .connectTimeout(TIMEOUT));
         assertEquals(200, response.getStatusLine().getStatusCode());
     }
 
@@ -72,10 +71,9 @@ public class HttpTest {
         if (TestUserHelper.getSignedInAdmin().getClientManager().getConfig().getEnvironment() != Environment.LOCAL) {
             
             // You can't use the fluent API because it doesn't allow you to observe redirects.
-            CloseableHttpClient httpclient = HttpClients.custom().disableRedirectHandling().build();
-            
             HttpGet httpGet = new HttpGet(testBaseUrl.replace("https","http")+"/");
-            CloseableHttpResponse response = httpclient.execute(httpGet);
+            httpGet.setConfig(RequestConfig.custom().setRedirectsEnabled(false).build());
+            CloseableHttpResponse response = HttpTransport.get().getHttpClient().execute(httpGet);
             try {
                 assertEquals(301, response.getStatusLine().getStatusCode());
                 assertNotNull(response.getFirstHeader("location").getValue());
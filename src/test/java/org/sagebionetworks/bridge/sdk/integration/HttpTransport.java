@@ -0,0 +1,142 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Executor;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One pooled, keep-alive HTTP client for every test that makes raw HTTP calls (to Bridge, or to S3 through a
+ * presigned URL), instead of the fluent API's default executor or a new HttpURLConnection for each call. Under
+ * parallel execution this saves a TLS handshake for most calls. The pool can be sized with system properties:
+ *
+ * <pre>
+ * -Dbridge.http.maxConnections=100 -Dbridge.http.maxConnectionsPerRoute=20
+ * </pre>
+ *
+ * The integration-performance-tests profile raises these to 400 and 200, and benchmarks that send more concurrent
+ * requests than that call {@link #checkConcurrency(int)} to fail fast rather than measure time spent waiting for a
+ * connection. The transport counts the requests it sends and the connections it opens, so the connection reuse can
+ * be checked at the end of a run (see {@link #toString()}).
+ */
+public class HttpTransport {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpTransport.class);
+
+    static final String MAX_CONNECTIONS_PROPERTY = "bridge.http.maxConnections";
+    static final String MAX_CONNECTIONS_PER_ROUTE_PROPERTY = "bridge.http.maxConnectionsPerRoute";
+    private static final int DEFAULT_MAX_CONNECTIONS = 100;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+    private static final long IDLE_CONNECTION_SECONDS = 30;
+
+    private static final HttpTransport INSTANCE = new HttpTransport();
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final Executor executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    public static HttpTransport get() {
+        return INSTANCE;
+    }
+
+    private HttpTransport() {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSocketFactory()).build();
+        HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connectionFactory =
+                (HttpRoute route, ConnectionConfig config) -> {
+                    connectionsOpened.incrementAndGet();
+                    return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+                };
+        connectionManager = new PoolingHttpClientConnectionManager(registry, connectionFactory);
+        connectionManager.setMaxTotal(Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS));
+        connectionManager.setDefaultMaxPerRoute(Integer.getInteger(MAX_CONNECTIONS_PER_ROUTE_PROPERTY,
+                DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+        HttpRequestInterceptor requestCounter = (request, context) -> requests.incrementAndGet();
+        httpClient = HttpClients.custom().setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictIdleConnections(IDLE_CONNECTION_SECONDS, TimeUnit.SECONDS)
+                .addInterceptorFirst(requestCounter)
+                .build();
+        executor = Executor.newInstance(httpClient);
+    }
+
+    /** The shared client, for calls the fluent API can't make. Don't close it. */
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Fail fast if the pool can't give every one of this many concurrent requests to one host its own connection.
+     * The requests over the limit would wait for a connection, and the wait would be measured as server latency.
+     */
+    public void checkConcurrency(int concurrentRequests) {
+        int maxPerRoute = Math.min(connectionManager.getMaxTotal(), connectionManager.getDefaultMaxPerRoute());
+        if (concurrentRequests > maxPerRoute) {
+            throw new IllegalStateException(String.format("%d concurrent requests, but only %d connections per "
+                    + "host; run with -D%s=%d (and -D%s at least as high)", concurrentRequests, maxPerRoute,
+                    MAX_CONNECTIONS_PER_ROUTE_PROPERTY, concurrentRequests, MAX_CONNECTIONS_PROPERTY));
+        }
+    }
+
+    /** Execute the request on a pooled connection. The response entity is buffered, as with returnResponse(). */
+    public HttpResponse execute(Request request) throws IOException {
+        return executor.execute(request).returnResponse();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    /** The fraction of requests that were sent on a connection that was already open. */
+    public double getReuseRatio() {
+        long total = requests.get();
+        return (total == 0) ? 0 : Math.max(0, total - connectionsOpened.get()) / (double) total;
+    }
+
+    /** Close every pooled connection. */
+    public void shutdown() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            LOG.warn("Could not close HTTP client: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return String.format("HTTP transport: %d requests on %d connections (%.0f%% reused), %d leased, "
+                + "%d idle, %d pending", getRequests(), getConnectionsOpened(), getReuseRatio() * 100,
+                stats.getLeased(), stats.getAvailable(), stats.getPending());
+    }
+}
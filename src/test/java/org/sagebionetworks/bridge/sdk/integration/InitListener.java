@@ -1,23 +1,15 @@
 package org.sagebionetworks.bridge.sdk.integration;
 
-import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.FUTURE_ONLY;
-import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.IMMUTABLE;
-import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.MUTABLE;
 import static org.sagebionetworks.bridge.sdk.integration.Tests.API_SIGNIN;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.ORG_ID_1;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.ORG_ID_2;
 import static org.sagebionetworks.bridge.sdk.integration.Tests.SHARED_SIGNIN;
 import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_2;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_ID;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_NAME;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
 import org.junit.runner.Description;
 import org.junit.runner.Result;
 import org.junit.runner.notification.RunListener;
@@ -29,17 +21,11 @@ import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
 import org.sagebionetworks.bridge.rest.api.ForOrgAdminsApi;
 import org.sagebionetworks.bridge.rest.api.OrganizationsApi;
 import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
-import org.sagebionetworks.bridge.rest.api.StudiesApi;
 import org.sagebionetworks.bridge.rest.api.SubpopulationsApi;
-import org.sagebionetworks.bridge.rest.exceptions.ConstraintViolationException;
 import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
-import org.sagebionetworks.bridge.rest.model.AccountSummary;
-import org.sagebionetworks.bridge.rest.model.AccountSummarySearch;
 import org.sagebionetworks.bridge.rest.model.App;
-import org.sagebionetworks.bridge.rest.model.CustomEvent;
 import org.sagebionetworks.bridge.rest.model.Environment;
 import org.sagebionetworks.bridge.rest.model.Organization;
-import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.rest.model.Subpopulation;
 import org.sagebionetworks.bridge.user.TestUser;
 import org.sagebionetworks.bridge.user.TestUserHelper;
@@ -59,6 +45,8 @@ public class InitListener extends RunListener {
     public static final String FAKE_ENROLLMENT = "fake_enrollment";
     public static final String CLINIC_VISIT = "clinic_visit";
 
+    static final String RUN_STARTED_ON_PROPERTY = "bridge.run.startedOn";
+
     private boolean testRunInitialized;
 
     @Override
@@ -66,55 +54,15 @@ public class InitListener extends RunListener {
         if (testRunInitialized) {
             return;
         }
+        // When the suite runs against a recording, the stand-in server must be listening before anything signs in.
+        StandInServer.startIfConfigured();
+
         // Must do this first to initialize the logger correctly
         TestUser admin = TestUserHelper.getSignedInAdmin();
 
         LOG.info("Initializing some frequently used test objects...");
 
-        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
-        try {
-            studiesApi.getStudy(STUDY_ID_1).execute();
-        } catch(EntityNotFoundException e) {
-            Study study = new Study().identifier(STUDY_ID_1).name(STUDY_ID_1);
-            studiesApi.createStudy(study).execute();
-            LOG.info("  Creating study “{}”", STUDY_ID_1);
-        }
-        
-        Study study1 = studiesApi.getStudy(STUDY_ID_1).execute().body();
-        List<CustomEvent> events = new ArrayList<>();
-        events.add(new CustomEvent().eventId(EVENT_KEY1).updateType(MUTABLE));
-        events.add(new CustomEvent().eventId(EVENT_KEY2).updateType(IMMUTABLE));
-        events.add(new CustomEvent().eventId(EVENT_KEY3).updateType(FUTURE_ONLY));
-        events.add(new CustomEvent().eventId(FAKE_ENROLLMENT).updateType(MUTABLE));
-        events.add(new CustomEvent().eventId(CLINIC_VISIT).updateType(MUTABLE));
-        study1.setCustomEvents(events);
-        studiesApi.updateStudy(study1.getIdentifier(), study1).execute();
-        
-        try {
-            studiesApi.getStudy(STUDY_ID_2).execute();
-        } catch(EntityNotFoundException e) {
-            Study study = new Study().identifier(STUDY_ID_2).name(STUDY_ID_2);
-            studiesApi.createStudy(study).execute();
-            LOG.info("  Creating study “{}”", STUDY_ID_2);
-        }
-
         OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
-        try {
-            orgsApi.getOrganization(ORG_ID_1).execute();
-        } catch(EntityNotFoundException e) {
-            Organization org = new Organization().identifier(ORG_ID_1).name(ORG_ID_1)
-                    .description("Org 1 sponsors study 1 only");
-            orgsApi.createOrganization(org).execute();
-            LOG.info("  Creating organization “{}”", ORG_ID_1);
-        }
-        try {
-            orgsApi.getOrganization(ORG_ID_2).execute();
-        } catch(EntityNotFoundException e) {
-            Organization org = new Organization().identifier(ORG_ID_2).name(ORG_ID_2)
-                    .description("Org 2 sponsors study 2 only");
-            orgsApi.createOrganization(org).execute();
-            LOG.info("  Creating organization “{}”", ORG_ID_2);
-        }
         try {
             orgsApi.getOrganization(SAGE_ID).execute();
         } catch(EntityNotFoundException e) {
@@ -123,26 +71,7 @@ public class InitListener extends RunListener {
             orgsApi.createOrganization(org).execute();
             LOG.info("  Creating organization “{}”", SAGE_ID);
         }
-        try {
-            orgsApi.addStudySponsorship(SAGE_ID, STUDY_ID_1).execute();
-            LOG.info("  {} sponsoring study “{}”", SAGE_NAME, STUDY_ID_1);
-        } catch(ConstraintViolationException e) {
-        }
-        try {
-            orgsApi.addStudySponsorship(SAGE_ID, STUDY_ID_2).execute();
-            LOG.info("  {} sponsoring study “{}”", SAGE_NAME, STUDY_ID_2);
-        } catch(ConstraintViolationException e) {
-        }
-        try {
-            orgsApi.addStudySponsorship(ORG_ID_1, STUDY_ID_1).execute();
-            LOG.info("  “{}” sponsoring study “{}”", ORG_ID_1, STUDY_ID_1);
-        } catch(ConstraintViolationException e) {
-        }
-        try {
-            orgsApi.addStudySponsorship(ORG_ID_2, STUDY_ID_2).execute();
-            LOG.info("  “{}” sponsoring study “{}”", ORG_ID_2, STUDY_ID_2);
-        } catch(ConstraintViolationException e) {
-        }
+        StudyFixture.shared().setUp();
 
         SubpopulationsApi subpopApi = admin.getClient(SubpopulationsApi.class);
         Subpopulation subpop = subpopApi.getSubpopulation(TEST_APP_ID).execute().body();
@@ -179,33 +108,43 @@ public class InitListener extends RunListener {
             }
         }
 
-        // Wipe all test accounts.
-        AccountSummarySearch search = new AccountSummarySearch().emailFilter("bridge-testing");
-        ParticipantsApi participantsApi = admin.getClient(ParticipantsApi.class);
-        List<AccountSummary> accountSummaryList;
-        int numPages = 0;
-        do {
-            if (numPages >= 5) {
-                // Short-circuit to prevent an infinite loop.
-                LOG.error("Too many test accounts. Breaking out of account cleanup loop.");
-                break;
-            }
+        // Wipe all test accounts. When the suite is run in parallel forks, every fork runs this listener, so
+        // only delete accounts that were created before the run started. Anything newer belongs to another fork.
+        // The purge isn't metered: its searches would swamp the suite's own searchAccountSummaries latencies.
+        new AccountPurger(admin.getClient(ParticipantsApi.class), admin.getClient(ForAdminsApi.class))
+                .purge("bridge-testing", getRunStartedOn());
 
-            accountSummaryList = participantsApi.searchAccountSummaries(search).execute().body().getItems();
-            for (AccountSummary accountSummary : accountSummaryList) {
-                adminApi.deleteUser(accountSummary.getId()).execute();
-            }
-            numPages++;
-
-            // Sleep for 1 second before re-querying, to make sure we don't overload the server.
-            //noinspection BusyWait
-            Thread.sleep(1000);
-        } while (!accountSummaryList.isEmpty());
+        TestUserPool.get().warmUp();
 
         testRunInitialized = true;
     }
+
     @Override
     public void testRunFinished(Result result) throws Exception {
-        // noop
+        try {
+            TestUserPool.get().shutdown();
+            if (Tests.RETRY_CONVERGENCE.getCount() > 0 || Tests.RETRY_FAILURES.get() > 0) {
+                LOG.info("{}, {} calls never converged", Tests.RETRY_CONVERGENCE, Tests.RETRY_FAILURES.get());
+            }
+            LOG.info("{}", HttpTransport.get());
+            HttpTransport.get().shutdown();
+            EndpointMetrics.get().writeReport();
+            // In "fail" mode, this throws an exception, which JUnit reports as a failure.
+            new PerformanceGate(EndpointMetrics.get()).check();
+        } finally {
+            StandInServer.stopIfStarted();
+        }
+    }
+
+    /**
+     * Maven passes the time the build started to every forked JVM. If the tests are run some other way (e.g. from
+     * an IDE), there is only one JVM, and the time this listener was called is good enough.
+     */
+    private static DateTime getRunStartedOn() {
+        String runStartedOn = System.getProperty(RUN_STARTED_ON_PROPERTY);
+        if (runStartedOn == null || runStartedOn.isEmpty() || runStartedOn.startsWith("${")) {
+            return DateTime.now();
+        }
+        return DateTime.parse(runStartedOn);
     }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+/**
+ * Load tests and benchmarks. These create a lot of data and run for minutes, so they are excluded from the normal
+ * build, and only run with -DjunitCategory=integrationPerformanceTests.
+ */
+public interface IntegrationPerformanceTest {
+
+}
@@ -0,0 +1,265 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.AppsApi;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * A concurrent version of {@link IpLockingTest}. Many participant sessions, each signed in from its own forwarded
+ * address, call /v1/activityevents at once. Most calls come from the session's own address (through a rotating set
+ * of load balancers, which must not matter), and every tenth call comes from another session's address. This runs
+ * three phases:
+ * <ul>
+ *     <li>off: participant IP locking disabled, so every call should succeed;</li>
+ *     <li>on: participant IP locking enabled, so calls from another address should get a 401;</li>
+ *     <li>toggling: participantIpLockingEnabled is flipped with updateUsersApp every few seconds while the load
+ *     runs. Calls from another address may or may not be locked depending on when they land, so only calls from
+ *     the session's own address are checked.</li>
+ * </ul>
+ * A call from the session's own address that is locked, or (in the off phase) a call from another address that is
+ * locked, is a false lock; a call from another address that succeeds in the on phase is a missed lock. The test
+ * fails if there are any. The cost of the IP check is the difference in latency of the calls from the session's
+ * own address between the on and off phases. The sessions call through {@link HttpTransport}, so its pool needs a
+ * connection per session (see {@link HttpTransport#checkConcurrency}).
+ */
+@Category(IntegrationPerformanceTest.class)
+public class IpLockingConcurrencyBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(IpLockingConcurrencyBenchmark.class);
+
+    static final String SESSIONS_PROPERTY = "bridge.ipLocking.sessions";
+    static final String TOGGLE_PROPERTY = "bridge.ipLocking.toggleSeconds";
+    private static final ObjectMapper JSON_OBJECT_MAPPER = new ObjectMapper();
+    private static final String ACTIVITY_EVENTS_PATH = "/v1/activityevents";
+    private static final int LOAD_BALANCERS = 4;
+    private static final int MISMATCH_EVERY = 10;
+    private static final long FLAG_DEADLINE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static final int SETUP_THREADS = 8;
+
+    private static final List<Session> sessions = Collections.synchronizedList(new ArrayList<>());
+    private static final List<String> rows = new ArrayList<>();
+    private static TestUser developer;
+    private static AppsApi appsApi;
+    private static Boolean originalFlag;
+    private static String hostUrl;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserPool.get().lease(DEVELOPER);
+        appsApi = developer.getClient(AppsApi.class);
+        originalFlag = appsApi.getUsersApp().execute().body().isParticipantIpLockingEnabled();
+        hostUrl = developer.getClientManager().getHostUrl();
+
+        int count = Integer.getInteger(SESSIONS_PROPERTY, 50);
+        // Every session calls at once through HttpTransport, which needs a connection for each.
+        HttpTransport.get().checkConcurrency(count);
+        Seeder.seed("sessions", count, SETUP_THREADS, n -> sessions.add(new Session(
+                TestUserHelper.createAndSignInUser(IpLockingConcurrencyBenchmark.class, true),
+                format("10.%d.%d.%d", n / 65536 % 256, n / 256 % 256, n % 256))));
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("ip-locking",
+                "phase,sessions,calls,callsPerSecond,p50,p90,p99,max,mismatched,falseLocks,missedLocks,errors", rows);
+        for (Session session : sessions) {
+            session.user.signOutAndDeleteUser();
+        }
+        if (developer != null) {
+            if (originalFlag != null) {
+                IpLockingTest.updateIpLockingFlag(appsApi, originalFlag);
+            }
+            TestUserPool.get().release(developer);
+        }
+    }
+
+    @Test
+    public void ipLockingUnderLoad() throws Exception {
+        setFlagAndWait(false);
+        Phase off = run("off", false);
+        setFlagAndWait(true);
+        Phase on = run("on", true);
+
+        // Toggle the flag for the whole run. Sessions stay bound to the addresses they signed in from.
+        CountDownLatch phaseOver = new CountDownLatch(1);
+        long toggleMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(TOGGLE_PROPERTY, 5));
+        ExecutorService toggler = Executors.newSingleThreadExecutor();
+        Future<Integer> toggles = toggler.submit(() -> {
+            int count = 0;
+            boolean flag = true;
+            // Wakes as soon as the phase is over, so the flag isn't changed after it.
+            while (!phaseOver.await(toggleMillis, TimeUnit.MILLISECONDS)) {
+                flag = !flag;
+                IpLockingTest.updateIpLockingFlag(appsApi, flag);
+                count++;
+            }
+            return count;
+        });
+        Phase toggle;
+        try {
+            toggle = run("toggling", null);
+        } finally {
+            phaseOver.countDown();
+            toggler.shutdown();
+        }
+        LOG.info("Toggled participant IP locking {} times", toggles.get());
+
+        LOG.info("Cost of the IP check: p50 {} ms, p90 {} ms, p99 {} ms",
+                on.latency.getPercentile(50) - off.latency.getPercentile(50),
+                on.latency.getPercentile(90) - off.latency.getPercentile(90),
+                on.latency.getPercentile(99) - off.latency.getPercentile(99));
+        for (Phase phase : new Phase[] { off, on, toggle }) {
+            assertEquals("False locks in the " + phase.name + " phase", 0, phase.falseLocks.get());
+            assertEquals("Missed locks in the " + phase.name + " phase", 0, phase.missedLocks.get());
+            assertTrue("No calls succeeded in the " + phase.name + " phase", phase.latency.getCount() > 0);
+        }
+    }
+
+    /**
+     * Run the load for one phase.
+     *
+     * @param lockingEnabled
+     *         whether calls from another address should be locked, or null if that can't be known
+     */
+    private static Phase run(String name, Boolean lockingEnabled) throws Exception {
+        if (lockingEnabled != null) {
+            // Bind every session to its own address under the current setting.
+            for (Session session : sessions) {
+                session.signIn();
+            }
+        }
+        Phase phase = new Phase(name);
+        long rampUpMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(LoadTestRunner.RAMP_UP_PROPERTY, 5));
+        long durationMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(LoadTestRunner.DURATION_PROPERTY, 60));
+        LoadTestRunner runner = new LoadTestRunner(sessions.size(), rampUpMillis, durationMillis,
+                Long.getLong(LoadTestRunner.THINK_PROPERTY, 0L));
+        LoadTestRunner.Result result = runner.run("ipLocking " + name, new LoadScenario<Session>() {
+            @Override
+            public Session setUp(int virtualUser) {
+                return sessions.get(virtualUser);
+            }
+            @Override
+            public void iterate(Session session) throws Exception {
+                long call = session.calls.incrementAndGet();
+                if (call % MISMATCH_EVERY == 0) {
+                    Session other = sessions.get((int) (call / MISMATCH_EVERY % sessions.size()));
+                    if (other == session) {
+                        return;
+                    }
+                    phase.mismatched.incrementAndGet();
+                    int status = getActivityEvents(session, other.address + ", lb-0");
+                    if (lockingEnabled != null && status == 200 && lockingEnabled) {
+                        phase.missedLocks.incrementAndGet();
+                    } else if (lockingEnabled != null && status == 401 && !lockingEnabled) {
+                        phase.falseLocks.incrementAndGet();
+                    }
+                } else {
+                    long start = System.nanoTime();
+                    int status = getActivityEvents(session, session.address + ", lb-" + (call % LOAD_BALANCERS));
+                    if (status == 200) {
+                        phase.latency.record(elapsedMillis(start));
+                    } else if (status == 401) {
+                        phase.falseLocks.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        LOG.info("{} phase: {}, {} false locks, {} missed locks of {} calls from other addresses", name,
+                phase.latency, phase.falseLocks.get(), phase.missedLocks.get(), phase.mismatched.get());
+        rows.add(format("%s,%d,%d,%.2f,%d,%d,%d,%d,%d,%d,%d,%d", name, sessions.size(), phase.latency.getCount(),
+                result.getThroughput(), phase.latency.getPercentile(50), phase.latency.getPercentile(90),
+                phase.latency.getPercentile(99), phase.latency.getMax(), phase.mismatched.get(),
+                phase.falseLocks.get(), phase.missedLocks.get(), result.getErrors()));
+        return phase;
+    }
+
+    /** Change the flag, and wait until the server's cached app has it (a call from another address shows this). */
+    private static void setFlagAndWait(boolean lockingEnabled) throws Exception {
+        IpLockingTest.updateIpLockingFlag(appsApi, lockingEnabled);
+        Session session = sessions.get(0);
+        int expected = lockingEnabled ? 401 : 200;
+        Tests.retryHelper(() -> {
+            session.signIn();
+            return getActivityEvents(session, "192.0.2.1, lb-0");
+        }, (Integer status) -> status == expected, FLAG_DEADLINE_MILLIS);
+    }
+
+    /** @return the status of the call, which must be 200 or 401 */
+    private static int getActivityEvents(Session session, String forwardedFor) throws Exception {
+        HttpResponse response = EndpointMetrics.get().execute("GET", ACTIVITY_EVENTS_PATH,
+                Request.Get(hostUrl + ACTIVITY_EVENTS_PATH)
+                        .setHeader("Bridge-Session", session.sessionToken)
+                        .setHeader("X-Forwarded-For", forwardedFor));
+        int status = response.getStatusLine().getStatusCode();
+        if (status != 200 && status != 401) {
+            throw new IllegalStateException("GET " + ACTIVITY_EVENTS_PATH + " returned " + status);
+        }
+        return status;
+    }
+
+    private static class Session {
+        private final TestUser user;
+        private final String address;
+        private final AtomicLong calls = new AtomicLong();
+        private volatile String sessionToken;
+
+        Session(TestUser user, String address) {
+            this.user = user;
+            this.address = address;
+        }
+
+        /** Sign in from this session's address, as IpLockingTest does. */
+        void signIn() throws Exception {
+            String signInText = "{\"appId\":\"" + user.getAppId() + "\",\"email\":\"" + user.getEmail()
+                    + "\",\"password\":\"" + user.getPassword() + "\"}";
+            HttpResponse response = EndpointMetrics.get().execute("POST", "/v3/auth/signIn",
+                    Request.Post(hostUrl + "/v3/auth/signIn")
+                            .setHeader("X-Forwarded-For", address + ", lb-0")
+                            .bodyString(signInText, ContentType.APPLICATION_JSON));
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            sessionToken = JSON_OBJECT_MAPPER.readTree(EntityUtils.toString(response.getEntity()))
+                    .get("sessionToken").textValue();
+        }
+    }
+
+    private static class Phase {
+        private final String name;
+        private final LatencyHistogram latency;
+        private final AtomicLong mismatched = new AtomicLong();
+        private final AtomicLong falseLocks = new AtomicLong();
+        private final AtomicLong missedLocks = new AtomicLong();
+
+        Phase(String name) {
+            this.name = name;
+            this.latency = new LatencyHistogram("ipLocking " + name);
+        }
+    }
+}
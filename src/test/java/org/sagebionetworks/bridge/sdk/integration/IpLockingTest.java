@@ -62,17 +62,17 @@ public class IpLockingTest {
 
     @Test
     public void ipLockingForParticipantsDisabled() throws Exception {
-        updateIpLockingFlag(false);
+        updateIpLockingFlag(appsApi, false);
         test(basicUser, false);
     }
 
     @Test
     public void ipLockingForParticipantsEnabled() throws Exception {
-        updateIpLockingFlag(true);
+        updateIpLockingFlag(appsApi, true);
         test(basicUser, true);
     }
 
-    private static void updateIpLockingFlag(boolean participantIpLockingEnabled) throws Exception {
+    static void updateIpLockingFlag(AppsApi appsApi, boolean participantIpLockingEnabled) throws Exception {
         // Get app. We need an updated version of the app anyway to avoid concurrent modification errors.
         App app = appsApi.getUsersApp().execute().body();
 
@@ -90,9 +90,10 @@ public class IpLockingTest {
                 "   \"email\":\"" + user.getEmail() + "\",\n" +
                 "   \"password\":\"" + user.getPassword() + "\"\n" +
                 "}";
-        HttpResponse signInResponse = Request.Post(hostUrl + "/v3/auth/signIn")
-                .setHeader("X-Forwarded-For", "same address, same load balancer")
-                .body(new StringEntity(signInText)).execute().returnResponse();
+        HttpResponse signInResponse = EndpointMetrics.get().execute("POST", "/v3/auth/signIn",
+                Request.Post(hostUrl + "/v3/auth/signIn")
+                        .setHeader("X-Forwarded-For", "same address, same load balancer")
+                        .body(new StringEntity(signInText)));
         assertEquals(200, signInResponse.getStatusLine().getStatusCode());
 
         JsonNode signInBodyNode = JSON_OBJECT_MAPPER.readTree(EntityUtils.toString(signInResponse.getEntity()));
@@ -100,24 +101,24 @@ public class IpLockingTest {
         assertNotNull(sessionId);
 
         // Sending a request with the same IP address always works.
-        HttpResponse sameResponse = Request.Get(hostUrl + "/v1/activityevents")
-                .setHeader("Bridge-Session", sessionId)
-                .setHeader("X-Forwarded-For", "same address, same load balancer")
-                .execute().returnResponse();
+        HttpResponse sameResponse = EndpointMetrics.get().execute("GET", "/v1/activityevents",
+                Request.Get(hostUrl + "/v1/activityevents")
+                        .setHeader("Bridge-Session", sessionId)
+                        .setHeader("X-Forwarded-For", "same address, same load balancer"));
         assertEquals(200, sameResponse.getStatusLine().getStatusCode());
 
         // Different IP address may get locked.
-        HttpResponse differentAddressResponse = Request.Get(hostUrl + "/v1/activityevents")
-                .setHeader("Bridge-Session", sessionId)
-                .setHeader("X-Forwarded-For", "different address, same load balancer")
-                .execute().returnResponse();
+        HttpResponse differentAddressResponse = EndpointMetrics.get().execute("GET", "/v1/activityevents",
+                Request.Get(hostUrl + "/v1/activityevents")
+                        .setHeader("Bridge-Session", sessionId)
+                        .setHeader("X-Forwarded-For", "different address, same load balancer"));
         assertEquals(shouldLock ? 401 : 200, differentAddressResponse.getStatusLine().getStatusCode());
 
         // Request from a different load balancer but the same source IP always works.
-        HttpResponse differentLoadBalancerResponse = Request.Get(hostUrl + "/v1/activityevents")
-                .setHeader("Bridge-Session", sessionId)
-                .setHeader("X-Forwarded-For", "same address, different load balancer")
-                .execute().returnResponse();
+        HttpResponse differentLoadBalancerResponse = EndpointMetrics.get().execute("GET", "/v1/activityevents",
+                Request.Get(hostUrl + "/v1/activityevents")
+                        .setHeader("Bridge-Session", sessionId)
+                        .setHeader("X-Forwarded-For", "same address, different load balancer"));
         assertEquals(200, differentLoadBalancerResponse.getStatusLine().getStatusCode());
     }
 }
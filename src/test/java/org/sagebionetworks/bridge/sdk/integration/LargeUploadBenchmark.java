@@ -0,0 +1,142 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+import static org.sagebionetworks.bridge.rest.model.Role.WORKER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.ForSuperadminsApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.HealthDataRecordEx3;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Measures how uploads scale with their size, using {@link SyntheticUpload} archives generated on the fly (so no
+ * archive is ever held in memory or written to disk). For each size (1 MB to 300 MB by default), this times the
+ * pass that computes the Content-MD5, the PUT to S3, and the time from completing the upload session to the
+ * upload being validated. If Exporter 3.0 is enabled for the app, it also times how long the record takes to be
+ * marked exported.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class LargeUploadBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(LargeUploadBenchmark.class);
+
+    static final String SIZES_PROPERTY = "bridge.largeUpload.sizesMb";
+    private static final String DEFAULT_SIZES = "1,10,50,100,300";
+    private static final long BYTES_PER_MB = 1024L * 1024;
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+    private static final long VALIDATION_DEADLINE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long EXPORT_DEADLINE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static TestUser participant;
+    private static TestUser worker;
+    private static boolean exporter3Enabled;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        participant = TestUserHelper.createAndSignInUser(LargeUploadBenchmark.class, true);
+        worker = TestUserPool.get().lease(WORKER);
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        exporter3Enabled = Boolean.TRUE.equals(admin.getClient(ForSuperadminsApi.class).getApp(TEST_APP_ID)
+                .execute().body().isExporter3Enabled());
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (participant != null) {
+            participant.signOutAndDeleteUser();
+        }
+        if (worker != null) {
+            TestUserPool.get().release(worker);
+        }
+    }
+
+    @Test
+    public void uploadsBySize() throws Exception {
+        ForConsentedUsersApi usersApi = participant.getClient(ForConsentedUsersApi.class);
+        if (!exporter3Enabled) {
+            LOG.info("Exporter 3.0 is not enabled for {}, so export times won't be measured", TEST_APP_ID);
+        }
+
+        List<String> rows = new ArrayList<>();
+        for (String value : System.getProperty(SIZES_PROPERTY, DEFAULT_SIZES).split(",")) {
+            int megabytes = Integer.parseInt(value.trim());
+            SyntheticUpload upload = new SyntheticUpload("large-upload-" + megabytes + "mb.zip",
+                    megabytes * BYTES_PER_MB, megabytes);
+
+            long start = System.nanoTime();
+            long contentLength = upload.getContentLength();
+            long md5Millis = elapsedMillis(start);
+
+            UploadSession session = usersApi.requestUploadSession(upload.makeUploadRequest()).execute().body();
+            start = System.nanoTime();
+            upload.uploadTo(session.getUrl());
+            long putMillis = elapsedMillis(start);
+
+            start = System.nanoTime();
+            usersApi.completeUploadSession(session.getId(), false, false).execute();
+            UploadValidationStatus status = usersApi.getUploadStatus(session.getId()).execute().body();
+            while (status.getStatus() != UploadStatus.SUCCEEDED
+                    && status.getStatus() != UploadStatus.VALIDATION_FAILED
+                    && elapsedMillis(start) < VALIDATION_DEADLINE_MILLIS) {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+                status = usersApi.getUploadStatus(session.getId()).execute().body();
+            }
+            long validationMillis = elapsedMillis(start);
+            assertEquals("Upload " + session.getId() + " of " + megabytes + " MB", UploadStatus.SUCCEEDED,
+                    status.getStatus());
+
+            long exportMillis = exporter3Enabled ? waitForExport(session.getId(), start) : -1;
+            LOG.info("{} MB ({} bytes): MD5 in {} ms, PUT in {} ms ({} MB/s), validated {} ms and exported {} ms "
+                    + "after completion", megabytes, contentLength, md5Millis, putMillis,
+                    format("%.1f", contentLength / (double) BYTES_PER_MB * 1000 / Math.max(1, putMillis)),
+                    validationMillis, exportMillis);
+            rows.add(format("%d,%d,%d,%d,%d,%d", megabytes, contentLength, md5Millis, putMillis, validationMillis,
+                    exportMillis));
+        }
+
+        EndpointMetrics.writeCsvReport("large-uploads",
+                "megabytes,contentLength,md5Millis,putMillis,validationMillis,exportMillis", rows);
+    }
+
+    /**
+     * Wait for the upload's Exporter 3.0 record (which has the upload's ID) to be marked exported.
+     *
+     * @return the time from completing the upload session until the record was exported, or -1 if it wasn't
+     *         exported before the deadline
+     */
+    private static long waitForExport(String uploadId, long completedOn) throws Exception {
+        ForWorkersApi workersApi = worker.getClient(ForWorkersApi.class);
+        while (elapsedMillis(completedOn) < EXPORT_DEADLINE_MILLIS) {
+            try {
+                HealthDataRecordEx3 record = workersApi.getRecordEx3(TEST_APP_ID, uploadId).execute().body();
+                if (Boolean.TRUE.equals(record.isExported())) {
+                    return elapsedMillis(completedOn);
+                }
+            } catch (EntityNotFoundException e) {
+                // Not created yet.
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        LOG.warn("Upload {} was not exported within {} ms", uploadId, EXPORT_DEADLINE_MILLIS);
+        return -1;
+    }
+}
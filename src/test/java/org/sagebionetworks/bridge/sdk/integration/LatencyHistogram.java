@@ -0,0 +1,72 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread-safe record of durations (in milliseconds), summarized as percentiles. Every sample is kept, which is
+ * fine for the few thousand samples an integration test run produces, and means the percentiles are exact.
+ */
+public class LatencyHistogram {
+    private final String name;
+    private final List<Long> samples = new ArrayList<>();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void record(long millis) {
+        samples.add(millis);
+    }
+
+    public synchronized int getCount() {
+        return samples.size();
+    }
+
+    public synchronized long getMax() {
+        return samples.isEmpty() ? 0 : Collections.max(samples);
+    }
+
+    public synchronized long getMean() {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (long sample : samples) {
+            total += sample;
+        }
+        return total / samples.size();
+    }
+
+    /** The nearest-rank percentile, e.g. getPercentile(90) for p90. Returns 0 if nothing has been recorded. */
+    public synchronized long getPercentile(double percentile) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(rank, sorted.size()) - 1));
+    }
+
+    /** The milliseconds since a start time taken from System.nanoTime(), for recording in a histogram. */
+    public static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public synchronized void clear() {
+        samples.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: n=%d, p50=%d ms, p90=%d ms, p99=%d ms, max=%d ms", name, getCount(),
+                getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+    }
+}
@@ -0,0 +1,27 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+/**
+ * A flow that {@link LoadTestRunner} repeats from many virtual users at once. Each virtual user gets its own state
+ * (usually a signed-in account), which is created before the load starts and is not timed.
+ *
+ * @param <U> the state of one virtual user
+ */
+public interface LoadScenario<U> {
+
+    /** Create the state of the given virtual user (numbered from 0). */
+    U setUp(int virtualUser) throws Exception;
+
+    /**
+     * Called once every virtual user has been set up, just before the timed run starts, e.g. to schedule something
+     * at a point in the run. If this throws, the run is abandoned.
+     */
+    default void started() throws Exception {
+    }
+
+    /** Run the flow once. This is what is timed. */
+    void iterate(U state) throws Exception;
+
+    /** Clean up the state of a virtual user once the load is over. */
+    default void tearDown(U state) throws Exception {
+    }
+}
@@ -0,0 +1,190 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecord;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecordUpdates;
+import org.sagebionetworks.bridge.rest.model.ScheduledSession;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Runs some of the flows the rest of the suite tests (sign in, fetch a timeline, record adherence, upload) from
+ * many concurrent participants, and reports throughput and latency percentiles. See {@link LoadTestRunner} for the
+ * system properties that set the number of virtual users, the ramp-up and the duration. A flow fails if more than
+ * 1% of its iterations fail; set <code>bridge.load.maxErrorRate</code> (a fraction) to change this.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class LoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    static final String MAX_ERROR_RATE_PROPERTY = "bridge.load.maxErrorRate";
+    private static final double DEFAULT_MAX_ERROR_RATE = 0.01;
+
+    private static StudyFixture studyFixture;
+    private static ScheduleFixture scheduleFixture;
+    private static LoadTestRunner runner;
+    private static double maxErrorRate;
+    private static final List<String> rows = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        studyFixture = StudyFixture.create(LoadTest.class);
+        scheduleFixture = new ScheduleFixture.Builder(studyFixture).withSessions(2).withDuration("P4W").build();
+        runner = LoadTestRunner.fromSystemProperties(10, 10, 60);
+        maxErrorRate = Double.parseDouble(System.getProperty(MAX_ERROR_RATE_PROPERTY,
+                String.valueOf(DEFAULT_MAX_ERROR_RATE)));
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("load-test",
+                "flow,users,iterations,errors,errorRate,perSecond,p50,p90,p99,max", rows);
+        if (scheduleFixture != null) {
+            scheduleFixture.delete();
+        }
+        if (studyFixture != null) {
+            studyFixture.delete();
+        }
+    }
+
+    @Test
+    public void signIn() throws Exception {
+        LoadTestRunner.Result result = runner.run("signIn", new LoadScenario<TestUser>() {
+            @Override
+            public TestUser setUp(int virtualUser) throws Exception {
+                return new MeteredTestUser(TestUserHelper.createAndSignInUser(LoadTest.class, true));
+            }
+            @Override
+            public void iterate(TestUser user) throws Exception {
+                user.signInAgain();
+            }
+            @Override
+            public void tearDown(TestUser user) throws Exception {
+                user.signOutAndDeleteUser();
+            }
+        });
+        check(result);
+    }
+
+    @Test
+    public void participantTimeline() throws Exception {
+        String studyId = scheduleFixture.getStudyId();
+        LoadTestRunner.Result result = runner.run("getTimelineForSelf", new LoadScenario<TestUser>() {
+            @Override
+            public TestUser setUp(int virtualUser) throws Exception {
+                return new MeteredTestUser(scheduleFixture.createParticipant(LoadTest.class));
+            }
+            @Override
+            public void iterate(TestUser user) throws Exception {
+                user.getClient(ForConsentedUsersApi.class).getTimelineForSelf(studyId, null).execute();
+            }
+            @Override
+            public void tearDown(TestUser user) throws Exception {
+                user.signOutAndDeleteUser();
+            }
+        });
+        check(result);
+    }
+
+    @Test
+    public void adherenceWrites() throws Exception {
+        String studyId = scheduleFixture.getStudyId();
+        DateTime eventTimestamp = scheduleFixture.getEventTimestamp();
+        LoadTestRunner.Result result = runner.run("updateAdherenceRecords", new LoadScenario<Participant>() {
+            @Override
+            public Participant setUp(int virtualUser) throws Exception {
+                TestUser user = new MeteredTestUser(scheduleFixture.createParticipant(LoadTest.class));
+                List<String> instanceGuids = user.getClient(ForConsentedUsersApi.class)
+                        .getTimelineForSelf(studyId, null).execute().body().getSchedule().stream()
+                        .map(ScheduledSession::getInstanceGuid).collect(Collectors.toList());
+                return new Participant(user, instanceGuids);
+            }
+            @Override
+            public void iterate(Participant participant) throws Exception {
+                String instanceGuid = participant.instanceGuids.get(
+                        ThreadLocalRandom.current().nextInt(participant.instanceGuids.size()));
+                AdherenceRecord record = new AdherenceRecord().instanceGuid(instanceGuid)
+                        .eventTimestamp(eventTimestamp).startedOn(DateTime.now());
+                participant.user.getClient(ForConsentedUsersApi.class).updateAdherenceRecords(studyId,
+                        new AdherenceRecordUpdates().addRecordsItem(record)).execute();
+            }
+            @Override
+            public void tearDown(Participant participant) throws Exception {
+                participant.user.signOutAndDeleteUser();
+            }
+        });
+        check(result);
+    }
+
+    @Test
+    public void encryptedUpload() throws Exception {
+        LoadTestRunner.Result result = runner.run("upload", new LoadScenario<TestUser>() {
+            @Override
+            public TestUser setUp(int virtualUser) throws Exception {
+                return new MeteredTestUser(TestUserHelper.createAndSignInUser(LoadTest.class, true));
+            }
+            @Override
+            public void iterate(TestUser user) throws Exception {
+                // Schemaless, so this doesn't depend on the schemas UploadTest creates.
+                File file = UploadTest.resolveFilePath(user, "schemaless-encrypted");
+                ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+                UploadRequest request = RestUtils.makeUploadRequestForFile(file);
+                UploadSession session = usersApi.requestUploadSession(request).execute().body();
+                RestUtils.uploadToS3(file, session.getUrl());
+                usersApi.completeUploadSession(session.getId(), true, false).execute();
+            }
+            @Override
+            public void tearDown(TestUser user) throws Exception {
+                user.signOutAndDeleteUser();
+            }
+        });
+        check(result);
+    }
+
+    /** Log and record the flow's throughput and latency percentiles, and check its error rate. */
+    private static void check(LoadTestRunner.Result result) {
+        LatencyHistogram latency = result.getLatency();
+        LOG.info("{} with {} users: {} iterations ({}/s), p50={} ms, p90={} ms, p99={} ms, {} errors ({}%)",
+                latency.getName(), runner.getUsers(), result.getSuccesses(), format("%.1f", result.getThroughput()),
+                latency.getPercentile(50), latency.getPercentile(90), latency.getPercentile(99), result.getErrors(),
+                format("%.2f", result.getErrorRate() * 100));
+        rows.add(format("%s,%d,%d,%d,%.4f,%.1f,%d,%d,%d,%d", latency.getName(), runner.getUsers(),
+                result.getSuccesses(), result.getErrors(), result.getErrorRate(), result.getThroughput(),
+                latency.getPercentile(50), latency.getPercentile(90), latency.getPercentile(99), latency.getMax()));
+
+        assertTrue(latency.getName() + " had no successful iterations", result.getSuccesses() > 0);
+        assertTrue(format("%s failed %.2f%% of its iterations, more than the %.2f%% allowed by %s", latency.getName(),
+                result.getErrorRate() * 100, maxErrorRate * 100, MAX_ERROR_RATE_PROPERTY),
+                result.getErrorRate() <= maxErrorRate);
+    }
+
+    private static class Participant {
+        private final TestUser user;
+        private final List<String> instanceGuids;
+
+        Participant(TestUser user, List<String> instanceGuids) {
+            this.user = user;
+            this.instanceGuids = instanceGuids;
+        }
+    }
+}
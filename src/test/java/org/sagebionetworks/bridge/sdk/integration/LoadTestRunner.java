@@ -0,0 +1,205 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives a {@link LoadScenario} from many concurrent virtual users. The virtual users are started one at a time
+ * over the ramp-up period, and each repeats the scenario (pausing for the think time between iterations) until the
+ * ramp-up and the duration have both passed. The defaults can be changed with system properties:
+ *
+ * <pre>
+ * -Dbridge.load.users=20 -Dbridge.load.rampUpSeconds=10 -Dbridge.load.durationSeconds=60 -Dbridge.load.thinkMillis=0
+ * </pre>
+ */
+public class LoadTestRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    static final String USERS_PROPERTY = "bridge.load.users";
+    static final String RAMP_UP_PROPERTY = "bridge.load.rampUpSeconds";
+    static final String DURATION_PROPERTY = "bridge.load.durationSeconds";
+    static final String THINK_PROPERTY = "bridge.load.thinkMillis";
+    private static final int SET_UP_THREADS = 8;
+
+    private final int users;
+    private final long rampUpMillis;
+    private final long durationMillis;
+    private final long thinkMillis;
+
+    /** A runner configured by the system properties, with the given defaults. */
+    public static LoadTestRunner fromSystemProperties(int users, int rampUpSeconds, int durationSeconds) {
+        return new LoadTestRunner(Integer.getInteger(USERS_PROPERTY, users),
+                TimeUnit.SECONDS.toMillis(Integer.getInteger(RAMP_UP_PROPERTY, rampUpSeconds)),
+                TimeUnit.SECONDS.toMillis(Integer.getInteger(DURATION_PROPERTY, durationSeconds)),
+                Long.getLong(THINK_PROPERTY, 0L));
+    }
+
+    public LoadTestRunner(int users, long rampUpMillis, long durationMillis, long thinkMillis) {
+        this.users = users;
+        this.rampUpMillis = rampUpMillis;
+        this.durationMillis = durationMillis;
+        this.thinkMillis = thinkMillis;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    /** How long each run lasts, from the start of the ramp-up to the end. */
+    public long getRunMillis() {
+        return rampUpMillis + durationMillis;
+    }
+
+    public <U> Result run(String name, LoadScenario<U> scenario) throws Exception {
+        List<U> states = setUp(name, scenario);
+        Result result = new Result(name, users);
+        try {
+            ExecutorService executor = Executors.newFixedThreadPool(users);
+            scenario.started();
+            long start = System.nanoTime();
+            long end = start + TimeUnit.MILLISECONDS.toNanos(rampUpMillis + durationMillis);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < users; i++) {
+                    U state = states.get(i);
+                    long delayMillis = (users == 1) ? 0 : (rampUpMillis * i / users);
+                    futures.add(executor.submit(() -> {
+                        Thread.sleep(delayMillis);
+                        while (System.nanoTime() < end) {
+                            long iterationStart = System.nanoTime();
+                            try {
+                                scenario.iterate(state);
+                                long elapsedNanos = System.nanoTime() - iterationStart;
+                                result.latency.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+                            } catch (Exception e) {
+                                result.errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicLong())
+                                        .incrementAndGet();
+                            }
+                            if (thinkMillis > 0) {
+                                Thread.sleep(thinkMillis);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            result.elapsedMillis = elapsedMillis(start);
+        } finally {
+            tearDown(name, scenario, states);
+        }
+        LOG.info("{}", result);
+        return result;
+    }
+
+    /** Set up every virtual user. If any can't be, the ones that were are torn down before this throws. */
+    private <U> List<U> setUp(String name, LoadScenario<U> scenario) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(users, SET_UP_THREADS));
+        List<Future<U>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < users; i++) {
+                int virtualUser = i;
+                futures.add(executor.submit(() -> scenario.setUp(virtualUser)));
+            }
+            List<U> states = new ArrayList<>();
+            for (Future<U> future : futures) {
+                states.add(future.get());
+            }
+            return states;
+        } catch (Exception e) {
+            // Skip the set-ups that haven't started, and let the running ones finish so they can be torn down.
+            for (Future<U> future : futures) {
+                future.cancel(false);
+            }
+            List<U> states = new ArrayList<>();
+            for (Future<U> future : futures) {
+                try {
+                    states.add(future.get());
+                } catch (CancellationException | ExecutionException notSetUp) {
+                    // Nothing to tear down.
+                }
+            }
+            tearDown(name, scenario, states);
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static <U> void tearDown(String name, LoadScenario<U> scenario, List<U> states) {
+        for (U state : states) {
+            try {
+                scenario.tearDown(state);
+            } catch (Exception e) {
+                LOG.warn("Could not tear down virtual user for {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /** Throughput, latency and errors of one load test. */
+    public static class Result {
+        private final String name;
+        private final int users;
+        private final LatencyHistogram latency;
+        private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        private long elapsedMillis;
+
+        Result(String name, int users) {
+            this.name = name;
+            this.users = users;
+            this.latency = new LatencyHistogram(name);
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public int getSuccesses() {
+            return latency.getCount();
+        }
+
+        public long getErrors() {
+            long total = 0;
+            for (AtomicLong count : errors.values()) {
+                total += count.get();
+            }
+            return total;
+        }
+
+        /** The fraction of iterations that failed, or 0 if there were none. */
+        public double getErrorRate() {
+            long errors = getErrors();
+            long iterations = getSuccesses() + errors;
+            return (iterations == 0) ? 0 : ((double) errors / iterations);
+        }
+
+        /** Successful iterations per second, over the whole run (including the ramp-up). */
+        public double getThroughput() {
+            return (elapsedMillis == 0) ? 0 : (latency.getCount() * 1000.0 / elapsedMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Load test %s with %d users: %d iterations in %d ms (%.1f/s), %d errors %s; %s",
+                    name, users, getSuccesses(), elapsedMillis, getThroughput(), getErrors(), errors, latency);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import org.sagebionetworks.bridge.user.TestUser;
+
+/**
+ * A TestUser whose REST clients record the latency of every call in {@link EndpointMetrics}. It shares the
+ * wrapped user's ClientManager (and therefore its session), so the two can be used interchangeably.
+ */
+public class MeteredTestUser extends TestUser {
+
+    public MeteredTestUser(TestUser user) {
+        super(user.getSignIn(), user.getClientManager(), user.getUserId());
+    }
+
+    @Override
+    public <T> T getClient(Class<T> service) {
+        return EndpointMetrics.get().meter(service, super.getClient(service));
+    }
+}
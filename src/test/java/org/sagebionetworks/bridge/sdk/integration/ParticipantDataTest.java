@@ -42,7 +42,7 @@ public class ParticipantDataTest {
     @Before
     public void before() throws Exception {
         admin = TestUserHelper.getSignedInAdmin();
-        worker = TestUserHelper.createAndSignInUser(ParticipantDataTest.class, false, WORKER);
+        worker = TestUserPool.get().lease(WORKER);
         user = TestUserHelper.createAndSignInUser(ParticipantDataTest.class, true);
 
         identifier1 = Tests.randomIdentifier(getClass());
@@ -60,7 +60,7 @@ public class ParticipantDataTest {
             user.signOutAndDeleteUser();
         }
         if (worker != null) {
-            worker.signOutAndDeleteUser();
+            TestUserPool.get().release(worker);
         }
     }
 
@@ -2,6 +2,7 @@ package org.sagebionetworks.bridge.sdk.integration;
 
 import okhttp3.ResponseBody;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.fluent.Request;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -16,9 +17,6 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Scanner;
@@ -84,16 +82,7 @@ public class ParticipantFileTest {
                 Math.abs(keys.getCreatedOn().plusDays(1).getMillis() - keys.getExpiresOn().getMillis()) < (1000*60*5));
         String uploadUrl = keys.getUploadUrl();
 
-        URL url = new URL(uploadUrl);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setDoOutput(true);
-        connection.setRequestMethod("PUT");
-        connection.setRequestProperty("Content-Type", "text/plain");
-        OutputStreamWriter out = new OutputStreamWriter(connection.getOutputStream());
-        out.write(TEST_UPLOAD_STRING);
-        out.close();
-        assertEquals(200, connection.getResponseCode());;
-        connection.disconnect();
+        assertEquals(200, putText(uploadUrl, TEST_UPLOAD_STRING));
         
         ParticipantFileList results = userApi.getParticipantFiles(null, 5).execute().body();
         assertNotNull(results);
@@ -143,16 +132,7 @@ public class ParticipantFileTest {
             assertEquals(404, exception.getStatusCode());
         }
 
-        url = new URL(updateKeys.getUploadUrl());
-        connection = (HttpURLConnection) url.openConnection();
-        connection.setDoOutput(true);
-        connection.setRequestMethod("PUT");
-        connection.setRequestProperty("Content-Type", "text/plain");
-        out = new OutputStreamWriter(connection.getOutputStream());
-        out.write("Updated text to S3.");
-        out.close();
-        assertEquals(200, connection.getResponseCode());
-        connection.disconnect();
+        assertEquals(200, putText(updateKeys.getUploadUrl(), "Updated text to S3."));
 
         ResponseBody updateBody = userApi.getParticipantFile("file_id").execute().body();
         try (InputStream content = updateBody.byteStream(); Scanner sc = new Scanner(content)) {
@@ -178,16 +158,7 @@ public class ParticipantFileTest {
         file = new ParticipantFile();
         file.setMimeType("text/plain");
         ParticipantFile upload = userApi.createParticipantFile("rate-limit-test", file).execute().body();
-        URL uploadUrl = new URL(upload.getUploadUrl());
-        HttpURLConnection connection = (HttpURLConnection) uploadUrl.openConnection();
-        connection.setDoOutput(true);
-        connection.setRequestMethod("PUT");
-        connection.setRequestProperty("Content-Type", "text/plain");
-        OutputStreamWriter out = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII);
-        out.write(StringUtils.repeat("A", 1000)); // 1 KB in ASCII
-        out.close();
-        assertEquals(200, connection.getResponseCode());
-        connection.disconnect();
+        assertEquals(200, putText(upload.getUploadUrl(), StringUtils.repeat("A", 1000))); // 1 KB in ASCII
 
         // should succeed
         try {
@@ -207,4 +178,13 @@ public class ParticipantFileTest {
         // can run
         Thread.sleep(5000);
     }
+
+    /**
+     * Upload text to a presigned URL on the shared transport. The content type must be exactly the one the URL was
+     * signed with, so it is set as a header rather than as an entity content type (which would add a charset).
+     */
+    static int putText(String url, String text) throws IOException {
+        return HttpTransport.get().execute(Request.Put(url).setHeader("Content-Type", "text/plain")
+                .bodyByteArray(text.getBytes(StandardCharsets.UTF_8))).getStatusLine().getStatusCode();
+    }
 }
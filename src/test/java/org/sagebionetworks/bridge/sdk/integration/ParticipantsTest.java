@@ -104,10 +104,10 @@ public class ParticipantsTest {
     @Before
     public void before() throws Exception {
         admin = TestUserHelper.getSignedInAdmin();
-        developer = TestUserHelper.createAndSignInUser(ParticipantsTest.class, false, DEVELOPER);
-        researcher = TestUserHelper.createAndSignInUser(ParticipantsTest.class, true, RESEARCHER);
-        studyCoordinator = TestUserHelper.createAndSignInUser(ParticipantsTest.class, false, STUDY_COORDINATOR);
-        // Put the study coordinator in org1 so they only have access to study1
+        developer = TestUserPool.get().lease(DEVELOPER);
+        researcher = TestUserPool.get().lease(RESEARCHER);
+        studyCoordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
+        // Put the study coordinator in org1 so they only have access to study1 (the pool moves them back)
         admin.getClient(OrganizationsApi.class).removeMember(SAGE_ID, studyCoordinator.getUserId()).execute();
         admin.getClient(OrganizationsApi.class).addMember(ORG_ID_1, studyCoordinator.getUserId()).execute();
         
@@ -128,10 +128,10 @@ public class ParticipantsTest {
     @After
     public void after() throws Exception {
         if (developer != null) {
-            developer.signOutAndDeleteUser();
+            TestUserPool.get().release(developer);
         }
         if (researcher != null) {
-            researcher.signOutAndDeleteUser();
+            TestUserPool.get().release(researcher);
         }
         if (phoneUser != null) {
             phoneUser.signOutAndDeleteUser();
@@ -140,7 +140,7 @@ public class ParticipantsTest {
             emailUser.signOutAndDeleteUser();
         }
         if (studyCoordinator != null) {
-            studyCoordinator.signOutAndDeleteUser();
+            TestUserPool.get().release(studyCoordinator);
         }
     }
     
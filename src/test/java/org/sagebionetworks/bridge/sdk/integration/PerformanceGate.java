@@ -0,0 +1,164 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.util.IntegTestUtils.CONFIG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+
+/**
+ * Compares the p90 latencies measured by {@link EndpointMetrics} against a baseline for the environment under
+ * test (perf-baseline/&lt;environment&gt;.json on the test classpath, from src/test/resources), so that a server
+ * deploy that makes an endpoint much slower is caught before it is promoted. Each baseline entry names an API
+ * method (e.g. "getTimelineForStudy") or an endpoint (e.g. "GET /v3/participants/self"), and its expected p90 in
+ * milliseconds:
+ *
+ * <pre>
+ * { "endpoints": [ { "operation": "getTimelineForStudy", "p90": 800 } ] }
+ * </pre>
+ *
+ * An entry regresses when its measured p90 exceeds the baseline by more than the threshold (50% by default,
+ * <code>-Dbridge.perfGate.threshold=0.25</code> for 25%) and by at least {@link #MIN_REGRESSION_MILLIS}, with at
+ * least <code>bridge.perfGate.minSamples</code> calls measured. <code>-Dbridge.perfGate=fail</code> fails the run
+ * when anything regresses, <code>warn</code> (the default) only logs it, and <code>off</code> skips the check.
+ * The load tests and benchmarks turn the gate off, since their load would be measured as regressions.
+ *
+ * Every run also writes perf-baseline-&lt;environment&gt;.json to the report directory, in the baseline format,
+ * with the p90 of every metered API method. To update the baseline, copy the entries you want to gate on from a
+ * run against a healthy server.
+ */
+public class PerformanceGate {
+    private static final Logger LOG = LoggerFactory.getLogger(PerformanceGate.class);
+
+    static final String MODE_PROPERTY = "bridge.perfGate";
+    static final String THRESHOLD_PROPERTY = "bridge.perfGate.threshold";
+    static final String MIN_SAMPLES_PROPERTY = "bridge.perfGate.minSamples";
+    private static final String DEFAULT_MODE = "warn";
+    private static final double DEFAULT_THRESHOLD = 0.5;
+    private static final int DEFAULT_MIN_SAMPLES = 3;
+    // Regressions smaller than this are noise, no matter how large they are relative to the baseline.
+    private static final long MIN_REGRESSION_MILLIS = 50;
+    private static final String BASELINE_RESOURCE_DIR = "/perf-baseline/";
+
+    private final EndpointMetrics metrics;
+    private final String mode;
+    private final double threshold;
+    private final int minSamples;
+
+    public PerformanceGate(EndpointMetrics metrics) {
+        this.metrics = metrics;
+        this.mode = System.getProperty(MODE_PROPERTY, DEFAULT_MODE).toLowerCase(Locale.ENGLISH);
+        this.threshold = Double.parseDouble(System.getProperty(THRESHOLD_PROPERTY,
+                String.valueOf(DEFAULT_THRESHOLD)));
+        this.minSamples = Integer.getInteger(MIN_SAMPLES_PROPERTY, DEFAULT_MIN_SAMPLES);
+    }
+
+    /**
+     * Check the measured latencies against the baseline. Throws a {@link RegressionException} listing the
+     * regressions if the gate is in "fail" mode, and logs them otherwise. Thrown from a RunListener, JUnit reports
+     * the exception as a failure of the "Test mechanism", which surefire counts, so the build fails.
+     */
+    public void check() throws IOException, RegressionException {
+        String envName = CONFIG.getEnvironment().name().toLowerCase(Locale.ENGLISH);
+        writeCandidateBaseline(envName);
+        if ("off".equals(mode)) {
+            return;
+        }
+        JsonNode baseline;
+        try (InputStream in = PerformanceGate.class.getResourceAsStream(BASELINE_RESOURCE_DIR + envName + ".json")) {
+            if (in == null) {
+                LOG.info("No latency baseline for {}, skipping the performance gate", envName);
+                return;
+            }
+            baseline = DefaultObjectMapper.INSTANCE.readTree(in);
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (JsonNode entry : baseline.get("endpoints")) {
+            String name = entry.has("operation") ? entry.get("operation").textValue() :
+                    entry.get("endpoint").textValue();
+            long baselineP90 = entry.get("p90").longValue();
+            LatencyHistogram latency = findLatency(name);
+            if (latency == null || latency.getCount() < minSamples) {
+                LOG.debug("Not enough calls to {} to compare against the baseline", name);
+                continue;
+            }
+            long p90 = latency.getPercentile(90);
+            if (p90 > baselineP90 * (1 + threshold) && p90 - baselineP90 >= MIN_REGRESSION_MILLIS) {
+                regressions.add(String.format("%s p90 is %d ms (baseline %d ms, %d calls)", name, p90, baselineP90,
+                        latency.getCount()));
+            }
+        }
+        if (regressions.isEmpty()) {
+            LOG.info("No endpoint latencies regressed more than {}% against the {} baseline",
+                    Math.round(threshold * 100), envName);
+            return;
+        }
+        String message = "Endpoint latencies regressed against the " + envName + " baseline:\n  " +
+                String.join("\n  ", regressions);
+        if ("fail".equals(mode)) {
+            LOG.error(message);
+            throw new RegressionException(message);
+        }
+        LOG.warn(message);
+    }
+
+    /**
+     * Find the latency of the endpoint with the given name, or the endpoint called by the API method with the given
+     * name. If the same method was somehow recorded under several endpoints, use the slowest.
+     */
+    private LatencyHistogram findLatency(String name) {
+        LatencyHistogram found = null;
+        for (EndpointMetrics.EndpointStats stats : metrics.getAllStats()) {
+            if (stats.getEndpoint().equals(name) || stats.getOperations().contains(name)) {
+                if (found == null || stats.getLatency().getPercentile(90) > found.getPercentile(90)) {
+                    found = stats.getLatency();
+                }
+            }
+        }
+        return found;
+    }
+
+    private void writeCandidateBaseline(String envName) throws IOException {
+        SortedMap<String, Long> p90s = new TreeMap<>();
+        for (EndpointMetrics.EndpointStats stats : metrics.getAllStats()) {
+            if (stats.getLatency().getCount() >= minSamples) {
+                for (String operation : stats.getOperations()) {
+                    p90s.put(operation, stats.getLatency().getPercentile(90));
+                }
+            }
+        }
+        if (p90s.isEmpty()) {
+            return;
+        }
+        ObjectNode root = DefaultObjectMapper.INSTANCE.createObjectNode();
+        ArrayNode endpoints = root.putArray("endpoints");
+        for (String operation : p90s.keySet()) {
+            endpoints.addObject().put("operation", operation).put("p90", p90s.get(operation));
+        }
+        File file = EndpointMetrics.getReportFile("perf-baseline-" + envName, "json");
+        DefaultObjectMapper.INSTANCE.writerWithDefaultPrettyPrinter().writeValue(file, root);
+    }
+
+    /** Endpoint latencies regressed against the baseline while the gate was in "fail" mode. */
+    public static class RegressionException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        RegressionException(String message) {
+            super(message);
+        }
+    }
+}
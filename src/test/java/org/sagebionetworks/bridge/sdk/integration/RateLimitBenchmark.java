@@ -0,0 +1,156 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.ParticipantFile;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Characterizes the rate limits of three families of endpoints with {@link RateLimitProbe}: participant file
+ * downloads (for files of several sizes, since downloads are limited by bytes as well as by requests), sign-in, and
+ * upload session creation. For each, this reports the request rate that was first throttled (both the nominal rate
+ * and the rate requests were actually sent at), the rate that was sustained while throttled (and for downloads, the
+ * bytes per second that represents), how many requests got through before the first 429, the Retry-After header,
+ * and how long the endpoint took to accept requests again.
+ * These are the numbers that client backoff settings should match. Where the limits are per IP address, this will
+ * throttle anything else running from the same machine, so don't run it alongside other tests.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class RateLimitBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimitBenchmark.class);
+
+    static final String FILE_SIZES_PROPERTY = "bridge.rateLimit.fileSizesKb";
+    private static final String DEFAULT_FILE_SIZES = "1,100,1000";
+    private static final int BYTES_PER_KB = 1024;
+    private static final String UPLOAD_CONTENT = "Rate limit probe";
+
+    private static final List<RateLimitProbe.Result> results = new ArrayList<>();
+    private static TestUser participant;
+    private static TestUser signInUser;
+    private static String hostUrl;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        participant = TestUserHelper.createAndSignInUser(RateLimitBenchmark.class, true);
+        signInUser = TestUserHelper.createAndSignInUser(RateLimitBenchmark.class, true);
+        hostUrl = participant.getClientManager().getHostUrl();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        List<String> resultRows = new ArrayList<>();
+        List<String> stepRows = new ArrayList<>();
+        for (RateLimitProbe.Result result : results) {
+            resultRows.add(format("%s,%d,%d,%.2f,%d,%.2f,%.0f,%s,%d", result.getName(), result.getBytesPerRequest(),
+                    result.getThrottledRate(), result.getSentRate(), result.getRequestsBeforeThrottled(),
+                    result.getSustainedRate(), result.getSustainedBytesPerSecond(),
+                    result.getRetryAfter() == null ? "" : result.getRetryAfter(), result.getRecoveryMillis()));
+            for (RateLimitProbe.Step step : result.getSteps()) {
+                stepRows.add(format("%s,%d,%.2f,%d,%d,%d,%d,%d,%.2f", result.getName(), step.getRate(),
+                        step.getSentRate(), step.getRequests(), step.getSuccesses(), step.getThrottled(),
+                        step.getErrors(), step.getRequestsBeforeThrottled(), step.getSuccessRate()));
+            }
+        }
+        EndpointMetrics.writeCsvReport("rate-limits", "endpoint,bytesPerRequest,throttledRate,sentRate,"
+                + "requestsBeforeThrottled,sustainedRate,sustainedBytesPerSecond,retryAfter,recoveryMillis",
+                resultRows);
+        EndpointMetrics.writeCsvReport("rate-limit-steps", "endpoint,rate,sentRate,requests,successes,throttled,"
+                + "errors,requestsBeforeThrottled,successRate", stepRows);
+        if (participant != null) {
+            ForConsentedUsersApi usersApi = participant.getClient(ForConsentedUsersApi.class);
+            for (ParticipantFile file : usersApi.getParticipantFiles(null, 50).execute().body().getItems()) {
+                usersApi.deleteParticipantFile(file.getFileId()).execute();
+            }
+            participant.signOutAndDeleteUser();
+        }
+        if (signInUser != null) {
+            signInUser.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void participantFileDownloads() throws Exception {
+        ForConsentedUsersApi usersApi = participant.getClient(ForConsentedUsersApi.class);
+        for (String value : System.getProperty(FILE_SIZES_PROPERTY, DEFAULT_FILE_SIZES).split(",")) {
+            int kilobytes = Integer.parseInt(value.trim());
+            String fileId = "rate-limit-" + kilobytes + "kb";
+            ParticipantFile file = usersApi.createParticipantFile(fileId,
+                    new ParticipantFile().mimeType("text/plain")).execute().body();
+            // ASCII, so one byte per character.
+            assertEquals(200, ParticipantFileTest.putText(file.getUploadUrl(),
+                    StringUtils.repeat("A", kilobytes * BYTES_PER_KB)));
+
+            // The download is a redirect to S3, which the probe doesn't follow.
+            String url = hostUrl + "/v3/participants/self/files/" + fileId;
+            probe("participantFile " + kilobytes + "KB", (long) kilobytes * BYTES_PER_KB, () -> {
+                HttpGet request = new HttpGet(url);
+                request.setHeader("Bridge-Session", participant.getSession().getSessionToken());
+                return request;
+            });
+        }
+    }
+
+    @Test
+    public void signIn() throws Exception {
+        String signInText = "{\"appId\":\"" + signInUser.getAppId() + "\",\"email\":\"" + signInUser.getEmail()
+                + "\",\"password\":\"" + signInUser.getPassword() + "\"}";
+        probe("signIn", 0, () -> {
+            HttpPost request = new HttpPost(hostUrl + "/v3/auth/signIn");
+            request.setEntity(new StringEntity(signInText, ContentType.APPLICATION_JSON));
+            return request;
+        });
+    }
+
+    @Test
+    public void uploadSessions() throws Exception {
+        // Sessions that are never uploaded to, which are left for the server to expire.
+        byte[] content = UPLOAD_CONTENT.getBytes(StandardCharsets.UTF_8);
+        String requestText = "{\"name\":\"rate-limit.txt\",\"contentLength\":" + content.length
+                + ",\"contentMd5\":\"" + Base64.encodeBase64String(DigestUtils.md5(content))
+                + "\",\"contentType\":\"text/plain\"}";
+        probe("uploadSession", 0, () -> {
+            HttpPost request = new HttpPost(hostUrl + "/v3/uploads");
+            request.setHeader("Bridge-Session", participant.getSession().getSessionToken());
+            request.setEntity(new StringEntity(requestText, ContentType.APPLICATION_JSON));
+            return request;
+        });
+    }
+
+    private static void probe(String name, long bytesPerRequest, Callable<HttpRequestBase> requests)
+            throws Exception {
+        RateLimitProbe.Result result = RateLimitProbe.fromSystemProperties().probe(name, bytesPerRequest, requests);
+        results.add(result);
+        if (!result.isThrottled()) {
+            LOG.info("{} was not throttled; raise -D{} to find its limit", name, RateLimitProbe.MAX_RATE_PROPERTY);
+        }
+        long successes = 0;
+        for (RateLimitProbe.Step step : result.getSteps()) {
+            successes += step.getSuccesses();
+        }
+        assertTrue("No " + name + " requests succeeded", successes > 0);
+    }
+}
@@ -0,0 +1,327 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.util.concurrent.RateLimiter;
+import org.apache.http.Header;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the rate at which an endpoint starts to return 429 Too Many Requests. The same request is sent at a fixed
+ * rate for one step, and the rate is doubled each step (from the start rate up to the maximum rate) until a step
+ * is throttled. Each step records the rate at which requests were actually sent, which falls short of the nominal
+ * rate when there are too few threads for the endpoint's latency (raise the threads if the probe warns of this).
+ * The probe then records how many requests that step got through before the first 429, the rate it actually
+ * sustained, the Retry-After header of the first 429, and, polling every 100 ms once the step is over,
+ * how long the endpoint takes to accept a request again. Requests are sent on the shared {@link HttpTransport}
+ * without following redirects, so an endpoint that redirects to S3 is measured without the S3 download. The
+ * defaults can be changed with system properties:
+ *
+ * <pre>
+ * -Dbridge.rateLimit.startRate=1 -Dbridge.rateLimit.maxRate=64
+ * -Dbridge.rateLimit.stepSeconds=5 -Dbridge.rateLimit.threads=16
+ * </pre>
+ */
+public class RateLimitProbe {
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimitProbe.class);
+
+    static final String START_RATE_PROPERTY = "bridge.rateLimit.startRate";
+    static final String MAX_RATE_PROPERTY = "bridge.rateLimit.maxRate";
+    static final String STEP_PROPERTY = "bridge.rateLimit.stepSeconds";
+    static final String THREADS_PROPERTY = "bridge.rateLimit.threads";
+    static final int TOO_MANY_REQUESTS = 429;
+    private static final long RECOVERY_POLL_MILLIS = 100;
+    private static final long RECOVERY_DEADLINE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static final RequestConfig NO_REDIRECTS = RequestConfig.custom().setRedirectsEnabled(false).build();
+    // A step that sends less than this share of its nominal rate is reported as short of threads.
+    private static final double MIN_SENT_RATIO = 0.9;
+
+    private final int startRate;
+    private final int maxRate;
+    private final long stepMillis;
+    private final int threads;
+
+    /** A probe configured by the system properties. */
+    public static RateLimitProbe fromSystemProperties() {
+        return new RateLimitProbe(Integer.getInteger(START_RATE_PROPERTY, 1),
+                Integer.getInteger(MAX_RATE_PROPERTY, 64),
+                TimeUnit.SECONDS.toMillis(Integer.getInteger(STEP_PROPERTY, 5)),
+                Integer.getInteger(THREADS_PROPERTY, 16));
+    }
+
+    public RateLimitProbe(int startRate, int maxRate, long stepMillis, int threads) {
+        this.startRate = startRate;
+        this.maxRate = maxRate;
+        this.stepMillis = stepMillis;
+        this.threads = threads;
+    }
+
+    /**
+     * Probe one endpoint.
+     *
+     * @param name
+     *         the name of the endpoint in the logs and the result
+     * @param bytesPerRequest
+     *         the size of what each request reads or writes (e.g. the size of the file it downloads), so the result
+     *         can report the byte rate as well as the request rate
+     * @param requests
+     *         makes a new request each time it is called; each request is sent once
+     */
+    public Result probe(String name, long bytesPerRequest, Callable<HttpRequestBase> requests) throws Exception {
+        HttpTransport.get().checkConcurrency(Math.min(threads, maxRate));
+        Result result = new Result(name, bytesPerRequest);
+        for (int rate = startRate; rate <= maxRate; rate *= 2) {
+            Step step = runStep(rate, requests);
+            result.steps.add(step);
+            LOG.info("{} at {} requests/s: {}", name, rate, step);
+            if (step.getSentRate() < rate * MIN_SENT_RATIO) {
+                LOG.warn("{} sent only {} of {} requests/s; raise -D{} (now {})", name,
+                        String.format("%.2f", step.getSentRate()), rate, THREADS_PROPERTY, threads);
+            }
+            if (step.throttled.get() > 0) {
+                result.throttledStep = step;
+                result.recoveryMillis = waitForRecovery(step, requests);
+                break;
+            }
+        }
+        LOG.info("{}", result);
+        return result;
+    }
+
+    private Step runStep(int rate, Callable<HttpRequestBase> requests) throws Exception {
+        Step step = new Step(rate);
+        RateLimiter rateLimiter = RateLimiter.create(rate);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, rate));
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(stepMillis);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < Math.min(threads, rate); i++) {
+                futures.add(executor.submit(() -> {
+                    while (true) {
+                        rateLimiter.acquire();
+                        if (System.nanoTime() >= end) {
+                            return null;
+                        }
+                        long sent = step.requests.incrementAndGet();
+                        try (CloseableHttpResponse response = send(requests.call())) {
+                            int status = response.getStatusLine().getStatusCode();
+                            if (status == TOO_MANY_REQUESTS) {
+                                step.throttled.incrementAndGet();
+                                step.lastThrottledNanos.set(System.nanoTime());
+                                if (step.requestsBeforeThrottled.compareAndSet(-1, sent - 1)) {
+                                    Header retryAfter = response.getFirstHeader("Retry-After");
+                                    step.retryAfter.set(retryAfter == null ? null : retryAfter.getValue());
+                                }
+                            } else if (status < 400) {
+                                step.successes.incrementAndGet();
+                            } else {
+                                step.errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            step.errors.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        step.elapsedMillis = elapsedMillis(start);
+        return step;
+    }
+
+    /**
+     * Poll the endpoint until it stops returning 429.
+     *
+     * @return the time from the last 429 of the step until the first request that was not throttled, or -1 if the
+     *         endpoint was still throttled at the deadline
+     */
+    private long waitForRecovery(Step step, Callable<HttpRequestBase> requests) throws Exception {
+        long throttledSince = step.lastThrottledNanos.get();
+        while (elapsedMillis(throttledSince) < RECOVERY_DEADLINE_MILLIS) {
+            long sentOn = System.nanoTime();
+            try (CloseableHttpResponse response = send(requests.call())) {
+                if (response.getStatusLine().getStatusCode() != TOO_MANY_REQUESTS) {
+                    return TimeUnit.NANOSECONDS.toMillis(sentOn - throttledSince);
+                }
+            } catch (IOException e) {
+                LOG.warn("Recovery poll failed: {}", e.getMessage());
+            }
+            Thread.sleep(RECOVERY_POLL_MILLIS);
+        }
+        LOG.warn("Still throttled {} ms after the last 429", RECOVERY_DEADLINE_MILLIS);
+        return -1;
+    }
+
+    private static CloseableHttpResponse send(HttpRequestBase request) throws IOException {
+        request.setConfig(NO_REDIRECTS);
+        CloseableHttpResponse response = HttpTransport.get().getHttpClient().execute(request);
+        EntityUtils.consumeQuietly(response.getEntity());
+        return response;
+    }
+
+    /** The requests sent at one rate. */
+    public static class Step {
+        private final int rate;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong requestsBeforeThrottled = new AtomicLong(-1);
+        private final AtomicLong lastThrottledNanos = new AtomicLong();
+        private final AtomicReference<String> retryAfter = new AtomicReference<>();
+        private long elapsedMillis;
+
+        Step(int rate) {
+            this.rate = rate;
+        }
+
+        /** The rate the requests were sent at, in requests per second. */
+        public int getRate() {
+            return rate;
+        }
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getSuccesses() {
+            return successes.get();
+        }
+
+        public long getThrottled() {
+            return throttled.get();
+        }
+
+        /** Responses that were neither successful nor 429, and requests that failed outright. */
+        public long getErrors() {
+            return errors.get();
+        }
+
+        /** The requests that got through before the first 429, or -1 if none were throttled. */
+        public long getRequestsBeforeThrottled() {
+            return requestsBeforeThrottled.get();
+        }
+
+        /** The requests actually sent per second over the step, which may be less than the nominal rate. */
+        public double getSentRate() {
+            return (elapsedMillis == 0) ? 0 : requests.get() * 1000.0 / elapsedMillis;
+        }
+
+        /** The successful requests per second over the step. */
+        public double getSuccessRate() {
+            return (elapsedMillis == 0) ? 0 : successes.get() * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%.2f/s), %d succeeded (%.2f/s), %d throttled (first after %d), "
+                    + "%d errors", getRequests(), getSentRate(), getSuccesses(), getSuccessRate(), getThrottled(),
+                    getRequestsBeforeThrottled(), getErrors());
+        }
+    }
+
+    /** The steps of one probe, and what they found. */
+    public static class Result {
+        private final String name;
+        private final long bytesPerRequest;
+        private final List<Step> steps = new ArrayList<>();
+        private Step throttledStep;
+        private long recoveryMillis = -1;
+
+        Result(String name, long bytesPerRequest) {
+            this.name = name;
+            this.bytesPerRequest = bytesPerRequest;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getBytesPerRequest() {
+            return bytesPerRequest;
+        }
+
+        public List<Step> getSteps() {
+            return Collections.unmodifiableList(steps);
+        }
+
+        /** True if some step was throttled; if not, the limit is above the maximum rate of the probe. */
+        public boolean isThrottled() {
+            return throttledStep != null;
+        }
+
+        /** The nominal rate of the first step that was throttled, or -1 if none was. */
+        public int getThrottledRate() {
+            return isThrottled() ? throttledStep.getRate() : -1;
+        }
+
+        /**
+         * The rate at which requests were actually sent in the first step that was throttled, or if none was, in
+         * the last step. This is the rate the endpoint was shown to throttle, or to accept.
+         */
+        public double getSentRate() {
+            Step step = isThrottled() ? throttledStep : steps.isEmpty() ? null : steps.get(steps.size() - 1);
+            return (step == null) ? 0 : step.getSentRate();
+        }
+
+        /** The successful requests per second of the first step that was throttled, or -1 if none was. */
+        public double getSustainedRate() {
+            return isThrottled() ? throttledStep.getSuccessRate() : -1;
+        }
+
+        /** The bytes per second that the sustained rate reads or writes, or -1 if no step was throttled. */
+        public double getSustainedBytesPerSecond() {
+            return isThrottled() ? throttledStep.getSuccessRate() * bytesPerRequest : -1;
+        }
+
+        /** The requests of the throttled step that got through before the first 429 (roughly the burst size). */
+        public long getRequestsBeforeThrottled() {
+            return isThrottled() ? throttledStep.getRequestsBeforeThrottled() : -1;
+        }
+
+        /** The Retry-After header of the first 429, or null if there was no 429 or it had no such header. */
+        public String getRetryAfter() {
+            return isThrottled() ? throttledStep.retryAfter.get() : null;
+        }
+
+        /** The time from the last 429 until a request was accepted again, or -1 if unknown. */
+        public long getRecoveryMillis() {
+            return recoveryMillis;
+        }
+
+        @Override
+        public String toString() {
+            if (!isThrottled()) {
+                int maxRate = steps.isEmpty() ? 0 : steps.get(steps.size() - 1).getRate();
+                return String.format("%s: not throttled at %.2f requests/s sent (nominal %d)", name, getSentRate(),
+                        maxRate);
+            }
+            return String.format("%s: throttled at %.2f requests/s sent (nominal %d) after %d requests, sustained "
+                    + "%.2f requests/s (%.0f bytes/s), Retry-After %s, recovered in %d ms", name, getSentRate(),
+                    getThrottledRate(), getRequestsBeforeThrottled(), getSustainedRate(),
+                    getSustainedBytesPerSecond(), getRetryAfter(), recoveryMillis);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.joda.time.DateTimeZone.UTC;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_COORDINATOR;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForStudyCoordinatorsApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantReportsApi;
+import org.sagebionetworks.bridge.rest.api.StudyReportsApi;
+import org.sagebionetworks.bridge.rest.exceptions.BadRequestException;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.ForwardCursorReportDataList;
+import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Times report reads over date ranges from a day to several years. {@link ReportTest} and
+ * {@link StudyParticipantReportTest} read back a few records over short windows; this writes a record a day for
+ * several years (3 by default) to:
+ *
+ * <ul>
+ *   <li>a participant report (by local date) for each of a number of participants;</li>
+ *   <li>a study participant report (by date and time) for each participant, in one of two studies;</li>
+ *   <li>a number of study reports (by local date).</li>
+ * </ul>
+ *
+ * It then times getUsersParticipantReportRecords, getStudyParticipantReport (following nextPageOffsetKey to the last
+ * page) and getStudyReportRecords for spans ending yesterday, and times getStudyParticipantReportIndices and
+ * getStudyReportIndices. If the server rejects a span as too long, the rejection is recorded, and the span is also
+ * timed as a client would have to read it: in consecutive windows of 30 days.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class ReportRangeBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(ReportRangeBenchmark.class);
+
+    static final String PARTICIPANTS_PROPERTY = "bridge.reports.participants";
+    static final String YEARS_PROPERTY = "bridge.reports.years";
+    static final String STUDY_REPORTS_PROPERTY = "bridge.reports.studyReports";
+    static final String WINDOW_DAYS_PROPERTY = "bridge.reports.windowDays";
+    private static final int DEFAULT_PARTICIPANTS = 10;
+    private static final int DEFAULT_YEARS = 3;
+    private static final int DEFAULT_STUDY_REPORTS = 4;
+    private static final int DEFAULT_WINDOW_DAYS = 30;
+    private static final int[] SPAN_DAYS = { 1, 7, 30, 90, 365, 730, 1095, 1825 };
+    private static final int ITERATIONS = 3;
+    private static final int PAGE_SIZE = 100;
+    private static final int SEED_THREADS = 16;
+
+    private static String reportId;
+    private static LocalDate lastDay;
+    private static int days;
+    private static int windowDays;
+    private static TestUser admin;
+    private static TestUser coordinator;
+    private static StudyFixture studyFixture;
+    private static final List<TestUser> participants = new ArrayList<>();
+    private static final List<String> studyReportIds = new ArrayList<>();
+    private static final List<String> rows = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        reportId = Tests.randomIdentifier(ReportRangeBenchmark.class);
+        lastDay = LocalDate.now(UTC).minusDays(1);
+        days = Integer.getInteger(YEARS_PROPERTY, DEFAULT_YEARS) * 365;
+        windowDays = Integer.getInteger(WINDOW_DAYS_PROPERTY, DEFAULT_WINDOW_DAYS);
+        admin = TestUserHelper.getSignedInAdmin();
+        coordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
+        studyFixture = StudyFixture.create(ReportRangeBenchmark.class);
+
+        for (int i = 0; i < Integer.getInteger(PARTICIPANTS_PROPERTY, DEFAULT_PARTICIPANTS); i++) {
+            TestUser participant = TestUserHelper.createAndSignInUser(ReportRangeBenchmark.class, true);
+            participants.add(participant);
+            studyFixture.enroll(studyIdFor(i), participant);
+        }
+        for (int i = 0; i < Integer.getInteger(STUDY_REPORTS_PROPERTY, DEFAULT_STUDY_REPORTS); i++) {
+            studyReportIds.add(reportId + "-" + i);
+        }
+        seed();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("report-ranges", "call,spanDays,requests,records,rejected,p50,p90,max", rows);
+        // The study fixture is created after the admin and coordinator, and before any participant or report.
+        if (studyFixture != null) {
+            ForWorkersApi workersApi = admin.getClient(ForWorkersApi.class);
+            ForStudyCoordinatorsApi coordinatorsApi = coordinator.getClient(ForStudyCoordinatorsApi.class);
+            for (int i = 0; i < participants.size(); i++) {
+                TestUser participant = participants.get(i);
+                workersApi.deleteAllParticipantReportRecords(participant.getUserId(), reportId).execute();
+                coordinatorsApi.deleteStudyParticipantReport(studyIdFor(i), participant.getUserId(), reportId)
+                        .execute();
+                participant.signOutAndDeleteUser();
+            }
+            for (String studyId : new String[] { studyFixture.getStudyId1(), studyFixture.getStudyId2() }) {
+                try {
+                    coordinatorsApi.deleteStudyParticipantReportIndex(studyId, reportId).execute();
+                } catch (EntityNotFoundException e) {
+                    // No participant in this study.
+                }
+            }
+            try {
+                admin.getClient(ForAdminsApi.class).deleteParticipantReportIndex(reportId).execute();
+            } catch (EntityNotFoundException e) {
+                // Set-up failed before any record was written.
+            }
+            StudyReportsApi studyReportsApi = admin.getClient(StudyReportsApi.class);
+            for (String studyReportId : studyReportIds) {
+                studyReportsApi.deleteAllStudyReportRecords(studyReportId).execute();
+            }
+            studyFixture.delete();
+        }
+        if (coordinator != null) {
+            TestUserPool.get().release(coordinator);
+        }
+    }
+
+    @Test
+    public void participantReportsBySpan() throws Exception {
+        ParticipantReportsApi reportsApi = admin.getClient(ParticipantReportsApi.class);
+        String userId = participants.get(0).getUserId();
+        time("getUsersParticipantReportRecords", (startDate, endDate) -> reportsApi
+                .getUsersParticipantReportRecords(userId, reportId, startDate, endDate).execute().body()
+                .getItems().size());
+    }
+
+    @Test
+    public void studyParticipantReportsBySpan() throws Exception {
+        ForStudyCoordinatorsApi coordinatorsApi = coordinator.getClient(ForStudyCoordinatorsApi.class);
+        String studyId = studyIdFor(0);
+        String userId = participants.get(0).getUserId();
+        time("getStudyParticipantReport", (startDate, endDate) -> {
+            DateTime startTime = startDate.toDateTimeAtStartOfDay(UTC);
+            DateTime endTime = endDate.plusDays(1).toDateTimeAtStartOfDay(UTC).minusMillis(1);
+            int records = 0;
+            String offsetKey = null;
+            do {
+                ForwardCursorReportDataList page = coordinatorsApi.getStudyParticipantReport(studyId, userId,
+                        reportId, startTime, endTime, offsetKey, PAGE_SIZE).execute().body();
+                records += page.getItems().size();
+                offsetKey = page.getNextPageOffsetKey();
+            } while (offsetKey != null);
+            return records;
+        });
+    }
+
+    @Test
+    public void studyReportsBySpan() throws Exception {
+        StudyReportsApi studyReportsApi = admin.getClient(StudyReportsApi.class);
+        String studyReportId = studyReportIds.get(0);
+        time("getStudyReportRecords", (startDate, endDate) -> studyReportsApi
+                .getStudyReportRecords(studyReportId, startDate, endDate).execute().body().getItems().size());
+    }
+
+    @Test
+    public void indices() throws Exception {
+        ForStudyCoordinatorsApi coordinatorsApi = coordinator.getClient(ForStudyCoordinatorsApi.class);
+        StudyReportsApi studyReportsApi = admin.getClient(StudyReportsApi.class);
+        LatencyHistogram participantIndices = new LatencyHistogram("getStudyParticipantReportIndices");
+        LatencyHistogram studyIndices = new LatencyHistogram("getStudyReportIndices");
+        int participantIndexCount = 0;
+        int studyIndexCount = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            participantIndexCount = coordinatorsApi.getStudyParticipantReportIndices(studyFixture.getStudyId1())
+                    .execute().body().getItems().size();
+            participantIndices.record(elapsedMillis(start));
+
+            start = System.nanoTime();
+            studyIndexCount = studyReportsApi.getStudyReportIndices().execute().body().getItems().size();
+            studyIndices.record(elapsedMillis(start));
+        }
+        addRow(participantIndices, 0, participantIndexCount, false);
+        addRow(studyIndices, 0, studyIndexCount, false);
+        assertTrue("Participant report index is missing", participantIndexCount > 0);
+    }
+
+    /**
+     * Time the call for each span, ending yesterday. A span the server rejects is timed again as consecutive
+     * windows, and recorded with the number of requests that took.
+     */
+    private void time(String call, RangeCall rangeCall) throws Exception {
+        for (int spanDays : SPAN_DAYS) {
+            if (spanDays > days) {
+                break;
+            }
+            LocalDate startDate = lastDay.minusDays(spanDays - 1);
+            LatencyHistogram latency = new LatencyHistogram(call + " " + spanDays + "d");
+            int records = 0;
+            boolean rejected = false;
+            for (int i = 0; i < ITERATIONS && !rejected; i++) {
+                long start = System.nanoTime();
+                try {
+                    records = rangeCall.read(startDate, lastDay);
+                    latency.record(elapsedMillis(start));
+                } catch (BadRequestException e) {
+                    LOG.info("{} rejected a span of {} days: {}", call, spanDays, e.getMessage());
+                    rejected = true;
+                }
+            }
+            if (!rejected) {
+                addRow(latency, spanDays, records, false);
+                continue;
+            }
+            LatencyHistogram windowed = new LatencyHistogram(
+                    call + " " + spanDays + "d in " + windowDays + "d windows");
+            for (int i = 0; i < ITERATIONS; i++) {
+                records = 0;
+                long start = System.nanoTime();
+                for (LocalDate windowStart = startDate; !windowStart.isAfter(lastDay);
+                        windowStart = windowStart.plusDays(windowDays)) {
+                    LocalDate windowEnd = windowStart.plusDays(windowDays - 1);
+                    records += rangeCall.read(windowStart, windowEnd.isAfter(lastDay) ? lastDay : windowEnd);
+                }
+                windowed.record(elapsedMillis(start));
+            }
+            addRow(windowed, spanDays, records, true);
+        }
+    }
+
+    /** A read over a range of days, returning the number of records read. */
+    private interface RangeCall {
+        int read(LocalDate startDate, LocalDate endDate) throws Exception;
+    }
+
+    /** Write a record a day to every report, going back the configured number of years from yesterday. */
+    private static void seed() throws Exception {
+        ParticipantReportsApi participantReportsApi = admin.getClient(ParticipantReportsApi.class);
+        ForStudyCoordinatorsApi coordinatorsApi = coordinator.getClient(ForStudyCoordinatorsApi.class);
+        StudyReportsApi studyReportsApi = admin.getClient(StudyReportsApi.class);
+
+        // Each day has a participant report and a study participant report record for every participant, then a
+        // record for every study report.
+        int perDay = participants.size() * 2 + studyReportIds.size();
+        Seeder.seed("report records", days * perDay, SEED_THREADS, n -> {
+            LocalDate date = lastDay.minusDays(n / perDay);
+            ReportData data = new ReportData().data(ImmutableMap.of("value", date.toString()));
+            int index = n % perDay;
+            if (index < participants.size() * 2) {
+                int i = index / 2;
+                String userId = participants.get(i).getUserId();
+                if (index % 2 == 0) {
+                    participantReportsApi.addParticipantReportRecordV4(userId, reportId, data.localDate(date))
+                            .execute();
+                } else {
+                    coordinatorsApi.saveStudyParticipantReportRecord(studyIdFor(i), userId, reportId,
+                            data.dateTime(date.toDateTimeAtStartOfDay(UTC).plusHours(12))).execute();
+                }
+            } else {
+                String studyReportId = studyReportIds.get(index - participants.size() * 2);
+                studyReportsApi.addStudyReportRecord(studyReportId, data.localDate(date)).execute();
+            }
+        });
+    }
+
+    /** Participants alternate between the two studies. */
+    private static String studyIdFor(int participant) {
+        return (participant % 2 == 0) ? studyFixture.getStudyId1() : studyFixture.getStudyId2();
+    }
+
+    private static void addRow(LatencyHistogram latency, int spanDays, int records, boolean rejected) {
+        LOG.info("{} ({} records)", latency, records);
+        int requests = rejected ? (spanDays + windowDays - 1) / windowDays : 1;
+        rows.add(format("%s,%d,%d,%d,%b,%d,%d,%d", latency.getName(), spanDays, requests, records, rejected,
+                latency.getPercentile(50), latency.getPercentile(90), latency.getMax()));
+    }
+}
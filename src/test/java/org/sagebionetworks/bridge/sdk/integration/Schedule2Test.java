@@ -1,5 +1,6 @@
 package org.sagebionetworks.bridge.sdk.integration;
 
+import static java.lang.String.format;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
@@ -13,10 +14,6 @@ import static org.sagebionetworks.bridge.rest.model.PerformanceOrder.SEQUENTIAL;
 import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
 import static org.sagebionetworks.bridge.rest.model.Role.STUDY_COORDINATOR;
 import static org.sagebionetworks.bridge.rest.model.Role.STUDY_DESIGNER;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.ORG_ID_1;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.ORG_ID_2;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_2;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_ID;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
@@ -33,8 +30,11 @@ import org.apache.http.HttpResponse;
 import org.apache.http.client.fluent.Request;
 import org.joda.time.DateTime;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.sagebionetworks.bridge.rest.api.AssessmentsApi;
 import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
 import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
@@ -78,14 +78,22 @@ import com.google.common.net.HttpHeaders;
 
 import retrofit2.Response;
 
+@Category(ForkSafeTest.class)
 public class Schedule2Test {
     private static final ImmutableList<Label> LABELS = ImmutableList.of(new Label().lang("en").value("English"),
             new Label().lang("fr").value("French"));
     private static final String TIME_ZONE = "America/Chicago";
-    private static final String PARTICIPANT_API = "/v5/studies/study1/participants/self/schedule?clientTimeZone=";
+    private static final String PARTICIPANT_API = "/v5/studies/%s/participants/self/schedule?clientTimeZone=";
     private static final String IMAGE_RESOURCE_NAME = "default";
     private static final String IMAGE_RESOURCE_MODULE = "sage_survey";
 
+    // These tests replace and delete the schedules of both studies, so they use their own studies and organizations.
+    private static StudyFixture fixture;
+    private static String studyId1;
+    private static String studyId2;
+    private static String orgId1;
+    private static String orgId2;
+
     TestUser developer;
     TestUser studyDesigner;
     TestUser studyCoordinator;
@@ -96,27 +104,32 @@ public class Schedule2Test {
     String org1ScheduleGuid;
     String org2ScheduleGuid;
     
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        fixture = StudyFixture.create(Schedule2Test.class);
+        studyId1 = fixture.getStudyId1();
+        studyId2 = fixture.getStudyId2();
+        orgId1 = fixture.getOrgId1();
+        orgId2 = fixture.getOrgId2();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (fixture != null) {
+            fixture.delete();
+        }
+    }
+
     @Before
     public void before() throws Exception {
         developer = TestUserHelper.createAndSignInUser(Schedule2Test.class, false, DEVELOPER);
-        studyDesigner = TestUserHelper.createAndSignInUser(Schedule2Test.class, false, STUDY_DESIGNER);
+        studyDesigner = new MeteredTestUser(
+                TestUserHelper.createAndSignInUser(Schedule2Test.class, false, STUDY_DESIGNER));
         
         assessment = new Assessment().title(Schedule2Test.class.getSimpleName()).osName("Universal").ownerId(SAGE_ID)
                 .identifier(Tests.randomIdentifier(getClass()));
         
         assessment = developer.getClient(AssessmentsApi.class).createAssessment(assessment).execute().body();
-        
-        // If there's a schedule associated to study 1, we need to delete it.
-        TestUser admin = TestUserHelper.getSignedInAdmin();
-        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
-        Study study = studiesApi.getStudy(STUDY_ID_1).execute().body();
-        if (study.getScheduleGuid() != null) {
-            admin.getClient(SchedulesV2Api.class).deleteSchedule(study.getScheduleGuid()).execute();
-        }
-        study = studiesApi.getStudy(STUDY_ID_2).execute().body();
-        if (study.getScheduleGuid() != null) {
-            admin.getClient(SchedulesV2Api.class).deleteSchedule(study.getScheduleGuid()).execute();
-        }
     }
     
     @After
@@ -157,7 +170,7 @@ public class Schedule2Test {
         
         schedule = new Schedule2();
         try {
-            schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute();
+            schedulesApi.saveScheduleForStudy(studyId1, schedule).execute();
             fail("Should have thrown exception");
         } catch(InvalidEntityException e) {
         }
@@ -172,7 +185,7 @@ public class Schedule2Test {
         schedule.setVersion(10L);
         
         // create schedule.
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body();
         assertEquals("Test Schedule [Schedule2Test]", schedule.getName());
         assertEquals("P10W", schedule.getDuration());
         assertFalse(schedule.isDeleted());
@@ -233,11 +246,11 @@ public class Schedule2Test {
         
         schedule.addSessionsItem(session);
 
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body();
         assertSchedule(schedule);
         
         // get schedule
-        schedule = schedulesApi.getScheduleForStudy(STUDY_ID_1).execute().body();
+        schedule = schedulesApi.getScheduleForStudy(studyId1).execute().body();
         assertSchedule(schedule);
         
         // update schedule, fails validation
@@ -245,7 +258,7 @@ public class Schedule2Test {
         schedule.getSessions().get(0).addLabelsItem(new Label().lang("ja").value("評価を受ける"));
 
         // update schedule, succeeds
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body();
         assertEquals("Updated name for session", schedule.getSessions().get(0).getName());
         assertEquals("ja", schedule.getSessions().get(0).getLabels().get(1).getLang());
         assertEquals("評価を受ける", schedule.getSessions().get(0).getLabels().get(1).getValue());
@@ -254,7 +267,7 @@ public class Schedule2Test {
         assertNotNull(timeWindowGuid);
         
         // You can retrieve the timeline for this schedule
-        Timeline timeline = schedulesApi.getTimelineForStudy(STUDY_ID_1).execute().body();
+        Timeline timeline = schedulesApi.getTimelineForStudy(studyId1).execute().body();
         assertEquals(schedule.getDuration(), timeline.getDuration());
         assertFalse(timeline.getAssessments().isEmpty());
         assertFalse(timeline.getSessions().isEmpty());
@@ -318,7 +331,7 @@ public class Schedule2Test {
         assertEquals(scheduledAssessmentCount, asmtInstanceGuids.size());
         
         // And, these values are identical between runs
-        Timeline timeline2 = schedulesApi.getTimelineForStudy(STUDY_ID_1).execute().body();
+        Timeline timeline2 = schedulesApi.getTimelineForStudy(studyId1).execute().body();
         Set<String> sessionInstanceGuids2 = new HashSet<>();
         Set<String> asmtInstanceGuids2 = new HashSet<>();
         for (ScheduledSession scheduledSession : timeline2.getSchedule()) {
@@ -363,7 +376,7 @@ public class Schedule2Test {
         assertTrue(metadata.getMetadata().isEmpty());
 
         try {
-            schedulesApi.getScheduleForStudy(STUDY_ID_1).execute();
+            schedulesApi.getScheduleForStudy(studyId1).execute();
             fail("Should have thrown exception");
         } catch(EntityNotFoundException e) {
         }
@@ -378,43 +391,43 @@ public class Schedule2Test {
         SchedulesV2Api schedulesApi = studyDesigner.getClient(SchedulesV2Api.class);
         
         adminOrgApi.removeMember(SAGE_ID, studyDesigner.getUserId()).execute();
-        adminOrgApi.addMember(ORG_ID_1, studyDesigner.getUserId()).execute();
+        adminOrgApi.addMember(orgId1, studyDesigner.getUserId()).execute();
         
         schedule = new Schedule2();
         schedule.setName("ORG1: Test Schedule [Schedule2Test]");
         schedule.setDuration("P30D");
-        org1ScheduleGuid = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body().getGuid();
+        org1ScheduleGuid = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body().getGuid();
         
-        adminOrgApi.removeMember(ORG_ID_1, studyDesigner.getUserId()).execute();
-        adminOrgApi.addMember(ORG_ID_2, studyDesigner.getUserId()).execute();
+        adminOrgApi.removeMember(orgId1, studyDesigner.getUserId()).execute();
+        adminOrgApi.addMember(orgId2, studyDesigner.getUserId()).execute();
         
         schedule.setName("ORG2: Test Schedule [Schedule2Test]");
-        org2ScheduleGuid = schedulesApi.saveScheduleForStudy(STUDY_ID_2, schedule).execute().body().getGuid();
+        org2ScheduleGuid = schedulesApi.saveScheduleForStudy(studyId2, schedule).execute().body().getGuid();
         
         // Designer should not be able to see study schedule1
         try {
-            schedulesApi.getScheduleForStudy(STUDY_ID_1).execute().body();
+            schedulesApi.getScheduleForStudy(studyId1).execute().body();
             fail("Should have thrown exception");
         } catch(UnauthorizedException e) {
         }
-        Schedule2 newSchedule = schedulesApi.getScheduleForStudy(STUDY_ID_2).execute().body();
-        assertEquals(ORG_ID_2, newSchedule.getOwnerId());
+        Schedule2 newSchedule = schedulesApi.getScheduleForStudy(studyId2).execute().body();
+        assertEquals(orgId2, newSchedule.getOwnerId());
         
-        adminOrgApi.removeMember(ORG_ID_2, studyDesigner.getUserId()).execute();
-        adminOrgApi.addMember(Tests.ORG_ID_1, studyDesigner.getUserId()).execute();
+        adminOrgApi.removeMember(orgId2, studyDesigner.getUserId()).execute();
+        adminOrgApi.addMember(orgId1, studyDesigner.getUserId()).execute();
 
         try {
-            schedulesApi.getScheduleForStudy(STUDY_ID_2).execute().body();
+            schedulesApi.getScheduleForStudy(studyId2).execute().body();
             fail("Should have thrown exception");
         } catch(UnauthorizedException e) {
         }
-        newSchedule = schedulesApi.getScheduleForStudy(STUDY_ID_1).execute().body();
-        assertEquals(ORG_ID_1, newSchedule.getOwnerId());
+        newSchedule = schedulesApi.getScheduleForStudy(studyId1).execute().body();
+        assertEquals(orgId1, newSchedule.getOwnerId());
         
         // Developers see everything
         SchedulesV2Api devSchedulesApi = developer.getClient(SchedulesV2Api.class);
-        devSchedulesApi.getScheduleForStudy(STUDY_ID_1).execute().body();
-        devSchedulesApi.getScheduleForStudy(STUDY_ID_2).execute().body();
+        devSchedulesApi.getScheduleForStudy(studyId1).execute().body();
+        devSchedulesApi.getScheduleForStudy(studyId2).execute().body();
     }
     
     @Test
@@ -443,31 +456,32 @@ public class Schedule2Test {
         schedule.addSessionsItem(session);
         
         // create schedule.
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body();
         
         // Add it to study 1
-        Study study = studiesApi.getStudy(STUDY_ID_1).execute().body();
+        Study study = studiesApi.getStudy(studyId1).execute().body();
         user = TestUserHelper.createAndSignInUser(Schedule2Test.class, true);
+        fixture.enroll(studyId1, user);
 
         // This user should now have a timeline via study1:
         ForStudyCoordinatorsApi coordsApi = studyCoordinator.getClient(ForStudyCoordinatorsApi.class);
-        Timeline timeline = coordsApi.getStudyParticipantTimeline(STUDY_ID_1, user.getUserId()).execute().body();
+        Timeline timeline = coordsApi.getStudyParticipantTimeline(studyId1, user.getUserId()).execute().body();
         
         // it's there
         assertEquals(7, timeline.getSchedule().size());
         
         ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
-        timeline = userApi.getTimelineForSelf(STUDY_ID_1, null).execute().body();
+        timeline = userApi.getTimelineForSelf(studyId1, null).execute().body();
 
         // it's there
         assertEquals(7, timeline.getSchedule().size());
         
         // Let's add the cache header and see what happens.
-        Response<Timeline> res = userApi.getTimelineForSelf(STUDY_ID_1, schedule.getModifiedOn().plusHours(1)).execute();
+        Response<Timeline> res = userApi.getTimelineForSelf(studyId1, schedule.getModifiedOn().plusHours(1)).execute();
         assertEquals(304, res.code());
         assertNull(res.body());
         
-        res = userApi.getTimelineForSelf(STUDY_ID_1, schedule.getModifiedOn().minusHours(1)).execute();
+        res = userApi.getTimelineForSelf(studyId1, schedule.getModifiedOn().minusHours(1)).execute();
         assertEquals(200, res.code());
         assertNotNull(res.body());
 
@@ -477,12 +491,12 @@ public class Schedule2Test {
         
         // and this is just a flat-out error
         try {
-            userApi.getTimelineForSelf(STUDY_ID_2, null).execute();
+            userApi.getTimelineForSelf(studyId2, null).execute();
         } catch(UnauthorizedException e) {
-            assertEquals("Caller is not enrolled in study 'study2'", e.getMessage());
+            assertEquals("Caller is not enrolled in study '" + studyId2 + "'", e.getMessage());
         }
         try {
-            coordsApi.getStudyParticipantTimeline(STUDY_ID_2, user.getUserId()).execute();
+            coordsApi.getStudyParticipantTimeline(studyId2, user.getUserId()).execute();
         } catch(EntityNotFoundException e) {
             assertEquals("Account not found.", e.getMessage());
         }
@@ -511,50 +525,51 @@ public class Schedule2Test {
         schedule.addSessionsItem(session);
         
         // create schedule.
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body();
         
         user = TestUserHelper.createAndSignInUser(Schedule2Test.class, true);
+        fixture.enroll(studyId1, user);
         
         // set timezone, get back 200
         ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
-        Response<ParticipantSchedule> res = usersApi.getParticipantScheduleForSelf(STUDY_ID_1, "America/Chicago").execute();
+        Response<ParticipantSchedule> res = usersApi.getParticipantScheduleForSelf(studyId1, "America/Chicago").execute();
         String etag = res.headers().get(HttpHeaders.ETAG);
         assertNotNull(etag);
         
         // request again, get 304
-        HttpResponse noModResponse = Request.Get(user.getClientManager().getHostUrl() + PARTICIPANT_API + "America/Chicago")
+        HttpResponse noModResponse = HttpTransport.get().execute(Request.Get(user.getClientManager().getHostUrl() + format(PARTICIPANT_API, studyId1) + "America/Chicago")
                 .setHeader("Bridge-Session", user.getSession().getSessionToken())
-                .setHeader(HttpHeaders.IF_NONE_MATCH, etag).execute().returnResponse();
+                .setHeader(HttpHeaders.IF_NONE_MATCH, etag));
         assertEquals(304, noModResponse.getStatusLine().getStatusCode());
 
         // change timezone get 200
-        HttpResponse modResponse = Request.Get(user.getClientManager().getHostUrl() + PARTICIPANT_API + "America/Los_Angeles")
+        HttpResponse modResponse = HttpTransport.get().execute(Request.Get(user.getClientManager().getHostUrl() + format(PARTICIPANT_API, studyId1) + "America/Los_Angeles")
                 .setHeader("Bridge-Session", user.getSession().getSessionToken())
-                .setHeader(HttpHeaders.IF_NONE_MATCH, etag).execute().returnResponse();
+                .setHeader(HttpHeaders.IF_NONE_MATCH, etag));
         assertEquals(200, modResponse.getStatusLine().getStatusCode());
         String newEtag = modResponse.getFirstHeader(HttpHeaders.ETAG).getValue();
         
         // request again, get 304
-        noModResponse = Request.Get(user.getClientManager().getHostUrl() + PARTICIPANT_API  + "America/Los_Angeles")
+        noModResponse = HttpTransport.get().execute(Request.Get(user.getClientManager().getHostUrl() + format(PARTICIPANT_API, studyId1) + "America/Los_Angeles")
                 .setHeader("Bridge-Session", user.getSession().getSessionToken())
-                .setHeader(HttpHeaders.IF_NONE_MATCH, newEtag).execute().returnResponse();
+                .setHeader(HttpHeaders.IF_NONE_MATCH, newEtag));
         assertEquals(304, noModResponse.getStatusLine().getStatusCode());        
         
         // delete timezone
         StudyParticipantsApi participantsApi = studyCoordinator.getClient(StudyParticipantsApi.class);
         StudyParticipant participant = participantsApi.getStudyParticipantById(
-                STUDY_ID_1, user.getUserId(), false).execute().body();
+                studyId1, user.getUserId(), false).execute().body();
         assertEquals("America/Los_Angeles", participant.getClientTimeZone());
         participant.setClientTimeZone(null);
-        participantsApi.updateStudyParticipant(STUDY_ID_1, user.getUserId(), participant).execute().body();
+        participantsApi.updateStudyParticipant(studyId1, user.getUserId(), participant).execute().body();
         
         participant = usersApi.getUsersParticipantRecord(false).execute().body();
         assertNull(participant.getClientTimeZone());
         
         // request again, get 200
-        noModResponse = Request.Get(user.getClientManager().getHostUrl() + PARTICIPANT_API  + "America/Los_Angeles")
+        noModResponse = HttpTransport.get().execute(Request.Get(user.getClientManager().getHostUrl() + format(PARTICIPANT_API, studyId1) + "America/Los_Angeles")
                 .setHeader("Bridge-Session", user.getSession().getSessionToken())
-                .setHeader(HttpHeaders.IF_NONE_MATCH, newEtag).execute().returnResponse();
+                .setHeader(HttpHeaders.IF_NONE_MATCH, newEtag));
         assertEquals(200, noModResponse.getStatusLine().getStatusCode());
     }
     
@@ -584,11 +599,12 @@ public class Schedule2Test {
         schedule.addSessionsItem(session);
         
         // create schedule.
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body();
         
         // Add it to study 1
-        Study study = studiesApi.getStudy(STUDY_ID_1).execute().body();
+        Study study = studiesApi.getStudy(studyId1).execute().body();
         user = TestUserHelper.createAndSignInUser(Schedule2Test.class, true);
+        fixture.enroll(studyId1, user);
         
         StudyParticipant participant = user.getClient(ForConsentedUsersApi.class).getUsersParticipantRecord(false).execute().body();
         participant.setClientTimeZone(TIME_ZONE);
@@ -596,13 +612,13 @@ public class Schedule2Test {
 
         // This user should now have a timeline via study1:
         ForStudyCoordinatorsApi coordsApi = studyCoordinator.getClient(ForStudyCoordinatorsApi.class);
-        ParticipantSchedule participantSchedule = coordsApi.getParticipantSchedule(STUDY_ID_1, user.getUserId()).execute().body();
+        ParticipantSchedule participantSchedule = coordsApi.getParticipantSchedule(studyId1, user.getUserId()).execute().body();
         
         // it's there
         assertEquals(7, participantSchedule.getSchedule().size());
         
         // Check the events (only enrollment is in the schedule)
-        Map<String, DateTime> eventTimestamps = coordsApi.getStudyParticipantStudyActivityEvents(STUDY_ID_1, user.getUserId())
+        Map<String, DateTime> eventTimestamps = coordsApi.getStudyParticipantStudyActivityEvents(studyId1, user.getUserId())
                 .execute().body().getItems().stream()
                 .collect(Collectors.toMap(StudyActivityEvent::getEventId, StudyActivityEvent::getTimestamp));
         
@@ -617,17 +633,16 @@ public class Schedule2Test {
         // caching at this point.
         ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
         Response<ParticipantSchedule> response = userApi.getParticipantScheduleForSelf(
-                STUDY_ID_1, TIME_ZONE).execute();
+                studyId1, TIME_ZONE).execute();
         participantSchedule = response.body();
         
         userApi = user.getClient(ForConsentedUsersApi.class);
-        response = userApi.getParticipantScheduleForSelf(STUDY_ID_1, TIME_ZONE).execute();
+        response = userApi.getParticipantScheduleForSelf(studyId1, TIME_ZONE).execute();
         participantSchedule = response.body();
         
-        HttpResponse noModResponse = Request.Get(user.getClientManager().getHostUrl() + PARTICIPANT_API + "America/Chicago")
+        HttpResponse noModResponse = HttpTransport.get().execute(Request.Get(user.getClientManager().getHostUrl() + format(PARTICIPANT_API, studyId1) + "America/Chicago")
                 .setHeader("Bridge-Session", user.getSession().getSessionToken())
-                .setHeader(HttpHeaders.IF_NONE_MATCH, response.headers().get(HttpHeaders.ETAG))
-                .execute().returnResponse();
+                .setHeader(HttpHeaders.IF_NONE_MATCH, response.headers().get(HttpHeaders.ETAG)));
         assertEquals(304, noModResponse.getStatusLine().getStatusCode());        
 
         TestUser admin = TestUserHelper.getSignedInAdmin();
@@ -636,12 +651,12 @@ public class Schedule2Test {
         
         // and this is just a flat-out error
         try {
-            userApi.getParticipantScheduleForSelf(STUDY_ID_2, TIME_ZONE).execute();
+            userApi.getParticipantScheduleForSelf(studyId2, TIME_ZONE).execute();
         } catch(UnauthorizedException e) {
-            assertEquals("Caller is not enrolled in study 'study2'", e.getMessage());
+            assertEquals("Caller is not enrolled in study '" + studyId2 + "'", e.getMessage());
         }
         try {
-            coordsApi.getParticipantSchedule(STUDY_ID_2, user.getUserId()).execute();
+            coordsApi.getParticipantSchedule(studyId2, user.getUserId()).execute();
         } catch(EntityNotFoundException e) {
             assertEquals("Account not found.", e.getMessage());
         }
@@ -695,12 +710,13 @@ public class Schedule2Test {
         session.addTimeWindowsItem(new TimeWindow().startTime("08:00").expiration("PT1H"));
         schedule.addSessionsItem(session);
 
-        schedule = schedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = schedulesApi.saveScheduleForStudy(studyId1, schedule).execute().body();
         user = TestUserHelper.createAndSignInUser(Schedule2Test.class, true);
+        fixture.enroll(studyId1, user);
 
         // check ImageResources in ParticipantSchedule
         ForStudyCoordinatorsApi coordsApi = studyCoordinator.getClient(ForStudyCoordinatorsApi.class);
-        ParticipantSchedule participantSchedule = coordsApi.getParticipantSchedule(STUDY_ID_1, user.getUserId())
+        ParticipantSchedule participantSchedule = coordsApi.getParticipantSchedule(studyId1, user.getUserId())
                 .execute().body();
         assertNotNull(participantSchedule);
         Collections.sort(participantSchedule.getAssessments(),
@@ -730,7 +746,7 @@ public class Schedule2Test {
                 null);
 
         // check ImageResources in Timeline
-        Timeline timeline = coordsApi.getStudyParticipantTimeline(STUDY_ID_1, user.getUserId()).execute().body();
+        Timeline timeline = coordsApi.getStudyParticipantTimeline(studyId1, user.getUserId()).execute().body();
         assertNotNull(timeline);
         Collections.sort(timeline.getAssessments(), Comparator.comparing(assessment -> assessment.getIdentifier()));
 
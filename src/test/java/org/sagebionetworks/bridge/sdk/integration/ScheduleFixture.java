@@ -0,0 +1,274 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.PerformanceOrder.SEQUENTIAL;
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.sdk.integration.InitListener.FAKE_ENROLLMENT;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.AssessmentsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesV2Api;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
+import org.sagebionetworks.bridge.rest.model.Assessment;
+import org.sagebionetworks.bridge.rest.model.AssessmentReference2;
+import org.sagebionetworks.bridge.rest.model.Schedule2;
+import org.sagebionetworks.bridge.rest.model.Session;
+import org.sagebionetworks.bridge.rest.model.StudyActivityEventRequest;
+import org.sagebionetworks.bridge.rest.model.TimeWindow;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * A schedule of repeating sessions (each with one assessment) in the first study of an isolated
+ * {@link StudyFixture}, for tests that need participants with a timeline to fetch and adhere to, and don't care
+ * about the details of the schedule. Sessions start on the custom FAKE_ENROLLMENT event, which
+ * {@link #createParticipant(Class)} sets for each participant it creates. The size of the timeline is
+ * configurable, so that benchmarks can see how the server scales with it:
+ *
+ * <pre>
+ * scheduleFixture = new ScheduleFixture.Builder(studyFixture).withSessions(3).withDuration("P4W").build();
+ * </pre>
+ */
+public class ScheduleFixture {
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduleFixture.class);
+    private static final int PARALLEL_THREADS = 8;
+
+    private final StudyFixture studyFixture;
+    private final String studyId;
+    private final Assessment assessment;
+    private volatile Schedule2 schedule;
+    private final DateTime eventTimestamp;
+
+    private ScheduleFixture(StudyFixture studyFixture, Assessment assessment, Schedule2 schedule,
+            DateTime eventTimestamp) {
+        this.studyFixture = studyFixture;
+        this.studyId = studyFixture.getStudyId1();
+        this.assessment = assessment;
+        this.schedule = schedule;
+        this.eventTimestamp = eventTimestamp;
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public Assessment getAssessment() {
+        return assessment;
+    }
+
+    public Schedule2 getSchedule() {
+        return schedule;
+    }
+
+    /** The timestamp of every participant's FAKE_ENROLLMENT event, needed for their adherence records. */
+    public DateTime getEventTimestamp() {
+        return eventTimestamp;
+    }
+
+    /**
+     * Create a consented participant who is enrolled in the study and has the event that starts the schedule.
+     * The caller is responsible for deleting the participant.
+     */
+    public TestUser createParticipant(Class<?> cls) throws IOException {
+        return createParticipant(cls, eventTimestamp);
+    }
+
+    /**
+     * Create a participant whose schedule started at another time, e.g. weeks ago for a participant with a history.
+     * Their adherence records must use this event timestamp.
+     */
+    public TestUser createParticipant(Class<?> cls, DateTime eventTimestamp) throws IOException {
+        TestUser user = TestUserHelper.createAndSignInUser(cls, true);
+        try {
+            studyFixture.enroll(studyId, user);
+            user.getClient(ForConsentedUsersApi.class).createStudyActivityEvent(studyId,
+                    new StudyActivityEventRequest().eventId(FAKE_ENROLLMENT).timestamp(eventTimestamp), true, null)
+                    .execute();
+        } catch (IOException | RuntimeException e) {
+            user.signOutAndDeleteUser();
+            throw e;
+        }
+        return user;
+    }
+
+    /**
+     * Create many participants (as {@link #createParticipant(Class)} does) in parallel, for benchmarks that need
+     * a realistic population. The caller is responsible for deleting them, e.g. with {@link #deleteParticipants}.
+     * If any participant can't be created, the ones that were are deleted before this throws.
+     */
+    public List<TestUser> createParticipants(Class<?> cls, int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_THREADS);
+        List<Future<TestUser>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(() -> createParticipant(cls)));
+            }
+            List<TestUser> users = new ArrayList<>();
+            for (Future<TestUser> future : futures) {
+                users.add(future.get());
+            }
+            LOG.info("Created {} participants in study “{}”", users.size(), studyId);
+            return users;
+        } catch (Exception e) {
+            // Skip the participants not yet started, and wait for the rest so they can be deleted too.
+            for (Future<TestUser> future : futures) {
+                future.cancel(false);
+            }
+            List<TestUser> users = new ArrayList<>();
+            for (Future<TestUser> future : futures) {
+                try {
+                    users.add(future.get());
+                } catch (CancellationException | ExecutionException notCreated) {
+                    // Nothing to delete.
+                }
+            }
+            deleteParticipants(users);
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Delete participants in parallel, logging (rather than throwing) any failures. */
+    public static void deleteParticipants(List<TestUser> users) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_THREADS);
+        for (TestUser user : users) {
+            executor.execute(() -> {
+                try {
+                    user.signOutAndDeleteUser();
+                } catch(Exception e) {
+                    LOG.warn("Could not delete participant “{}”: {}", user.getUserId(), e.getMessage());
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Change the schedule and save it, e.g. to see how the server handles the change. Saving a schedule also
+     * invalidates the cached timelines (and ETags) for the study.
+     */
+    public synchronized Schedule2 updateSchedule(Consumer<Schedule2> changes) throws IOException {
+        TestUser developer = TestUserPool.get().lease(DEVELOPER);
+        try {
+            changes.accept(schedule);
+            schedule = developer.getClient(ForDevelopersApi.class).saveScheduleForStudy(studyId, schedule)
+                    .execute().body();
+            return schedule;
+        } finally {
+            TestUserPool.get().release(developer);
+        }
+    }
+
+    /** Delete the schedule and its assessment. The participants must be deleted first. */
+    public void delete() throws IOException {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        try {
+            admin.getClient(SchedulesV2Api.class).deleteSchedule(schedule.getGuid()).execute();
+        } catch(BridgeSDKException e) {
+            LOG.warn("Could not delete schedule “{}”: {}", schedule.getGuid(), e.getMessage());
+        }
+        try {
+            admin.getClient(AssessmentsApi.class).deleteAssessment(assessment.getGuid(), true).execute();
+        } catch(BridgeSDKException e) {
+            LOG.warn("Could not delete assessment “{}”: {}", assessment.getGuid(), e.getMessage());
+        }
+    }
+
+    public static class Builder {
+        private final StudyFixture studyFixture;
+        private int sessions = 1;
+        private int timeWindows = 1;
+        private int assessments = 1;
+        private String duration = "P1W";
+        private String interval = "P1D";
+
+        public Builder(StudyFixture studyFixture) {
+            this.studyFixture = studyFixture;
+        }
+
+        /** The number of sessions in the schedule (1 by default). */
+        public Builder withSessions(int sessions) {
+            this.sessions = sessions;
+            return this;
+        }
+
+        /** The number of time windows in each session (1 by default, at most 24). */
+        public Builder withTimeWindows(int timeWindows) {
+            this.timeWindows = timeWindows;
+            return this;
+        }
+
+        /** The number of times each session lists the assessment (1 by default). */
+        public Builder withAssessments(int assessments) {
+            this.assessments = assessments;
+            return this;
+        }
+
+        /** The ISO 8601 duration of the schedule ("P1W" by default). */
+        public Builder withDuration(String duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /** How often each session repeats ("P1D" by default), or null for sessions that happen once. */
+        public Builder withInterval(String interval) {
+            this.interval = interval;
+            return this;
+        }
+
+        public ScheduleFixture build() throws IOException {
+            TestUser developer = TestUserPool.get().lease(DEVELOPER);
+            try {
+                String studyId = studyFixture.getStudyId1();
+                Assessment assessment = new Assessment()
+                        .identifier(Tests.randomIdentifier(ScheduleFixture.class))
+                        .osName("Universal")
+                        .ownerId(developer.getSession().getOrgMembership())
+                        .title("ScheduleFixture assessment");
+                assessment = developer.getClient(AssessmentsApi.class).createAssessment(assessment).execute().body();
+                AssessmentReference2 ref = new AssessmentReference2().appId(TEST_APP_ID)
+                        .identifier(assessment.getIdentifier()).guid(assessment.getGuid());
+
+                Schedule2 schedule = new Schedule2().name("ScheduleFixture schedule").duration(duration);
+                for (int i = 0; i < sessions; i++) {
+                    Session session = new Session().name("Session #" + (i + 1))
+                            .addStartEventIdsItem(FAKE_ENROLLMENT).interval(interval).performanceOrder(SEQUENTIAL);
+                    for (int j = 0; j < assessments; j++) {
+                        session.addAssessmentsItem(ref);
+                    }
+                    for (int j = 0; j < timeWindows; j++) {
+                        session.addTimeWindowsItem(new TimeWindow()
+                                .startTime(String.format("%02d:00", j * 24 / timeWindows)).expiration("PT1H"));
+                    }
+                    schedule.addSessionsItem(session);
+                }
+                schedule = developer.getClient(ForDevelopersApi.class).saveScheduleForStudy(studyId, schedule)
+                        .execute().body();
+
+                DateTime eventTimestamp = DateTime.now(DateTimeZone.UTC).withTimeAtStartOfDay();
+                return new ScheduleFixture(studyFixture, assessment, schedule, eventTimestamp);
+            } finally {
+                TestUserPool.get().release(developer);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the calls that create (or delete) a benchmark's data on a pool of threads, for benchmarks that need more data
+ * than can be created one call at a time. If a call fails, the calls that haven't started are dropped and the
+ * failure is rethrown; anything already created is left for the benchmark's own clean-up to delete.
+ */
+class Seeder {
+    private static final Logger LOG = LoggerFactory.getLogger(Seeder.class);
+
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /** A call to make for each of the numbers 0 to count - 1. */
+    interface Task {
+        void run(int n) throws Exception;
+    }
+
+    /** Run the task for each number on the given number of threads, logging progress as the noun (e.g. "accounts"). */
+    static void seed(String noun, int count, int threads, Task task) throws Exception {
+        long start = System.nanoTime();
+        AtomicInteger created = new AtomicInteger();
+        forEach(count, threads, n -> {
+            task.run(n);
+            if (created.incrementAndGet() % PROGRESS_INTERVAL == 0) {
+                LOG.info("  Created {} {}", created.get(), noun);
+            }
+        });
+        long millis = elapsedMillis(start);
+        LOG.info("Created {} {} in {} ms ({} per second, {} threads)", created.get(), noun, millis,
+                format("%.1f", created.get() * 1000.0 / Math.max(1, millis)), threads);
+    }
+
+    /** Run the task for each number on the given number of threads, and wait for all of them to finish. */
+    static void forEach(int count, int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    task.run(n);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            // Once a call has failed, don't start the rest.
+            executor.shutdownNow();
+        }
+    }
+}
@@ -26,17 +26,17 @@ public class SelfAppTest {
     public void before() throws Exception {
         admin = TestUserHelper.getSignedInAdmin();
         appAdmin = TestUserHelper.createAndSignInUser(SelfAppTest.class, false, ADMIN);
-        researcher = TestUserHelper.createAndSignInUser(SelfAppTest.class, false, RESEARCHER);
-        developer= TestUserHelper.createAndSignInUser(SelfAppTest.class, false, DEVELOPER);
+        researcher = TestUserPool.get().lease(RESEARCHER);
+        developer = TestUserPool.get().lease(DEVELOPER);
     }
     
     @After
     public void after() throws Exception {
         if (researcher != null) {
-            researcher.signOutAndDeleteUser();
+            TestUserPool.get().release(researcher);
         }
         if (developer != null) {
-            developer.signOutAndDeleteUser();
+            TestUserPool.get().release(developer);
         }
         if (appAdmin != null) {
             appAdmin.signOutAndDeleteUser();
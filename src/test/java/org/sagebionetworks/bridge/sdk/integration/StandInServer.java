@@ -0,0 +1,380 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local stand-in for BridgeServer2, so that the harness itself (pooling, parallelism, polling) can be developed
+ * and benchmarked without a network. It listens on a free port (or <code>-Dbridge.standIn.port</code>) and
+ * publishes its URL as the <code>bridge.standIn.url</code> system property. The SDK clients of the "local"
+ * environment call port 9000, so run the suite with that port to send them through the stand-in. It works in one
+ * of two modes:
+ *
+ * <ul>
+ *   <li><b>record</b> (<code>-Dbridge.standIn=record -Dbridge.standIn.upstream=https://...</code>) forwards every
+ *   request to the upstream server, and appends each request and response to the recording;</li>
+ *   <li><b>replay</b> (<code>-Dbridge.standIn=replay</code>) answers every request from the recording, without
+ *   contacting any server.</li>
+ * </ul>
+ *
+ * Recordings are kept in src/test/resources/stand-in/&lt;name&gt;.jsonl, one exchange per line
+ * (<code>-Dbridge.standIn.recording=name</code>, "recording" by default). A request is answered with the first
+ * exchange that hasn't been used yet and has the same method, path, query and body (JSON bodies are compared with
+ * their keys sorted). Tests generate random identifiers, so if there is no exact match, the first unused exchange
+ * with the same method and path is used, and failing that, the first with the same method and route. The route is
+ * the path with every segment that could be an identifier (anything but letters, or a version like "v3") replaced
+ * by a wildcard. A request that matches none of these is answered with a 501 rather than some other endpoint's
+ * response. Responses are recorded without compression, and their bodies are kept as base64, byte for byte.
+ * Replay is only faithful for tests that make their calls in a deterministic order, and only covers calls to
+ * Bridge: uploads to S3 and calls to Synapse still need a network.
+ */
+public class StandInServer {
+    private static final Logger LOG = LoggerFactory.getLogger(StandInServer.class);
+
+    static final String MODE_PROPERTY = "bridge.standIn";
+    static final String UPSTREAM_PROPERTY = "bridge.standIn.upstream";
+    static final String RECORDING_PROPERTY = "bridge.standIn.recording";
+    static final String PORT_PROPERTY = "bridge.standIn.port";
+    static final String URL_PROPERTY = "bridge.standIn.url";
+    private static final String RECORDING_DIR = "src/test/resources/stand-in/";
+    private static final int THREADS = 16;
+    private static final int NO_RECORDED_RESPONSE = 501;
+    // Hop-by-hop headers, and the encoding headers, since responses are recorded uncompressed.
+    private static final Set<String> SKIPPED_HEADERS = ImmutableSet.of("accept-encoding", "connection",
+            "content-encoding", "content-length", "date", "host", "keep-alive", "transfer-encoding", "upgrade");
+    private static final Pattern STATIC_SEGMENT = Pattern.compile("[A-Za-z]*|v[0-9]+");
+    private static final ObjectMapper SORTED_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static StandInServer instance;
+
+    private final boolean recording;
+    private final String upstream;
+    private final File file;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final List<Exchange> exchanges = new ArrayList<>();
+    private CloseableHttpClient httpClient;
+    private PrintWriter writer;
+
+    /** Start the stand-in server if the system properties ask for one. Safe to call more than once. */
+    public static synchronized void startIfConfigured() throws IOException {
+        String mode = System.getProperty(MODE_PROPERTY);
+        if (instance != null || mode == null || mode.isEmpty()) {
+            return;
+        }
+        File file = new File(RECORDING_DIR + System.getProperty(RECORDING_PROPERTY, "recording") + ".jsonl");
+        int port = Integer.getInteger(PORT_PROPERTY, 0);
+        if ("record".equalsIgnoreCase(mode)) {
+            String upstream = System.getProperty(UPSTREAM_PROPERTY);
+            if (upstream == null) {
+                throw new IllegalStateException(UPSTREAM_PROPERTY + " is required to record");
+            }
+            instance = new StandInServer(true, upstream.replaceAll("/$", ""), file, port);
+        } else if ("replay".equalsIgnoreCase(mode)) {
+            instance = new StandInServer(false, null, file, port);
+        } else {
+            throw new IllegalStateException("Unknown " + MODE_PROPERTY + " mode: " + mode);
+        }
+        instance.start();
+    }
+
+    /** The URL the stand-in server listens on, or null if there is none. */
+    public static synchronized String getUrl() {
+        return (instance == null) ? null : "http://localhost:" + instance.server.getAddress().getPort();
+    }
+
+    /** Stop the stand-in server, if there is one, and finish writing the recording. */
+    public static synchronized void stopIfStarted() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    private StandInServer(boolean recording, String upstream, File file, int port) throws IOException {
+        this.recording = recording;
+        this.upstream = upstream;
+        this.file = file;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    }
+
+    private void start() throws IOException {
+        if (recording) {
+            if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+                throw new IOException("Could not create " + file.getParentFile());
+            }
+            // The client asks for compression and decompresses the response, and the encoding headers are
+            // dropped, so the recording holds the body as the test would read it.
+            httpClient = HttpClients.custom().disableRedirectHandling().build();
+            writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8));
+        } else {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    exchanges.add(new Exchange((ObjectNode) SORTED_MAPPER.readTree(line)));
+                }
+            }
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort();
+        System.setProperty(URL_PROPERTY, url);
+        LOG.info("Stand-in server {} {} at {}", recording ? "recording" : "replaying", file, url);
+    }
+
+    private void stop() {
+        server.stop(0);
+        // The server doesn't shut down an executor it was given, and its threads would outlive the run.
+        executor.shutdownNow();
+        System.clearProperty(URL_PROPERTY);
+        if (recording) {
+            writer.close();
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close HTTP client: {}", e.getMessage());
+            }
+        } else {
+            long unused = exchanges.stream().filter(exchange -> !exchange.used).count();
+            LOG.info("Stand-in server replayed {} of {} recorded exchanges", exchanges.size() - unused,
+                    exchanges.size());
+        }
+    }
+
+    private void handle(HttpExchange http) throws IOException {
+        try {
+            String method = http.getRequestMethod().toUpperCase(Locale.ENGLISH);
+            String path = http.getRequestURI().getRawPath();
+            String query = http.getRequestURI().getRawQuery();
+            byte[] body = readAll(http.getRequestBody());
+            String normalizedBody = normalize(new String(body, StandardCharsets.UTF_8));
+
+            Exchange exchange = recording ? forward(http, method, path, query, body, normalizedBody) :
+                    find(method, path, query, normalizedBody);
+            if (exchange == null) {
+                LOG.warn("Stand-in server has no recorded response for {} {}", method, path);
+                respond(http, NO_RECORDED_RESPONSE, new LinkedHashMap<>(), json("No recorded response for "
+                        + method + " " + path, NO_RECORDED_RESPONSE));
+                return;
+            }
+            respond(http, exchange.status, exchange.headers, exchange.responseBody);
+        } catch (Exception e) {
+            LOG.error("Stand-in server failed to handle request", e);
+            respond(http, 502, new LinkedHashMap<>(), json(String.valueOf(e.getMessage()), 502));
+        }
+    }
+
+    private Exchange forward(HttpExchange http, String method, String path, String query, byte[] body,
+            String normalizedBody) throws IOException {
+        RequestBuilder builder = RequestBuilder.create(method)
+                .setUri(upstream + path + (query == null ? "" : "?" + query));
+        for (Map.Entry<String, List<String>> entry : http.getRequestHeaders().entrySet()) {
+            if (!SKIPPED_HEADERS.contains(entry.getKey().toLowerCase(Locale.ENGLISH))) {
+                for (String value : entry.getValue()) {
+                    builder.addHeader(entry.getKey(), value);
+                }
+            }
+        }
+        if (body.length > 0) {
+            builder.setEntity(new ByteArrayEntity(body));
+        }
+        HttpResponse response = httpClient.execute(builder.build());
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : response.getAllHeaders()) {
+            if (!SKIPPED_HEADERS.contains(header.getName().toLowerCase(Locale.ENGLISH))) {
+                headers.put(header.getName(), header.getValue());
+            }
+        }
+        byte[] responseBody = (response.getEntity() == null) ? new byte[0] :
+                EntityUtils.toByteArray(response.getEntity());
+        Exchange exchange = new Exchange(method, path, query, normalizedBody,
+                response.getStatusLine().getStatusCode(), headers, responseBody);
+        synchronized (this) {
+            writer.println(SORTED_MAPPER.writeValueAsString(exchange.toJson()));
+            writer.flush();
+        }
+        return exchange;
+    }
+
+    private synchronized Exchange find(String method, String path, String query, String body) {
+        Exchange samePath = null;
+        Exchange sameRoute = null;
+        String route = route(path);
+        for (Exchange exchange : exchanges) {
+            if (exchange.used || !exchange.method.equals(method)) {
+                continue;
+            }
+            if (exchange.path.equals(path)) {
+                if (equal(exchange.query, query) && exchange.body.equals(body)) {
+                    return use(exchange);
+                } else if (samePath == null) {
+                    samePath = exchange;
+                }
+            } else if (sameRoute == null && exchange.route.equals(route)) {
+                sameRoute = exchange;
+            }
+        }
+        return (samePath != null) ? use(samePath) : (sameRoute != null) ? use(sameRoute) : null;
+    }
+
+    /** The path with every segment that could be an identifier replaced by "*". */
+    static String route(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/", -1)) {
+            segments.add(STATIC_SEGMENT.matcher(segment).matches() ? segment : "*");
+        }
+        return String.join("/", segments);
+    }
+
+    private static Exchange use(Exchange exchange) {
+        exchange.used = true;
+        return exchange;
+    }
+
+    private static boolean equal(String a, String b) {
+        return (a == null) ? (b == null) : a.equals(b);
+    }
+
+    /** JSON bodies with their keys sorted, so that field order doesn't prevent a match. Others are trimmed. */
+    static String normalize(String body) {
+        String trimmed = body.trim();
+        if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+            try {
+                JsonNode node = SORTED_MAPPER.readTree(trimmed);
+                return SORTED_MAPPER.writeValueAsString(SORTED_MAPPER.treeToValue(node, Object.class));
+            } catch (IOException e) {
+                // Not JSON after all.
+            }
+        }
+        return trimmed;
+    }
+
+    private static byte[] json(String message, int status) throws IOException {
+        ObjectNode node = SORTED_MAPPER.createObjectNode();
+        node.put("message", message);
+        node.put("statusCode", status);
+        return SORTED_MAPPER.writeValueAsBytes(node);
+    }
+
+    private static void respond(HttpExchange http, int status, Map<String, String> headers, byte[] body)
+            throws IOException {
+        Headers responseHeaders = http.getResponseHeaders();
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            responseHeaders.set(entry.getKey(), entry.getValue());
+        }
+        if (!responseHeaders.containsKey("Content-Type") && body.length > 0) {
+            responseHeaders.set("Content-Type", "application/json; charset=UTF-8");
+        }
+        // 204 and 304 responses must not have a body.
+        boolean noBody = (status == 204 || status == 304 || body.length == 0);
+        http.sendResponseHeaders(status, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream out = http.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        http.close();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static class Exchange {
+        private final String method;
+        private final String path;
+        private final String route;
+        private final String query;
+        private final String body;
+        private final int status;
+        private final Map<String, String> headers;
+        private final byte[] responseBody;
+        private boolean used;
+
+        Exchange(String method, String path, String query, String body, int status, Map<String, String> headers,
+                byte[] responseBody) {
+            this.method = method;
+            this.path = path;
+            this.route = route(path);
+            this.query = query;
+            this.body = body;
+            this.status = status;
+            this.headers = headers;
+            this.responseBody = responseBody;
+        }
+
+        Exchange(ObjectNode node) {
+            this.method = node.get("method").textValue();
+            this.path = node.get("path").textValue();
+            this.route = route(path);
+            this.query = node.hasNonNull("query") ? node.get("query").textValue() : null;
+            this.body = node.get("body").textValue();
+            this.status = node.get("status").intValue();
+            this.headers = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.get("headers").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                headers.put(field.getKey(), field.getValue().textValue());
+            }
+            this.responseBody = Base64.decodeBase64(node.get("responseBody").textValue());
+        }
+
+        ObjectNode toJson() {
+            ObjectNode node = SORTED_MAPPER.createObjectNode();
+            node.put("method", method);
+            node.put("path", path);
+            node.put("query", query);
+            node.put("body", body);
+            node.put("status", status);
+            ObjectNode headersNode = node.putObject("headers");
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                headersNode.put(entry.getKey(), entry.getValue());
+            }
+            node.put("responseBody", Base64.encodeBase64String(responseBody));
+            return node;
+        }
+    }
+}
@@ -4,7 +4,6 @@ import static org.junit.Assert.*;
 import static org.sagebionetworks.bridge.rest.model.ParticipantStudyProgress.DONE;
 import static org.sagebionetworks.bridge.rest.model.ParticipantStudyProgress.IN_PROGRESS;
 import static org.sagebionetworks.bridge.rest.model.ParticipantStudyProgress.UNSTARTED;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_ID;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
@@ -13,8 +12,11 @@ import java.io.IOException;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.joda.time.DateTime;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.sagebionetworks.bridge.rest.api.AssessmentsApi;
 import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
 import org.sagebionetworks.bridge.rest.api.ForStudyCoordinatorsApi;
@@ -46,6 +48,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 
 import com.google.common.collect.ImmutableList;
 
+@Category(ForkSafeTest.class)
 public class StudyAdherenceReportTest {
     
     private static final String TIME_ZONE = "America/Chicago";
@@ -61,10 +64,28 @@ public class StudyAdherenceReportTest {
     SchedulesV2Api scheduleApi;
     ForStudyCoordinatorsApi coordApi;
     
+    // This test replaces the study's schedule, so it uses its own study.
+    private static StudyFixture fixture;
+    private static String studyId;
+    
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        fixture = StudyFixture.create(StudyAdherenceReportTest.class);
+        studyId = fixture.getStudyId1();
+    }
+    
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (fixture != null) {
+            fixture.delete();
+        }
+    }
+    
     @Before
     public void before() throws Exception {
         studyDesigner = TestUserHelper.createAndSignInUser(getClass(), false, Role.STUDY_DESIGNER);
         user = TestUserHelper.createAndSignInUser(getClass(), true);
+        fixture.enroll(studyId, user);
         
         AssessmentsApi asmtsApi = studyDesigner.getClient(AssessmentsApi.class);
         String asmtATag = RandomStringUtils.randomAlphabetic(5);
@@ -161,47 +182,47 @@ public class StudyAdherenceReportTest {
     @Test
     public void test() throws Exception {
         try {
-            Schedule2 existing = scheduleApi.getScheduleForStudy(STUDY_ID_1).execute().body();
+            Schedule2 existing = scheduleApi.getScheduleForStudy(studyId).execute().body();
             schedule.setGuid(existing.getGuid());
             schedule.setVersion(existing.getVersion());
         } catch(EntityNotFoundException e) {
         }
         
-        schedule = scheduleApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = scheduleApi.saveScheduleForStudy(studyId, schedule).execute().body();
         
         StudyAdherenceReport report = coordApi.getStudyParticipantAdherenceReport(
-                STUDY_ID_1, user.getUserId()).execute().body();
+                studyId, user.getUserId()).execute().body();
         assertEquals(UNSTARTED, report.getProgression());
         assertNull(report.getAdherencePercent());
         
         ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
         
         // generate timeline_retrieved event
-        userApi.getParticipantScheduleForSelf(STUDY_ID_1, TIME_ZONE).execute();
+        userApi.getParticipantScheduleForSelf(studyId, TIME_ZONE).execute();
         
-        report = coordApi.getStudyParticipantAdherenceReport(STUDY_ID_1, user.getUserId()).execute().body();
+        report = coordApi.getStudyParticipantAdherenceReport(studyId, user.getUserId()).execute().body();
         assertEquals(IN_PROGRESS, report.getProgression());
         assertEquals(Integer.valueOf(100), report.getAdherencePercent());
         
         ParticipantSchedule participantSchedule = userApi.getParticipantScheduleForSelf(
-                STUDY_ID_1, TIME_ZONE).execute().body();
+                studyId, TIME_ZONE).execute().body();
         completeAssessments(userApi, participantSchedule);
 
         // The supplemental survey has not been done. If we add it, adherence goes down.
         StudyActivityEventRequest request = new StudyActivityEventRequest()
                 .eventId("custom:event1").timestamp(DateTime.now());
-        userApi.createStudyActivityEvent(STUDY_ID_1, request, true, false).execute();
+        userApi.createStudyActivityEvent(studyId, request, true, false).execute();
         
-        report = coordApi.getStudyParticipantAdherenceReport(STUDY_ID_1, user.getUserId()).execute().body();
+        report = coordApi.getStudyParticipantAdherenceReport(studyId, user.getUserId()).execute().body();
         assertEquals(IN_PROGRESS, report.getProgression());
         assertEquals(Integer.valueOf(85), report.getAdherencePercent());
         
         // do those activities
         participantSchedule = userApi.getParticipantScheduleForSelf(
-                STUDY_ID_1, TIME_ZONE).execute().body();
+                studyId, TIME_ZONE).execute().body();
         completeAssessments(userApi, participantSchedule);
         
-        report = coordApi.getStudyParticipantAdherenceReport(STUDY_ID_1, user.getUserId()).execute().body();
+        report = coordApi.getStudyParticipantAdherenceReport(studyId, user.getUserId()).execute().body();
         assertEquals(DONE, report.getProgression());
         assertEquals(Integer.valueOf(100), report.getAdherencePercent());
     }
@@ -223,7 +244,7 @@ public class StudyAdherenceReportTest {
             }
         }
         if (!updates.getRecords().isEmpty()) {
-            userApi.updateAdherenceRecords(Tests.STUDY_ID_1, updates).execute().body();    
+            userApi.updateAdherenceRecords(studyId, updates).execute().body();    
         }
     }
     
@@ -7,7 +7,6 @@ import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.IMMU
 import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.MUTABLE;
 import static org.sagebionetworks.bridge.rest.model.PerformanceOrder.SEQUENTIAL;
 import static org.sagebionetworks.bridge.rest.model.Role.STUDY_DESIGNER;
-import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_ID;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
@@ -15,13 +14,15 @@ import java.util.Set;
 
 import org.joda.time.DateTime;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
 import org.sagebionetworks.bridge.rest.api.ForStudyDesignersApi;
 import org.sagebionetworks.bridge.rest.api.SchedulesV2Api;
 import org.sagebionetworks.bridge.rest.exceptions.BadRequestException;
-import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
 import org.sagebionetworks.bridge.rest.exceptions.InvalidEntityException;
 import org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType;
 import org.sagebionetworks.bridge.rest.model.Assessment;
@@ -45,9 +46,10 @@ import com.google.common.collect.ImmutableList;
 /**
  * Test the whole thing round trip.
  */
+@Category(ForkSafeTest.class)
 public class StudyBurstTest {
     
-    // These are established in the initializer for study 1.
+    // These are established by StudyFixture for the first study.
     private static final String MUTABLE_EVENT = "custom:event1";
     private static final String IMMUTABLE_EVENT = "custom:event2";
     
@@ -59,9 +61,27 @@ public class StudyBurstTest {
     private SchedulesV2Api designerSchedulesApi;
     private ForConsentedUsersApi usersApi;
     
+    // This test replaces the study's schedule, so it uses its own study.
+    private static StudyFixture fixture;
+    private static String studyId;
+    
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        fixture = StudyFixture.create(StudyBurstTest.class);
+        studyId = fixture.getStudyId1();
+    }
+    
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (fixture != null) {
+            fixture.delete();
+        }
+    }
+    
     @Before
     public void before() throws Exception { 
         user = TestUserHelper.createAndSignInUser(StudyBurstTest.class, true);
+        fixture.enroll(studyId, user);
         studyDesigner = TestUserHelper.createAndSignInUser(StudyBurstTest.class, false, STUDY_DESIGNER);
         
         usersApi = user.getClient(ForConsentedUsersApi.class);
@@ -94,15 +114,6 @@ public class StudyBurstTest {
     
     private void setupSchedule(String originEventId, ActivityEventUpdateType burstUpdateType, String delayPeriod)
             throws Exception {
-        // clean up any schedule that is there
-        try {
-            TestUser admin = TestUserHelper.getSignedInAdmin();
-            schedule = admin.getClient(SchedulesV2Api.class).getScheduleForStudy(STUDY_ID_1).execute().body();
-            admin.getClient(SchedulesV2Api.class).deleteSchedule(schedule.getGuid()).execute();
-        } catch(EntityNotFoundException e) {
-            
-        }
-
         designerSchedulesApi = studyDesigner.getClient(SchedulesV2Api.class);
         schedule = new Schedule2();
         schedule.setName("Test Schedule [StudyBurstTest]");
@@ -136,7 +147,7 @@ public class StudyBurstTest {
         session.addTimeWindowsItem(new TimeWindow().startTime("08:00").expiration("PT3H"));
         schedule.addSessionsItem(session);
 
-        schedule = designerSchedulesApi.saveScheduleForStudy(STUDY_ID_1, schedule).execute().body();
+        schedule = designerSchedulesApi.saveScheduleForStudy(studyId, schedule).execute().body();
     }
     
     @Test
@@ -147,7 +158,7 @@ public class StudyBurstTest {
         DateTime timestamp1 = DateTime.now(UTC);
         createOrUpdateEvent(MUTABLE_EVENT, timestamp1, null);
 
-        StudyActivityEventList list = usersApi.getStudyActivityEvents(STUDY_ID_1).execute().body();
+        StudyActivityEventList list = usersApi.getStudyActivityEvents(studyId).execute().body();
 
         StudyActivityEvent originEvent = findEventById(list, "custom:event1");
         assertNull(originEvent.getAnswerValue());
@@ -329,7 +340,7 @@ public class StudyBurstTest {
         // delete the origin event, the study burst events are also deleted
         assertEventTimestampDelete(MUTABLE_EVENT, true);
         
-        Set<String> eventIds = usersApi.getStudyActivityEvents(STUDY_ID_1).execute().body()
+        Set<String> eventIds = usersApi.getStudyActivityEvents(studyId).execute().body()
                 .getItems().stream().map(StudyActivityEvent::getEventId).collect(toSet());
         assertFalse(eventIds.contains("study_burst:burst1:01"));
         assertFalse(eventIds.contains("study_burst:burst1:02"));
@@ -343,7 +354,7 @@ public class StudyBurstTest {
         
         designerSchedulesApi = studyDesigner.getClient(SchedulesV2Api.class);
         
-        Timeline timeline = designerSchedulesApi.getTimelineForStudy(STUDY_ID_1).execute().body();
+        Timeline timeline = designerSchedulesApi.getTimelineForStudy(studyId).execute().body();
         
         ScheduledSession schSession = timeline.getSchedule().get(1);
         assertEquals("burst1", schSession.getStudyBurstId());
@@ -373,14 +384,14 @@ public class StudyBurstTest {
     private void createOrUpdateEvent(String eventId, DateTime timestamp, Boolean updateBursts) throws Exception {
         StudyActivityEventRequest request = new StudyActivityEventRequest()
                 .clientTimeZone("America/Los_Angeles").eventId(eventId).timestamp(timestamp);
-        usersApi.createStudyActivityEvent(STUDY_ID_1, request, true, updateBursts).execute();
+        usersApi.createStudyActivityEvent(studyId, request, true, updateBursts).execute();
     }
     
     private void failToCreateOrUpdateEvent(String eventId, DateTime timestamp) throws Exception {
         StudyActivityEventRequest request = new StudyActivityEventRequest()
                 .eventId(eventId).timestamp(timestamp);
         try {
-            usersApi.createStudyActivityEvent(STUDY_ID_1, request, true, null).execute();
+            usersApi.createStudyActivityEvent(studyId, request, true, null).execute();
             fail("Should have thrown exception");
         } catch(BadRequestException e) {
             // this was expected.
@@ -388,7 +399,7 @@ public class StudyBurstTest {
     }
     
     private void verifyTimestampsStartFrom(String eventId, DateTime eventTimestamp, DateTime timestamp) throws Exception {
-        StudyActivityEventList events = usersApi.getStudyActivityEvents(STUDY_ID_1).execute().body();
+        StudyActivityEventList events = usersApi.getStudyActivityEvents(studyId).execute().body();
         
         StudyActivityEvent event = findEventById(events, eventId);
         StudyActivityEvent burst1 = findEventById(events, "study_burst:burst1:01");
@@ -404,20 +415,20 @@ public class StudyBurstTest {
     }
     
     private void assertEventTimestamp(String eventId, DateTime timestamp) throws Exception {
-        StudyActivityEventList events = usersApi.getStudyActivityEvents(STUDY_ID_1).execute().body();
+        StudyActivityEventList events = usersApi.getStudyActivityEvents(studyId).execute().body();
         StudyActivityEvent event = findEventById(events, eventId);
         assertEquals(timestamp, event.getTimestamp());
     }
     
     private void assertEventTimestampDelete(String eventId, boolean shouldBeDeleted) throws Exception {
         if (shouldBeDeleted) {
-            usersApi.deleteStudyActivityEvent(STUDY_ID_1, eventId, false).execute();
-            StudyActivityEventList events = usersApi.getStudyActivityEvents(STUDY_ID_1).execute().body();
+            usersApi.deleteStudyActivityEvent(studyId, eventId, false).execute();
+            StudyActivityEventList events = usersApi.getStudyActivityEvents(studyId).execute().body();
             StudyActivityEvent event = findEventById(events, eventId);
             assertNull(event);   
         } else {
             try {
-                usersApi.deleteStudyActivityEvent(STUDY_ID_1, eventId, true).execute();
+                usersApi.deleteStudyActivityEvent(studyId, eventId, true).execute();
                 fail("Should have thrown exception");
             } catch(BadRequestException e) {
             }
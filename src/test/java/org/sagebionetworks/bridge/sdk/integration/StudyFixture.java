@@ -0,0 +1,209 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.FUTURE_ONLY;
+import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.IMMUTABLE;
+import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.MUTABLE;
+import static org.sagebionetworks.bridge.sdk.integration.InitListener.CLINIC_VISIT;
+import static org.sagebionetworks.bridge.sdk.integration.InitListener.EVENT_KEY1;
+import static org.sagebionetworks.bridge.sdk.integration.InitListener.EVENT_KEY2;
+import static org.sagebionetworks.bridge.sdk.integration.InitListener.EVENT_KEY3;
+import static org.sagebionetworks.bridge.sdk.integration.InitListener.FAKE_ENROLLMENT;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.ORG_ID_1;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.ORG_ID_2;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_2;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_ID;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_NAME;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.OrganizationsApi;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
+import org.sagebionetworks.bridge.rest.exceptions.ConstraintViolationException;
+import org.sagebionetworks.bridge.rest.exceptions.EntityAlreadyExistsException;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.CustomEvent;
+import org.sagebionetworks.bridge.rest.model.Enrollment;
+import org.sagebionetworks.bridge.rest.model.Organization;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * The study and organization graph our tests rely on: two studies, an organization that sponsors each
+ * study, and Sage Bionetworks sponsoring both. InitListener sets up the shared graph (study1, study2,
+ * org1, org2) once per run. Test classes that change the state of a study (e.g. by deleting its
+ * schedule) should create their own randomly-named graph with {@link #create(Class)} and delete it
+ * when they are done, so they don't disturb other classes that use the shared graph.
+ *
+ * Note that consenting to the default subpopulation only enrolls a participant in the shared study1,
+ * so participants must be enrolled in an isolated study with {@link #enroll(String, TestUser)}.
+ */
+public class StudyFixture {
+    private static final Logger LOG = LoggerFactory.getLogger(StudyFixture.class);
+
+    private final String studyId1;
+    private final String studyId2;
+    private final String orgId1;
+    private final String orgId2;
+    private final boolean isolated;
+
+    private StudyFixture(String studyId1, String studyId2, String orgId1, String orgId2, boolean isolated) {
+        this.studyId1 = studyId1;
+        this.studyId2 = studyId2;
+        this.orgId1 = orgId1;
+        this.orgId2 = orgId2;
+        this.isolated = isolated;
+    }
+
+    /** The graph shared by every class in the run. This is never deleted. */
+    public static StudyFixture shared() {
+        return new StudyFixture(STUDY_ID_1, STUDY_ID_2, ORG_ID_1, ORG_ID_2, false);
+    }
+
+    /** Create a new graph with random identifiers for the exclusive use of the given test class. */
+    public static StudyFixture create(Class<?> cls) throws IOException {
+        String prefix = Tests.randomIdentifier(cls);
+        StudyFixture fixture = new StudyFixture(prefix + "-study1", prefix + "-study2", prefix + "-org1",
+                prefix + "-org2", true);
+        try {
+            fixture.setUp();
+        } catch (IOException | RuntimeException e) {
+            // Nothing else knows these random names, so delete whatever was created before the failure.
+            try {
+                fixture.delete();
+            } catch (IOException | RuntimeException deleteException) {
+                e.addSuppressed(deleteException);
+            }
+            throw e;
+        }
+        return fixture;
+    }
+
+    public String getStudyId1() {
+        return studyId1;
+    }
+
+    public String getStudyId2() {
+        return studyId2;
+    }
+
+    public String getOrgId1() {
+        return orgId1;
+    }
+
+    public String getOrgId2() {
+        return orgId2;
+    }
+
+    /**
+     * Create any part of the graph that does not exist yet. This is safe to call repeatedly, and from
+     * more than one JVM at a time.
+     */
+    void setUp() throws IOException {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+
+        createStudy(studiesApi, studyId1);
+        Study study1 = studiesApi.getStudy(studyId1).execute().body();
+        List<CustomEvent> events = new ArrayList<>();
+        events.add(new CustomEvent().eventId(EVENT_KEY1).updateType(MUTABLE));
+        events.add(new CustomEvent().eventId(EVENT_KEY2).updateType(IMMUTABLE));
+        events.add(new CustomEvent().eventId(EVENT_KEY3).updateType(FUTURE_ONLY));
+        events.add(new CustomEvent().eventId(FAKE_ENROLLMENT).updateType(MUTABLE));
+        events.add(new CustomEvent().eventId(CLINIC_VISIT).updateType(MUTABLE));
+        study1.setCustomEvents(events);
+        studiesApi.updateStudy(study1.getIdentifier(), study1).execute();
+
+        createStudy(studiesApi, studyId2);
+
+        OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
+        createOrganization(orgsApi, orgId1, "Org 1 sponsors study 1 only");
+        createOrganization(orgsApi, orgId2, "Org 2 sponsors study 2 only");
+
+        addSponsorship(orgsApi, SAGE_ID, studyId1);
+        addSponsorship(orgsApi, SAGE_ID, studyId2);
+        addSponsorship(orgsApi, orgId1, studyId1);
+        addSponsorship(orgsApi, orgId2, studyId2);
+    }
+
+    /** Enroll a participant in one of this graph's studies, and refresh their session to reflect it. */
+    public void enroll(String studyId, TestUser user) throws IOException {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        admin.getClient(StudiesApi.class).enrollParticipant(studyId,
+                new Enrollment().userId(user.getUserId())).execute();
+        user.signInAgain();
+    }
+
+    /**
+     * Physically delete an isolated graph. Any accounts that were added to the organizations must be
+     * deleted first. This is a no-op for the shared graph.
+     */
+    public void delete() throws IOException {
+        if (!isolated) {
+            return;
+        }
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
+
+        for (String studyId : new String[] { studyId1, studyId2 }) {
+            try {
+                studiesApi.deleteStudy(studyId, true).execute();
+            } catch(EntityNotFoundException e) {
+            } catch(BridgeSDKException e) {
+                LOG.warn("Could not delete study “{}”: {}", studyId, e.getMessage());
+            }
+        }
+        for (String orgId : new String[] { orgId1, orgId2 }) {
+            try {
+                orgsApi.deleteOrganization(orgId).execute();
+            } catch(EntityNotFoundException e) {
+            } catch(BridgeSDKException e) {
+                LOG.warn("Could not delete organization “{}”: {}", orgId, e.getMessage());
+            }
+        }
+    }
+
+    private void createStudy(StudiesApi studiesApi, String studyId) throws IOException {
+        try {
+            studiesApi.getStudy(studyId).execute();
+        } catch(EntityNotFoundException e) {
+            try {
+                Study study = new Study().identifier(studyId).name(studyId);
+                studiesApi.createStudy(study).execute();
+                LOG.info("  Creating study “{}”", studyId);
+            } catch(EntityAlreadyExistsException e2) {
+                // Another fork created it first.
+            }
+        }
+    }
+
+    private void createOrganization(OrganizationsApi orgsApi, String orgId, String description) throws IOException {
+        try {
+            orgsApi.getOrganization(orgId).execute();
+        } catch(EntityNotFoundException e) {
+            try {
+                Organization org = new Organization().identifier(orgId).name(orgId).description(description);
+                orgsApi.createOrganization(org).execute();
+                LOG.info("  Creating organization “{}”", orgId);
+            } catch(EntityAlreadyExistsException e2) {
+                // Another fork created it first.
+            }
+        }
+    }
+
+    private void addSponsorship(OrganizationsApi orgsApi, String orgId, String studyId) throws IOException {
+        try {
+            orgsApi.addStudySponsorship(orgId, studyId).execute();
+            LOG.info("  “{}” sponsoring study “{}”", (SAGE_ID.equals(orgId) ? SAGE_NAME : orgId), studyId);
+        } catch(ConstraintViolationException e) {
+        }
+    }
+}
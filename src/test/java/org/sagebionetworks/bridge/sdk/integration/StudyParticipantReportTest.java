@@ -47,6 +47,8 @@ public class StudyParticipantReportTest {
 
     private String reportId;
     private TestUser user;
+    // Consented participants are leased; the others are created because they aren't consented or are in another study
+    private boolean pooledUser;
     private TestUser studyDesigner;
     private TestUser studyCoordinator;
     
@@ -64,7 +66,7 @@ public class StudyParticipantReportTest {
     @After
     public void after() throws Exception {
         if (studyCoordinator == null) {
-            studyCoordinator = createAndSignInUser(getClass(), false, STUDY_COORDINATOR);
+            studyCoordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
             coordApi = studyCoordinator.getClient(ForStudyCoordinatorsApi.class);
         }
         try {
@@ -75,14 +77,17 @@ public class StudyParticipantReportTest {
             coordApi.deleteStudyParticipantReportIndex(STUDY_ID_1, reportId).execute().body();    
         } catch(EntityNotFoundException e) {
         }
-        if (user != null) {
+        // The participant's reports are deleted above, so a leased participant can be released
+        if (user != null && pooledUser) {
+            TestUserPool.get().release(user);
+        } else if (user != null) {
             user.signOutAndDeleteUser();
         }
         if (studyDesigner != null) {
-            studyDesigner.signOutAndDeleteUser();
+            TestUserPool.get().release(studyDesigner);
         }
         if (studyCoordinator != null) {
-            studyCoordinator.signOutAndDeleteUser();
+            TestUserPool.get().release(studyCoordinator);
         }
         if (studyId != null) {
             TestUser admin = TestUserHelper.getSignedInAdmin();
@@ -92,7 +97,8 @@ public class StudyParticipantReportTest {
     
     @Test
     public void userCanWorkWithReports() throws Exception {
-        user = createAndSignInUser(getClass(), true);
+        user = TestUserPool.get().leaseParticipant();
+        pooledUser = true;
         userApi = user.getClient(ForConsentedUsersApi.class);
         
         userApi.saveUsersStudyParticipantReportRecord(STUDY_ID_1, reportId, DATA_1).execute();
@@ -114,8 +120,9 @@ public class StudyParticipantReportTest {
 
     @Test
     public void studyCoordinatorCanWorkWithProductionReports() throws Exception {
-        user = createAndSignInUser(getClass(), true);
-        studyCoordinator = createAndSignInUser(getClass(), false, STUDY_COORDINATOR);
+        user = TestUserPool.get().leaseParticipant();
+        pooledUser = true;
+        studyCoordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
         coordApi = studyCoordinator.getClient(ForStudyCoordinatorsApi.class);
         
         coordApi.saveStudyParticipantReportRecord(STUDY_ID_1, user.getUserId(), reportId, DATA_1).execute();
@@ -153,7 +160,7 @@ public class StudyParticipantReportTest {
         user = createAndSignInUser(getClass(), false);
         studiesApi.enrollParticipant(studyId, new Enrollment().userId(user.getUserId())).execute();
         
-        studyDesigner = createAndSignInUser(getClass(), false, STUDY_DESIGNER);
+        studyDesigner = TestUserPool.get().lease(STUDY_DESIGNER);
         designerApi = studyDesigner.getClient(ForStudyDesignersApi.class);
         
         try {
@@ -183,7 +190,7 @@ public class StudyParticipantReportTest {
     public void studyCoordinatorCanWorkWithTestReports() throws Exception {
         user = new TestUserHelper.Builder(getClass()).withTestDataGroup().withConsentUser(true)
                 .createAndSignInUser();
-        studyDesigner = createAndSignInUser(getClass(), false, STUDY_DESIGNER);
+        studyDesigner = TestUserPool.get().lease(STUDY_DESIGNER);
         designerApi = studyDesigner.getClient(ForStudyDesignersApi.class);        
         
         designerApi.saveStudyParticipantReportRecord(STUDY_ID_1, user.getUserId(), reportId, DATA_1).execute();
@@ -207,8 +214,9 @@ public class StudyParticipantReportTest {
     
     @Test
     public void participantReportsAreDividedByStudy() throws Exception {
-        user = createAndSignInUser(getClass(), true);
-        studyCoordinator = createAndSignInUser(getClass(), false, STUDY_COORDINATOR);
+        user = TestUserPool.get().leaseParticipant();
+        pooledUser = true;
+        studyCoordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
         coordApi = studyCoordinator.getClient(ForStudyCoordinatorsApi.class);
         
         coordApi.saveStudyParticipantReportRecord(STUDY_ID_1, user.getUserId(), reportId, DATA_1).execute();
@@ -216,7 +224,7 @@ public class StudyParticipantReportTest {
         
         // This account cannot see these reports
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        studyDesigner = createAndSignInUser(getClass(), false, STUDY_COORDINATOR);
+        studyDesigner = TestUserPool.get().lease(STUDY_COORDINATOR);
         admin.getClient(OrganizationsApi.class).removeMember(SAGE_ID, studyDesigner.getUserId()).execute();
         admin.getClient(OrganizationsApi.class).addMember(ORG_ID_2, studyDesigner.getUserId()).execute();
         designerApi = studyDesigner.getClient(ForStudyDesignersApi.class);       
@@ -0,0 +1,272 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Measures how long survey writes take to become visible to the reads that SurveyTest has to wrap in
+ * {@link Tests#retryHelper}. Each cycle creates a survey, publishes it, versions it, and publishes the new version.
+ * After each write returns, every read API that should reflect it is polled (each on its own thread, every 100 ms)
+ * until it does, and the lag is the time from the write's response to the first read that saw the new state:
+ * <ul>
+ *     <li>create: getSurvey;</li>
+ *     <li>publish and publishVersion: getSurvey (isPublished), getPublishedSurveyVersion (as a participant, which
+ *     must return the version just published) and getPublishedSurveys;</li>
+ *     <li>version: getSurvey and getAllVersionsOfSurvey.</li>
+ * </ul>
+ * The cycles are run with the server idle, and again while background threads read surveys as fast as they can.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class SurveyPropagationBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(SurveyPropagationBenchmark.class);
+
+    static final String CYCLES_PROPERTY = "bridge.surveyPropagation.cycles";
+    static final String LOAD_THREADS_PROPERTY = "bridge.surveyPropagation.loadThreads";
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long DEADLINE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final List<GuidCreatedOnVersionHolder> surveysToDelete = new ArrayList<>();
+    private static final List<String> rows = new ArrayList<>();
+    private static TestUser developer;
+    private static TestUser participant;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserPool.get().lease(DEVELOPER);
+        participant = TestUserPool.get().leaseParticipant();
+    }
+
+    @SuppressWarnings("deprecation")
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("survey-propagation",
+                "condition,write,read,samples,staleFirstReads,timeouts,p50,p90,p99,max", rows);
+        SurveysApi adminSurveysApi = TestUserHelper.getSignedInAdmin().getClient(SurveysApi.class);
+        for (GuidCreatedOnVersionHolder key : surveysToDelete) {
+            try {
+                adminSurveysApi.deleteSurvey(key.getGuid(), key.getCreatedOn(), true).execute();
+            } catch (RuntimeException e) {
+                LOG.warn("Could not delete survey {} ({}): {}", key.getGuid(), key.getCreatedOn(), e.getMessage());
+            }
+        }
+        if (participant != null) {
+            TestUserPool.get().release(participant);
+        }
+        if (developer != null) {
+            TestUserPool.get().release(developer);
+        }
+    }
+
+    @Test
+    public void idle() throws Exception {
+        profile("idle");
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void loaded() throws Exception {
+        int threads = Integer.getInteger(LOAD_THREADS_PROPERTY, 20);
+        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        AtomicBoolean loading = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < threads; i++) {
+                boolean published = (i % 2 == 0);
+                executor.submit(() -> {
+                    while (loading.get()) {
+                        try {
+                            if (published) {
+                                surveysApi.getPublishedSurveys(false).execute();
+                            } else {
+                                surveysApi.getMostRecentSurveys(false).execute();
+                            }
+                            reads.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            profile("loaded");
+        } finally {
+            loading.set(false);
+            executor.shutdown();
+        }
+        LOG.info("Background load: {} reads ({} per second), {} errors", reads.get(),
+                format("%.1f", reads.get() * 1000.0 / Math.max(1, elapsedMillis(start))), errors.get());
+        assertTrue("Every background read failed (" + errors.get() + " errors), so there was no load",
+                reads.get() > 0);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void profile(String condition) throws Exception {
+        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        ForConsentedUsersApi usersApi = participant.getClient(ForConsentedUsersApi.class);
+        Map<String, Lag> lags = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            int cycles = Integer.getInteger(CYCLES_PROPERTY, 20);
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                Survey survey = TestSurvey.getSurvey(SurveyPropagationBenchmark.class);
+                GuidCreatedOnVersionHolder first = surveysApi.createSurvey(survey).execute().body();
+                addSurveyToDelete(first);
+                String guid = first.getGuid();
+                measure(executor, lags, "create", new Read("getSurvey",
+                        () -> surveysApi.getSurvey(guid, first.getCreatedOn()).execute().body() != null));
+
+                surveysApi.publishSurvey(guid, first.getCreatedOn(), false).execute();
+                measurePublish(executor, lags, "publish", surveysApi, usersApi, guid, first.getCreatedOn());
+
+                GuidCreatedOnVersionHolder second = surveysApi.versionSurvey(guid, first.getCreatedOn())
+                        .execute().body();
+                addSurveyToDelete(second);
+                measure(executor, lags, "version",
+                        new Read("getSurvey", () -> surveysApi.getSurvey(guid, second.getCreatedOn()).execute()
+                                .body() != null),
+                        new Read("getAllVersionsOfSurvey", () -> surveysApi.getAllVersionsOfSurvey(guid, false)
+                                .execute().body().getItems().stream()
+                                .anyMatch(s -> s.getCreatedOn().isEqual(second.getCreatedOn()))));
+
+                surveysApi.publishSurvey(guid, second.getCreatedOn(), false).execute();
+                measurePublish(executor, lags, "publishVersion", surveysApi, usersApi, guid,
+                        second.getCreatedOn());
+
+                if ((cycle + 1) % 5 == 0) {
+                    LOG.info("{}: {} of {} cycles", condition, cycle + 1, cycles);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Lag> entry : lags.entrySet()) {
+            Lag lag = entry.getValue();
+            LatencyHistogram millis = lag.millis;
+            LOG.info("{} {}: {}, {} stale first reads, {} timeouts", condition, entry.getKey(), millis,
+                    lag.staleFirstReads, lag.timeouts);
+            rows.add(format("%s,%s,%d,%d,%d,%d,%d,%d,%d", condition, entry.getKey().replace(' ', ','),
+                    millis.getCount(), lag.staleFirstReads, lag.timeouts, millis.getPercentile(50),
+                    millis.getPercentile(90), millis.getPercentile(99), millis.getMax()));
+            if (lag.timeouts.get() > 0) {
+                failures.add(format("%s %s: %d of %d reads never saw the write", condition, entry.getKey(),
+                        lag.timeouts.get(), millis.getCount() + lag.timeouts.get()));
+            }
+        }
+        // Every write has to become visible to every read, or the lags describe only the writes that did.
+        assertTrue(String.join("; ", failures), failures.isEmpty());
+    }
+
+    /** The reads that should show a version of the survey as published. */
+    @SuppressWarnings("deprecation")
+    private static void measurePublish(ExecutorService executor, Map<String, Lag> lags, String write,
+            SurveysApi surveysApi, ForConsentedUsersApi usersApi, String guid, DateTime createdOn) throws Exception {
+        measure(executor, lags, write,
+                new Read("getSurvey", () -> Boolean.TRUE.equals(
+                        surveysApi.getSurvey(guid, createdOn).execute().body().isPublished())),
+                new Read("getPublishedSurveyVersion", () -> usersApi.getPublishedSurveyVersion(guid)
+                        .execute().body().getCreatedOn().isEqual(createdOn)),
+                new Read("getPublishedSurveys", () -> surveysApi.getPublishedSurveys(false)
+                        .execute().body().getItems().stream()
+                        .anyMatch(s -> guid.equals(s.getGuid()) && s.getCreatedOn().isEqual(createdOn))));
+    }
+
+    /** Poll every read at once, from just after the write returned, until each sees the write. */
+    private static void measure(ExecutorService executor, Map<String, Lag> lags, String write, Read... reads)
+            throws Exception {
+        long writtenOn = System.nanoTime();
+        List<Future<Long>> futures = new ArrayList<>();
+        for (Read read : reads) {
+            Lag lag = lags.computeIfAbsent(write + " " + read.name, Lag::new);
+            futures.add(executor.submit(() -> poll(lag, read.visible, writtenOn)));
+        }
+        for (Future<Long> future : futures) {
+            future.get();
+        }
+    }
+
+    /** @return the lag, or -1 if the read never saw the write */
+    private static long poll(Lag lag, Callable<Boolean> read, long writtenOn) throws InterruptedException {
+        for (int i = 0; elapsedMillis(writtenOn) < DEADLINE_MILLIS; i++) {
+            boolean visible;
+            try {
+                visible = read.call();
+            } catch (EntityNotFoundException e) {
+                visible = false;
+            } catch (Exception e) {
+                LOG.warn("{} failed: {}", lag.millis.getName(), e.getMessage());
+                visible = false;
+            }
+            if (visible) {
+                long millis = elapsedMillis(writtenOn);
+                lag.millis.record(millis);
+                return millis;
+            }
+            if (i == 0) {
+                lag.staleFirstReads.incrementAndGet();
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        lag.timeouts.incrementAndGet();
+        return -1;
+    }
+
+    private static synchronized void addSurveyToDelete(GuidCreatedOnVersionHolder key) {
+        surveysToDelete.add(key);
+    }
+
+    /** A read API, and whether it shows the write yet. */
+    private static class Read {
+        private final String name;
+        private final Callable<Boolean> visible;
+
+        Read(String name, Callable<Boolean> visible) {
+            this.name = name;
+            this.visible = visible;
+        }
+    }
+
+    /** The lags of one read after one kind of write. */
+    private static class Lag {
+        private final LatencyHistogram millis;
+        private final AtomicLong staleFirstReads = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        Lag(String name) {
+            this.millis = new LatencyHistogram(name);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+
+/**
+ * A schemaless upload zip of any size, generated on the fly, so that large uploads can be tested without a file on
+ * disk or the whole archive in memory. The archive is an info.json followed by data files of pseudo-random bytes
+ * from a seeded generator, so the same upload produces the same bytes every time it is written. That lets the
+ * archive be written twice: once into a digest, to get the length and Content-MD5 that
+ * {@link #makeUploadRequest()} needs, and once into the body of the PUT to the presigned URL. Only one buffer of
+ * data is held at a time.
+ *
+ * The archive is zipped but not encrypted (encrypted=false in the upload request), since uploads are encrypted
+ * with the app's certificate, which the tests don't have.
+ */
+public class SyntheticUpload {
+    static final String CONTENT_TYPE = "application/zip";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_ENTRY_BYTES = 64L * 1024 * 1024;
+
+    private final String name;
+    private final long dataBytes;
+    private final long seed;
+    private final DateTime createdOn = DateTime.now(DateTimeZone.UTC);
+    private long contentLength = -1;
+    private String contentMd5;
+
+    /**
+     * @param name
+     *         the upload's file name
+     * @param dataBytes
+     *         the number of bytes of data in the archive; the archive is slightly larger than this
+     * @param seed
+     *         seeds the data, so uploads with different seeds have different content
+     */
+    public SyntheticUpload(String name, long dataBytes, long seed) {
+        this.name = name;
+        this.dataBytes = dataBytes;
+        this.seed = seed;
+    }
+
+    /** Write the archive to the stream. This can be called more than once, and writes the same bytes each time. */
+    public void writeTo(OutputStream out) throws IOException {
+        int entries = (int) Math.max(1, (dataBytes + MAX_ENTRY_BYTES - 1) / MAX_ENTRY_BYTES);
+        try (ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(out))) {
+            writeEntries(zip, entries);
+        }
+    }
+
+    private void writeEntries(ZipOutputStream zip, int entries) throws IOException {
+        // Random bytes don't compress, so don't spend the CPU trying.
+        zip.setLevel(Deflater.NO_COMPRESSION);
+
+        StringBuilder files = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            files.append(i == 0 ? "" : ",").append("{\"filename\":\"data-").append(i)
+                    .append(".bin\",\"timestamp\":\"").append(createdOn).append("\"}");
+        }
+        String info = "{\"files\":[" + files + "],\"appVersion\":\"version 1.0.0, build 1\","
+                + "\"phoneInfo\":\"Integration Tests\",\"createdOn\":\"" + createdOn + "\"}";
+        zip.putNextEntry(newEntry("info.json"));
+        zip.write(info.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+
+        Random random = new Random(seed);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = dataBytes;
+        for (int i = 0; i < entries; i++) {
+            zip.putNextEntry(newEntry("data-" + i + ".bin"));
+            long entryRemaining = Math.min(remaining, MAX_ENTRY_BYTES);
+            remaining -= entryRemaining;
+            while (entryRemaining > 0) {
+                random.nextBytes(buffer);
+                int length = (int) Math.min(buffer.length, entryRemaining);
+                zip.write(buffer, 0, length);
+                entryRemaining -= length;
+            }
+            zip.closeEntry();
+        }
+    }
+
+    /** Entries get the upload's timestamp, not the time they are written, so every write has the same bytes. */
+    private ZipEntry newEntry(String entryName) {
+        ZipEntry entry = new ZipEntry(entryName);
+        entry.setTime(createdOn.getMillis());
+        return entry;
+    }
+
+    /** The length of the archive in bytes. The first call writes the whole archive to compute it. */
+    public long getContentLength() throws IOException {
+        digest();
+        return contentLength;
+    }
+
+    /** The base64-encoded MD5 of the archive. The first call writes the whole archive to compute it. */
+    public String getContentMd5() throws IOException {
+        digest();
+        return contentMd5;
+    }
+
+    /** An upload request for this archive, as RestUtils.makeUploadRequestForFile makes for a file. */
+    public UploadRequest makeUploadRequest() throws IOException {
+        UploadRequest request = new UploadRequest();
+        request.setName(name);
+        request.setContentLength(getContentLength());
+        request.setContentMd5(getContentMd5());
+        request.setContentType(CONTENT_TYPE);
+        request.setEncrypted(false);
+        request.setZipped(true);
+        return request;
+    }
+
+    /** Stream the archive to a presigned S3 URL, as RestUtils.uploadToS3 uploads a file. */
+    public void uploadTo(String url) throws IOException {
+        HttpResponse response = HttpTransport.get().execute(Request.Put(url)
+                .setHeader("Content-MD5", getContentMd5()).body(new StreamingEntity()));
+        int status = response.getStatusLine().getStatusCode();
+        if (status != 200) {
+            throw new IOException("Upload of " + name + " to S3 failed with status " + status);
+        }
+    }
+
+    private synchronized void digest() throws IOException {
+        if (contentMd5 != null) {
+            return;
+        }
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        CountingOutputStream counter = new CountingOutputStream();
+        try (DigestOutputStream out = new DigestOutputStream(counter, md5)) {
+            writeTo(out);
+        }
+        contentLength = counter.count;
+        contentMd5 = Base64.getEncoder().encodeToString(md5.digest());
+    }
+
+    /** A request body that writes the archive straight to the connection, with a known length. */
+    private class StreamingEntity extends AbstractHttpEntity {
+        StreamingEntity() {
+            setContentType(CONTENT_TYPE);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        /**
+         * A stream of the archive, for clients that read the entity rather than have it write itself. The archive
+         * is written into a pipe on another thread. If that fails, the pipe is closed, so the reader gets an
+         * IOException rather than a truncated archive.
+         */
+        @Override
+        public InputStream getContent() throws IOException {
+            PipedInputStream in = new PipedInputStream(BUFFER_SIZE);
+            PipedOutputStream out = new PipedOutputStream(in);
+            Thread writer = new Thread(() -> {
+                try {
+                    SyntheticUpload.this.writeTo(out);
+                    out.close();
+                } catch (IOException e) {
+                    try {
+                        in.close();
+                    } catch (IOException closeException) {
+                        // Closing a pipe only marks it closed.
+                    }
+                }
+            }, "SyntheticUpload " + name);
+            writer.setDaemon(true);
+            writer.start();
+            return in;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            SyntheticUpload.this.writeTo(out);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+
+    /** Discards what is written to it, and counts the bytes. */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /** Keeps the ZipOutputStream from closing the stream it was given, which belongs to the caller. */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
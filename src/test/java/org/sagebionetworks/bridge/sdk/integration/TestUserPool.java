@@ -0,0 +1,299 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.rest.model.Role.RESEARCHER;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_COORDINATOR;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_DESIGNER;
+import static org.sagebionetworks.bridge.rest.model.Role.WORKER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_ID;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.OrganizationsApi;
+import org.sagebionetworks.bridge.rest.model.ActivityEvent;
+import org.sagebionetworks.bridge.rest.model.AdherenceRecordsSearch;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.StudyActivityEvent;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * A pool of signed-in accounts for tests that need an account with a given role (or a consented participant),
+ * but don't care whether it is brand new. Creating an account takes several requests (sign up, consent, sign in),
+ * so InitListener creates a few accounts of each kind concurrently at the start of the run, and test classes
+ * lease them instead of creating and deleting their own:
+ *
+ * <pre>
+ * developer = TestUserPool.get().lease(DEVELOPER);
+ * ...
+ * TestUserPool.get().release(developer);
+ * </pre>
+ *
+ * When the pool has no idle account of the requested kind, a new one is created and added to the pool when it
+ * is released. Released accounts are signed in again and returned to Sage Bionetworks, and participants must
+ * still be consented. The pool also compares the account with how it was when it was created (its data groups,
+ * languages, study enrollments, external IDs and sharing scope, and for participants, their activity events and
+ * adherence records in each study), and deletes it rather than lease it again if any of that changed. The pool
+ * can't see reports, so a test that writes reports (or changes the account in any other way) should call
+ * {@link #discard(TestUser)} instead of releasing it. All pooled accounts are deleted at the end of the run.
+ *
+ * Set the <code>bridge.userPool.size</code> system property to change how many accounts of each kind are
+ * created up front (0 turns off pre-warming).
+ */
+public class TestUserPool {
+    private static final Logger LOG = LoggerFactory.getLogger(TestUserPool.class);
+
+    static final String POOL_SIZE_PROPERTY = "bridge.userPool.size";
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final int WARM_UP_THREADS = 8;
+    private static final String PARTICIPANT = "PARTICIPANT";
+    private static final List<Role> POOLED_ROLES = ImmutableList.of(DEVELOPER, RESEARCHER, WORKER, STUDY_COORDINATOR,
+            STUDY_DESIGNER);
+
+    private static final TestUserPool INSTANCE = new TestUserPool();
+
+    private final Map<String, BlockingQueue<TestUser>> idleUsers = new ConcurrentHashMap<>();
+    // User ID to the kind of user, for every account the pool has created (idle or leased).
+    private final Map<String, String> pooledUsers = new ConcurrentHashMap<>();
+    private final Map<String, TestUser> leasedUsers = new ConcurrentHashMap<>();
+    // User ID to the state of the account when it was created, to tell if a lessee changed it.
+    private final Map<String, String> states = new ConcurrentHashMap<>();
+    private final Map<String, LeaseStats> stats = new ConcurrentHashMap<>();
+
+    public static TestUserPool get() {
+        return INSTANCE;
+    }
+
+    private TestUserPool() {
+        for (Role role : POOLED_ROLES) {
+            idleUsers.put(role.name(), new LinkedBlockingQueue<>());
+            stats.put(role.name(), new LeaseStats());
+        }
+        idleUsers.put(PARTICIPANT, new LinkedBlockingQueue<>());
+        stats.put(PARTICIPANT, new LeaseStats());
+    }
+
+    /** Create the initial accounts of every kind, concurrently. */
+    public void warmUp() throws Exception {
+        int poolSize = Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+        if (poolSize <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(WARM_UP_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < poolSize; i++) {
+                for (String kind : idleUsers.keySet()) {
+                    futures.add(executor.submit(() -> {
+                        idleUsers.get(kind).add(createUser(kind));
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        LOG.info("Created {} pooled test accounts in {} ms", pooledUsers.size(),
+                elapsedMillis(start));
+    }
+
+    /** Lease a signed-in account that has the given role and is a member of Sage Bionetworks. */
+    public TestUser lease(Role role) throws IOException {
+        if (!POOLED_ROLES.contains(role)) {
+            throw new IllegalArgumentException("Accounts with the role " + role + " are not pooled");
+        }
+        return leaseUser(role.name());
+    }
+
+    /** Lease a signed-in participant who has consented to the app's default subpopulation. */
+    public TestUser leaseParticipant() throws IOException {
+        return leaseUser(PARTICIPANT);
+    }
+
+    /** Reset the account and make it available to the next lease. */
+    public void release(TestUser user) throws IOException {
+        String kind = pooledUsers.get(user.getUserId());
+        if (kind == null || leasedUsers.remove(user.getUserId()) == null) {
+            throw new IllegalArgumentException("Account " + user.getUserId() + " is not leased from the pool");
+        }
+        try {
+            reset(kind, user, states.get(user.getUserId()));
+        } catch(Exception e) {
+            LOG.warn("Could not reset pooled account {}, deleting it: {}", user.getUserId(), e.getMessage());
+            delete(user);
+            return;
+        }
+        idleUsers.get(kind).add(user);
+    }
+
+    /** Delete the account instead of returning it to the pool. */
+    public void discard(TestUser user) throws IOException {
+        if (leasedUsers.remove(user.getUserId()) == null) {
+            throw new IllegalArgumentException("Account " + user.getUserId() + " is not leased from the pool");
+        }
+        delete(user);
+    }
+
+    /** Delete every account created by the pool, and log how well the pool was sized. */
+    public void shutdown() {
+        for (String kind : stats.keySet()) {
+            LeaseStats kindStats = stats.get(kind);
+            if (kindStats.leases.get() > 0) {
+                LOG.info("User pool {}: {} leases, {}% hit rate, {} ms mean wait, {} ms max wait", kind,
+                        kindStats.leases.get(), kindStats.getHitRate(), kindStats.getMeanWaitMillis(),
+                        kindStats.maxWaitMillis.get());
+            }
+        }
+        List<TestUser> users = new ArrayList<>(leasedUsers.values());
+        for (BlockingQueue<TestUser> queue : idleUsers.values()) {
+            queue.drainTo(users);
+        }
+        leasedUsers.clear();
+        for (TestUser user : users) {
+            try {
+                delete(user);
+            } catch(Exception e) {
+                LOG.warn("Could not delete pooled account {}: {}", user.getUserId(), e.getMessage());
+            }
+        }
+    }
+
+    private TestUser leaseUser(String kind) throws IOException {
+        long start = System.nanoTime();
+        TestUser user = idleUsers.get(kind).poll();
+        boolean hit = (user != null);
+        if (user == null) {
+            user = createUser(kind);
+        }
+        leasedUsers.put(user.getUserId(), user);
+        stats.get(kind).record(hit, elapsedMillis(start));
+        return user;
+    }
+
+    private TestUser createUser(String kind) throws IOException {
+        TestUser user;
+        if (PARTICIPANT.equals(kind)) {
+            user = TestUserHelper.createAndSignInUser(TestUserPool.class, true);
+        } else {
+            user = TestUserHelper.createAndSignInUser(TestUserPool.class, false, Role.valueOf(kind));
+        }
+        pooledUsers.put(user.getUserId(), kind);
+        TestUser meteredUser = new MeteredTestUser(user);
+        states.put(user.getUserId(), getState(kind, meteredUser));
+        return meteredUser;
+    }
+
+    private void reset(String kind, TestUser user, String createdState) throws IOException {
+        user.signInAgain();
+        if (PARTICIPANT.equals(kind)) {
+            if (!Boolean.TRUE.equals(user.getSession().isConsented())) {
+                throw new IllegalStateException("participant is no longer consented");
+            }
+        } else {
+            String orgId = user.getSession().getOrgMembership();
+            if (!SAGE_ID.equals(orgId)) {
+                OrganizationsApi orgsApi = TestUserHelper.getSignedInAdmin().getClient(OrganizationsApi.class);
+                if (orgId != null) {
+                    orgsApi.removeMember(orgId, user.getUserId()).execute();
+                }
+                orgsApi.addMember(SAGE_ID, user.getUserId()).execute();
+                user.signInAgain();
+            }
+        }
+        String state = getState(kind, user);
+        if (!state.equals(createdState)) {
+            throw new IllegalStateException("account changed from " + createdState + " to " + state);
+        }
+    }
+
+    /**
+     * The state of the account that a test could change and the next lessee would notice. The session has what is
+     * common to every account; participants also have activity events and adherence records, which take a call
+     * for each enrolled study.
+     */
+    private String getState(String kind, TestUser user) throws IOException {
+        UserSessionInfo session = user.getSession();
+        Set<String> studyIds = (session.getEnrollments() == null) ? ImmutableSet.of() :
+                new TreeSet<>(session.getEnrollments().keySet());
+        Map<String, Object> state = new TreeMap<>();
+        state.put("dataGroups", (session.getDataGroups() == null) ? null : new TreeSet<>(session.getDataGroups()));
+        state.put("languages", session.getLanguages());
+        state.put("studies", studyIds);
+        state.put("externalIds", (session.getExternalIds() == null) ? null : new TreeMap<>(session.getExternalIds()));
+        state.put("sharingScope", session.getSharingScope());
+        if (PARTICIPANT.equals(kind)) {
+            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            Map<String, Object> events = new TreeMap<>();
+            for (ActivityEvent event : usersApi.getActivityEvents().execute().body().getItems()) {
+                events.put(event.getEventId(), event.getTimestamp());
+            }
+            state.put("activityEvents", events);
+            for (String studyId : studyIds) {
+                Map<String, Object> studyEvents = new TreeMap<>();
+                for (StudyActivityEvent event : usersApi.getStudyActivityEvents(studyId).execute().body()
+                        .getItems()) {
+                    studyEvents.put(event.getEventId(), event.getTimestamp());
+                }
+                state.put(studyId + " activityEvents", studyEvents);
+                state.put(studyId + " adherenceRecords", usersApi.searchForAdherenceRecords(studyId,
+                        new AdherenceRecordsSearch()).execute().body().getTotal());
+            }
+        }
+        return state.toString();
+    }
+
+    private void delete(TestUser user) throws IOException {
+        pooledUsers.remove(user.getUserId());
+        states.remove(user.getUserId());
+        user.signOutAndDeleteUser();
+    }
+
+    private static class LeaseStats {
+        private final AtomicLong leases = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+
+        void record(boolean hit, long waitMillis) {
+            leases.incrementAndGet();
+            if (hit) {
+                hits.incrementAndGet();
+            }
+            totalWaitMillis.addAndGet(waitMillis);
+            maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        }
+
+        long getHitRate() {
+            return (leases.get() == 0) ? 0 : Math.round(100.0 * hits.get() / leases.get());
+        }
+
+        long getMeanWaitMillis() {
+            return (leases.get() == 0) ? 0 : totalWaitMillis.get() / leases.get();
+        }
+    }
+}
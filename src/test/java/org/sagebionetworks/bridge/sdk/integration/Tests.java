@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.FUTURE_ONLY;
 import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.MUTABLE;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.CONFIG;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.SHARED_APP_ID;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_2_ID;
@@ -21,6 +22,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 import com.google.common.base.Function;
@@ -79,8 +83,12 @@ public class Tests {
     public static final String NATIONAL_PHONE_FORMAT = "(971) 248-6796";
     public static final String SYNAPSE_USER_ID = "88888";
 
-    private static final int RETRY_MAX_TRIES = 5;
-    private static final long RETRY_SLEEP_MILLIS = 1000;
+    static final long RETRY_DEADLINE_MILLIS = 10000;
+    private static final long RETRY_INITIAL_BACKOFF_MILLIS = 100;
+    private static final long RETRY_MAX_BACKOFF_MILLIS = 2000;
+    /** How long retryHelper calls took to succeed, i.e. how stale the server's secondary indices were. */
+    static final LatencyHistogram RETRY_CONVERGENCE = new LatencyHistogram("retryHelper convergence");
+    static final AtomicInteger RETRY_FAILURES = new AtomicInteger();
 
     private static final String CONFIG_FILE = "bridge-sdk-test.properties";
     private static final String DEFAULT_CONFIG_FILE = CONFIG_FILE;
@@ -108,7 +116,9 @@ public class Tests {
 
     /**
      * Helper function that wraps around retries. Used for tests that can fail sporadically (e.g. anything that uses a
-     * DynamoDB secondary index.
+     * DynamoDB secondary index. The first try is made immediately, then we back off exponentially (with jitter, so
+     * that parallel tests don't poll in lockstep) until the call succeeds or {@link #RETRY_DEADLINE_MILLIS} has
+     * passed. How long each call took to succeed is recorded in {@link #RETRY_CONVERGENCE}.
      *
      * @param testCall
      *         the test code that might sporadically fail (e.g. a server call using DynamoDB secondary index)
@@ -116,16 +126,25 @@ public class Tests {
      *         a callable that returns true if the test code succeeded, false if we need to retry
      */
     public static <T> T retryHelper(Callable<T> testCall, Predicate<T> validationCall) {
-        for (int i = 0; i < RETRY_MAX_TRIES; i++) {
-            try {
-                Thread.sleep(RETRY_SLEEP_MILLIS);
-            } catch (InterruptedException ex) {
-                // Ignore exception.
-            }
+        return retryHelper(testCall, validationCall, RETRY_DEADLINE_MILLIS);
+    }
 
+    /**
+     * As {@link #retryHelper(Callable, Predicate)}, for calls that are known to take more (or less) time than
+     * usual to become consistent.
+     *
+     * @param deadlineMillis
+     *         how long to keep retrying, from the start of the first try
+     */
+    public static <T> T retryHelper(Callable<T> testCall, Predicate<T> validationCall, long deadlineMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        long backoffMillis = RETRY_INITIAL_BACKOFF_MILLIS;
+        for (int i = 0; ; i++) {
             try {
                 T result = testCall.call();
                 if (validationCall.test(result)) {
+                    RETRY_CONVERGENCE.record(elapsedMillis(start));
                     return result;
                 } else {
                     LOG.warn("Validation failed in retryHelper (try #" + i + ")");
@@ -133,8 +152,23 @@ public class Tests {
             } catch (Exception ex) {
                 LOG.warn("Exception thrown in retryHelper (try #" + i + "): " + ex.getMessage(), ex);
             }
+
+            // Equal jitter: sleep somewhere between half and all of the current backoff, without passing the deadline.
+            long sleepMillis = backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                break;
+            }
+            try {
+                Thread.sleep(Math.min(sleepMillis, remainingMillis));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, RETRY_MAX_BACKOFF_MILLIS);
         }
 
+        RETRY_FAILURES.incrementAndGet();
         throw new RuntimeException("retryHelper failed");
     }
 
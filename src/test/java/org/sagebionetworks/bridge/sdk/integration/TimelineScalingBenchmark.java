@@ -0,0 +1,137 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_COORDINATOR;
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_DESIGNER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.user.TestUser;
+
+/**
+ * Measures how the timeline endpoints scale with the size of the schedule. For each schedule size, this builds a
+ * schedule in its own study and times getTimelineForStudy, getParticipantScheduleForSelf and
+ * getStudyParticipantTimeline. The first call (before the server has cached anything) is reported separately from
+ * the rest. Each size also reports its number of scheduled sessions and the payload size of each endpoint.
+ */
+@Category(IntegrationPerformanceTest.class)
+public class TimelineScalingBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(TimelineScalingBenchmark.class);
+
+    static final String SIZES_PROPERTY = "bridge.timeline.sizes";
+    static final String ITERATIONS_PROPERTY = "bridge.timeline.iterations";
+    private static final String DEFAULT_SIZES = "1:1:1:P1W:P1D,10:2:2:P4W:P1D,50:4:3:P26W:P1D,100:4:3:P1Y:P1W,"
+            + "200:4:3:P2Y:P1W";
+    private static final int DEFAULT_ITERATIONS = 5;
+
+    private static final String TIMELINE_URL = "/v5/studies/%s/timeline";
+    private static final String PARTICIPANT_SCHEDULE_URL =
+            "/v5/studies/%s/participants/self/schedule?clientTimeZone=America/Los_Angeles";
+    private static final String PARTICIPANT_TIMELINE_URL = "/v5/studies/%s/participants/%s/timeline";
+
+    @Test
+    public void timelineLatencyByScheduleSize() throws Exception {
+        int iterations = Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS);
+        List<String> rows = new ArrayList<>();
+        for (String size : System.getProperty(SIZES_PROPERTY, DEFAULT_SIZES).split(",")) {
+            rows.addAll(measure(size.trim(), iterations));
+        }
+
+        EndpointMetrics.writeCsvReport("timeline-scaling",
+                "sessions,timeWindows,assessments,duration,interval,scheduledSessions,endpoint,"
+                + "firstMillis,p50,p90,bytes", rows);
+    }
+
+    private List<String> measure(String size, int iterations) throws Exception {
+        String[] parts = size.split(":");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Schedule size should be sessions:timeWindows:assessments:"
+                    + "duration:interval, not " + size);
+        }
+        StudyFixture studyFixture = StudyFixture.create(TimelineScalingBenchmark.class);
+        ScheduleFixture scheduleFixture = null;
+        TestUser participant = null;
+        TestUser designer = TestUserPool.get().lease(STUDY_DESIGNER);
+        TestUser coordinator = TestUserPool.get().lease(STUDY_COORDINATOR);
+        try {
+            scheduleFixture = new ScheduleFixture.Builder(studyFixture).withSessions(Integer.parseInt(parts[0]))
+                    .withTimeWindows(Integer.parseInt(parts[1])).withAssessments(Integer.parseInt(parts[2]))
+                    .withDuration(parts[3]).withInterval(parts[4]).build();
+            participant = scheduleFixture.createParticipant(TimelineScalingBenchmark.class);
+            String studyId = scheduleFixture.getStudyId();
+
+            List<String> rows = new ArrayList<>();
+            Timing study = time("getTimelineForStudy", designer, iterations, TIMELINE_URL, studyId);
+            Timing self = time("getParticipantScheduleForSelf", participant, iterations,
+                    PARTICIPANT_SCHEDULE_URL, studyId);
+            Timing participantTimeline = time("getStudyParticipantTimeline", coordinator, iterations,
+                    PARTICIPANT_TIMELINE_URL, studyId, participant.getUserId());
+            int scheduledSessions = study.body.get("schedule").size();
+            for (Timing timing : new Timing[] { study, self, participantTimeline }) {
+                LOG.info("Schedule {} ({} scheduled sessions): {}, {} ms first call, {} bytes", size,
+                        scheduledSessions, timing.latency, timing.firstMillis, timing.bytes);
+                rows.add(format("%s,%s,%s,%s,%s,%d,%s,%d,%d,%d,%d", parts[0], parts[1], parts[2], parts[3],
+                        parts[4], scheduledSessions, timing.latency.getName(), timing.firstMillis,
+                        timing.latency.getPercentile(50), timing.latency.getPercentile(90), timing.bytes));
+            }
+            return rows;
+        } finally {
+            if (participant != null) {
+                participant.signOutAndDeleteUser();
+            }
+            TestUserPool.get().release(designer);
+            TestUserPool.get().release(coordinator);
+            if (scheduleFixture != null) {
+                scheduleFixture.delete();
+            }
+            studyFixture.delete();
+        }
+    }
+
+    private static Timing time(String name, TestUser caller, int iterations, String urlFormat, Object... args)
+            throws IOException {
+        String url = caller.getClientManager().getHostUrl() + format(urlFormat, args);
+        Timing timing = new Timing(name);
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            HttpResponse response = HttpTransport.get().execute(Request.Get(url)
+                    .setHeader("Bridge-Session", caller.getSession().getSessionToken()));
+            long millis = elapsedMillis(start);
+            assertEquals(name, 200, response.getStatusLine().getStatusCode());
+            byte[] body = EntityUtils.toByteArray(response.getEntity());
+            if (i == 0) {
+                timing.firstMillis = millis;
+                timing.bytes = body.length;
+                timing.body = DefaultObjectMapper.INSTANCE.readTree(body);
+            } else {
+                timing.latency.record(millis);
+            }
+        }
+        return timing;
+    }
+
+    private static class Timing {
+        private final LatencyHistogram latency;
+        private long firstMillis;
+        private long bytes;
+        private JsonNode body;
+
+        Timing(String name) {
+            this.latency = new LatencyHistogram(name);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+
+/**
+ * Uploads files concurrently and tracks each upload until the server has finished validating it
+ * asynchronously. Each submitted file is uploaded on the pipeline's thread pool (request an upload session,
+ * upload to S3, complete the session), and then its status is polled with exponential backoff. The returned
+ * future completes with the last status that was retrieved: SUCCEEDED, VALIDATION_FAILED, or whatever the status
+ * was when the deadline passed. Callers assert on the status, as they would for a synchronous upload.
+ *
+ * The time from completing the upload session to seeing SUCCEEDED is recorded in
+ * {@link #getValidationLatency()}.
+ */
+public class UploadPipeline {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadPipeline.class);
+
+    // On a cold server, validation could take up to 8 seconds (most of this is downloading and caching the
+    // encryption certs for the first time). Subsequent validation attempts take about 2 seconds.
+    private static final long INITIAL_POLL_DELAY_MILLIS = 500;
+    private static final long MAX_POLL_DELAY_MILLIS = 4000;
+    private static final long DEFAULT_DEADLINE_MILLIS = 30000;
+
+    private final ForConsentedUsersApi usersApi;
+    private final ScheduledExecutorService executor;
+    private final long deadlineMillis;
+    private final LatencyHistogram validationLatency = new LatencyHistogram("upload validation");
+
+    public UploadPipeline(ForConsentedUsersApi usersApi, int threads) {
+        this(usersApi, threads, DEFAULT_DEADLINE_MILLIS);
+    }
+
+    public UploadPipeline(ForConsentedUsersApi usersApi, int threads, long deadlineMillis) {
+        this.usersApi = usersApi;
+        this.executor = Executors.newScheduledThreadPool(threads);
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /** Time from completing each upload session to the upload's status being SUCCEEDED. */
+    public LatencyHistogram getValidationLatency() {
+        return validationLatency;
+    }
+
+    /** Upload the file and wait (asynchronously) for it to be validated. */
+    public CompletableFuture<UploadValidationStatus> submit(File file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                UploadRequest request = RestUtils.makeUploadRequestForFile(file);
+                UploadSession session = usersApi.requestUploadSession(request).execute().body();
+                RestUtils.uploadToS3(file, session.getUrl());
+                usersApi.completeUploadSession(session.getId(), false, false).execute();
+                return session.getId();
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor).thenCompose(uploadId -> {
+            CompletableFuture<UploadValidationStatus> future = new CompletableFuture<>();
+            long completedOn = System.nanoTime();
+            schedulePoll(future, uploadId, file.getName(), completedOn, INITIAL_POLL_DELAY_MILLIS);
+            return future;
+        });
+    }
+
+    /** Shut down the thread pool. Call this once every submitted upload has completed. */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void schedulePoll(CompletableFuture<UploadValidationStatus> future, String uploadId, String fileName,
+            long completedOn, long delayMillis) {
+        // Jitter the delay so concurrent uploads don't poll in lockstep.
+        long jitteredMillis = delayMillis / 2 + ThreadLocalRandom.current().nextLong(delayMillis / 2 + 1);
+        executor.schedule(() -> {
+            try {
+                UploadValidationStatus status = usersApi.getUploadStatus(uploadId).execute().body();
+                long millis = elapsedMillis(completedOn);
+                if (status.getStatus() == UploadStatus.SUCCEEDED) {
+                    validationLatency.record(millis);
+                    LOG.info("Upload {} ({}) succeeded {} ms after completion", uploadId, fileName, millis);
+                    future.complete(status);
+                } else if (status.getStatus() == UploadStatus.VALIDATION_FAILED || millis >= deadlineMillis) {
+                    LOG.warn("Upload {} ({}) is {} after {} ms", uploadId, fileName, status.getStatus(),
+                            millis);
+                    future.complete(status);
+                } else {
+                    schedulePoll(future, uploadId, fileName, completedOn,
+                            Math.min(delayMillis * 2, MAX_POLL_DELAY_MILLIS));
+                }
+            } catch (Exception ex) {
+                future.completeExceptionally(ex);
+            }
+        }, jitteredMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -71,9 +71,9 @@ public class UploadSchemaTest {
     @BeforeClass
     public static void beforeClass() throws Exception {
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        developer = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, false, DEVELOPER);
-        user = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, true);
-        worker = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, false, WORKER);
+        developer = TestUserPool.get().lease(DEVELOPER);
+        user = TestUserPool.get().leaseParticipant();
+        worker = TestUserPool.get().lease(WORKER);
         sharedDeveloper = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, SHARED_APP_ID, DEVELOPER);
         sharedDeveloperModulesApi = sharedDeveloper.getClient(ForDevelopersApi.class);
 
@@ -103,21 +103,21 @@ public class UploadSchemaTest {
     @AfterClass
     public static void deleteResearcher() throws Exception {
         if (developer != null) {
-            developer.signOutAndDeleteUser();
+            TestUserPool.get().release(developer);
         }
     }
 
     @AfterClass
     public static void deleteUser() throws Exception {
         if (user != null) {
-            user.signOutAndDeleteUser();
+            TestUserPool.get().release(user);
         }
     }
 
     @AfterClass
     public static void deleteWorker() throws Exception {
         if (worker != null) {
-            worker.signOutAndDeleteUser();
+            TestUserPool.get().release(worker);
         }
     }
     
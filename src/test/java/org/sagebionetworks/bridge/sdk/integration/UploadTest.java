@@ -11,9 +11,13 @@ import static org.sagebionetworks.bridge.sdk.integration.Tests.STUDY_ID_1;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_2_ID;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
@@ -28,6 +32,8 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.sagebionetworks.bridge.json.DefaultObjectMapper;
 import org.sagebionetworks.bridge.rest.RestUtils;
@@ -63,16 +69,15 @@ import com.google.common.collect.Lists;
 
 @Category(IntegrationSmokeTest.class)
 public class UploadTest {
-    
+    private static final Logger LOG = LoggerFactory.getLogger(UploadTest.class);
+
     private static final String EXTERNAL_ID = "upload-test-extid";
     
-    // On a cold server, validation could take up to 8 seconds (most of this is downloading and caching the encryption
-    // certs for the first time). Subsequent validation attempts take about 2 seconds. 5 second delay is a good
-    // compromise between fast tests and not having to retry a bunch of times.
-    private static final int UPLOAD_STATUS_DELAY_MILLISECONDS = 5000;
-
-    // Retry up to 6 times, so we don't spend more than 30 seconds per test.
-    private static final int UPLOAD_STATUS_DELAY_RETRIES = 6;
+    // The encrypted fixtures that are uploaded and validated asynchronously. These are all uploaded concurrently
+    // before the tests run, and each test waits for its own upload.
+    private static final List<String> ASYNC_UPLOAD_FIXTURES = ImmutableList.of("legacy-survey-encrypted",
+            "generic-survey-encrypted", "legacy-non-survey-encrypted", "generic-non-survey-encrypted",
+            "schemaless-encrypted");
 
     // invalid MD5 hashes for validation testing
     private static final String[] INVALID_BASE64_MD5_HASHES = {
@@ -91,6 +96,8 @@ public class UploadTest {
     private static TestUser researcher;
     private static TestUser user;
     private static TestUser admin;
+    private static UploadPipeline uploadPipeline;
+    private static Map<String, CompletableFuture<UploadValidationStatus>> asyncUploads;
 
     @SuppressWarnings("deprecation")
     @BeforeClass
@@ -111,8 +118,20 @@ public class UploadTest {
         user = TestUserHelper.createAndSignInUser(UploadTest.class, true, signUp);
 
         // ensure schemas exist, so we have something to upload against
-        UploadSchemasApi uploadSchemasApi = developer.getClient(UploadSchemasApi.class);
+        ensureSchemas(developer.getClient(UploadSchemasApi.class));
+
+        // Start the asynchronous uploads now that the schemas exist.
+        uploadPipeline = new UploadPipeline(new MeteredTestUser(user).getClient(ForConsentedUsersApi.class),
+                ASYNC_UPLOAD_FIXTURES.size());
+        asyncUploads = new HashMap<>();
+        for (String fileLeafName : ASYNC_UPLOAD_FIXTURES) {
+            asyncUploads.put(fileLeafName, uploadPipeline.submit(resolveFilePath(user, fileLeafName)));
+        }
+    }
 
+    /** Create the schemas the legacy fixtures are validated against, if they don't exist yet. */
+    @SuppressWarnings("deprecation")
+    static void ensureSchemas(UploadSchemasApi uploadSchemasApi) throws IOException {
         UploadSchema legacySurveySchema = null;
         try {
             legacySurveySchema = uploadSchemasApi.getMostRecentUploadSchema("legacy-survey").execute().body();
@@ -182,6 +201,17 @@ public class UploadTest {
         }
     }
 
+    @AfterClass
+    public static void shutdownUploadPipeline() throws Exception {
+        if (uploadPipeline != null) {
+            // Let any uploads whose tests didn't run finish before shutting down the thread pool.
+            CompletableFuture.allOf(asyncUploads.values().toArray(new CompletableFuture<?>[0]))
+                    .exceptionally(ex -> null).join();
+            uploadPipeline.shutdown();
+            LOG.info("{}", uploadPipeline.getValidationLatency());
+        }
+    }
+
     @AfterClass
     public static void deleteDeveloper() throws Exception {
         if (developer != null) {
@@ -284,30 +314,21 @@ public class UploadTest {
     }
 
     private static HealthDataRecord testUpload(String fileLeafName) throws Exception {
-        // set up request
-        File file = resolveFilePath(fileLeafName);
-        
         ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
-        UploadSession session = RestUtils.upload(usersApi, file);
-        
-        String uploadId = session.getId();
-        
-        // get validation status
-        UploadValidationStatus status = null;
-        for (int i = 0; i < UPLOAD_STATUS_DELAY_RETRIES; i++) {
-            Thread.sleep(UPLOAD_STATUS_DELAY_MILLISECONDS);
-
-            status = usersApi.getUploadStatus(session.getId()).execute().body();
-            if (status.getStatus() == UploadStatus.VALIDATION_FAILED) {
-                // Short-circuit. Validation failed. No need to retry.
-                fail("Upload validation failed, UploadId=" + uploadId);
-            } else if (status.getStatus() == UploadStatus.SUCCEEDED) {
-                break;
-            }
+        UploadValidationStatus status;
+        try {
+            status = asyncUploads.get(fileLeafName).get();
+        } catch (ExecutionException ex) {
+            throw (ex.getCause() instanceof Exception) ? (Exception) ex.getCause() : ex;
         }
-        // userClient.upload marks the download complete
+        String uploadId = status.getId();
+        if (status.getStatus() == UploadStatus.VALIDATION_FAILED) {
+            fail("Upload validation failed, UploadId=" + uploadId);
+        }
+
+        // the pipeline marks the download complete
         // marking an already completed download as complete again should succeed (and be a no-op)
-        usersApi.completeUploadSession(session.getId(), false, false).execute();
+        usersApi.completeUploadSession(uploadId, false, false).execute();
 
         validateUploadValidationStatus(uploadId, status);
 
@@ -321,7 +342,7 @@ public class UploadTest {
         admin.getClient(ForWorkersApi.class)
             .updateRecordExportStatuses(statusRequest).execute();
 
-        status = usersApi.getUploadStatus(session.getId()).execute().body();
+        status = usersApi.getUploadStatus(uploadId).execute().body();
         assertEquals(SynapseExporterStatus.NOT_EXPORTED, status.getRecord().getSynapseExporterStatus());
         return record;
     }
@@ -332,7 +353,7 @@ public class UploadTest {
         // into a single method to avoid having to set up an upload multiple times.
 
         // use V2 Generic Survey, since that's the most straightforward to parse and validate.
-        File file = resolveFilePath("generic-survey-encrypted");
+        File file = resolveFilePath(user, "generic-survey-encrypted");
 
         // Set user sharing scope, just to test metadata in upload validation.
         ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
@@ -423,7 +444,7 @@ public class UploadTest {
     @Test
     public void metadataInUploadRequest() throws Exception {
         // Create upload request with metadata.
-        File file = resolveFilePath("schemaless-encrypted");
+        File file = resolveFilePath(user, "schemaless-encrypted");
         UploadRequest request = RestUtils.makeUploadRequestForFile(file);
         request.setMetadata(ImmutableMap.of("added-metadata", "added-value"));
 
@@ -450,7 +471,7 @@ public class UploadTest {
     public void md5Validation() throws Exception {
         // Create upload request, file doesn't matter because only the MD5 is being
         // tested
-        File file = resolveFilePath("generic-survey-encrypted");
+        File file = resolveFilePath(user, "generic-survey-encrypted");
         UploadRequest request = RestUtils.makeUploadRequestForFile(file);
         ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
 
@@ -525,7 +546,7 @@ public class UploadTest {
     }
 
     // returns the path relative to the root of the project
-    private static File resolveFilePath(String fileLeafName) {
+    static File resolveFilePath(TestUser user, String fileLeafName) {
         String envName = user.getClientManager().getConfig().getEnvironment().name().toLowerCase(Locale.ENGLISH);
         String filePath = "src/test/resources/upload-test/" + envName + "/" + fileLeafName;
         return new File(filePath);
@@ -0,0 +1,171 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertTrue;
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.sdk.integration.LatencyHistogram.elapsedMillis;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+import org.sagebionetworks.bridge.user.TestUser;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * Measures how long uploads take to be validated when many participants upload at once, with synchronous
+ * completion (completeUploadSession with synchronous=true) and with asynchronous completion followed by polling
+ * getUploadStatus, for a legacy, a generic and a schemaless fixture. For each mode and fixture, one upload is timed
+ * on its own first (which may be cold), and then uploads are run at each level of concurrency. The time to
+ * validated is measured from the call to completeUploadSession to the response (synchronous) or to the first poll
+ * that sees SUCCEEDED (asynchronous, polled every 250 ms).
+ */
+@Category(IntegrationPerformanceTest.class)
+public class UploadValidationBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadValidationBenchmark.class);
+
+    static final String USERS_PROPERTY = "bridge.uploadValidation.users";
+    static final String FIXTURES_PROPERTY = "bridge.uploadValidation.fixtures";
+    private static final String DEFAULT_USERS = "1,5,10,20";
+    private static final String DEFAULT_FIXTURES = "legacy-survey-encrypted,generic-survey-encrypted,"
+            + "schemaless-encrypted";
+    private static final long POLL_INTERVAL_MILLIS = 250;
+    private static final long DEADLINE_MILLIS = 60000;
+    private static final int SETUP_THREADS = 8;
+
+    private static final List<TestUser> participants = Collections.synchronizedList(new ArrayList<>());
+    private static final List<String> rows = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        TestUser developer = TestUserPool.get().lease(DEVELOPER);
+        try {
+            UploadTest.ensureSchemas(developer.getClient(UploadSchemasApi.class));
+        } finally {
+            TestUserPool.get().release(developer);
+        }
+
+        int maxUsers = 0;
+        for (int users : getUserCounts()) {
+            maxUsers = Math.max(maxUsers, users);
+        }
+        Seeder.seed("participants", maxUsers, SETUP_THREADS, n -> participants.add(new MeteredTestUser(
+                TestUserHelper.createAndSignInUser(UploadValidationBenchmark.class, true))));
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        EndpointMetrics.writeCsvReport("upload-validation",
+                "mode,fixture,users,uploads,uploadsPerSecond,p50,p90,p99,max,errors", rows);
+        for (TestUser participant : participants) {
+            participant.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void synchronous() throws Exception {
+        run(true);
+    }
+
+    @Test
+    public void asynchronous() throws Exception {
+        run(false);
+    }
+
+    private void run(boolean synchronous) throws Exception {
+        String mode = synchronous ? "sync" : "async";
+        long rampUpMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(LoadTestRunner.RAMP_UP_PROPERTY, 5));
+        long durationMillis = TimeUnit.SECONDS.toMillis(Integer.getInteger(LoadTestRunner.DURATION_PROPERTY, 60));
+        long thinkMillis = Long.getLong(LoadTestRunner.THINK_PROPERTY, 0L);
+
+        for (String value : System.getProperty(FIXTURES_PROPERTY, DEFAULT_FIXTURES).split(",")) {
+            String fixture = value.trim();
+            File file = UploadTest.resolveFilePath(participants.get(0), fixture);
+
+            // On its own first, before the load, since the first validation is said to be the slowest.
+            LatencyHistogram first = new LatencyHistogram(mode + " " + fixture + " first");
+            first.record(upload(participants.get(0), file, synchronous));
+            addRow(mode, fixture, 1, first, 0, 0);
+
+            for (int users : getUserCounts()) {
+                LatencyHistogram validated = new LatencyHistogram(mode + " " + fixture + " x" + users);
+                LoadTestRunner runner = new LoadTestRunner(users, rampUpMillis, durationMillis, thinkMillis);
+                LoadTestRunner.Result result = runner.run(validated.getName(), new LoadScenario<TestUser>() {
+                    @Override
+                    public TestUser setUp(int virtualUser) {
+                        return participants.get(virtualUser);
+                    }
+                    @Override
+                    public void iterate(TestUser participant) throws Exception {
+                        validated.record(upload(participant, file, synchronous));
+                    }
+                });
+                addRow(mode, fixture, users, validated, result.getThroughput(), result.getErrors());
+                assertTrue("No " + validated.getName() + " uploads were validated", validated.getCount() > 0);
+            }
+        }
+    }
+
+    /**
+     * Upload the file, complete the upload session, and wait until the upload has been validated.
+     *
+     * @return the time from the call to complete the upload session until the upload was validated
+     */
+    private static long upload(TestUser participant, File file, boolean synchronous) throws Exception {
+        ForConsentedUsersApi usersApi = participant.getClient(ForConsentedUsersApi.class);
+        UploadRequest request = RestUtils.makeUploadRequestForFile(file);
+        UploadSession session = usersApi.requestUploadSession(request).execute().body();
+        RestUtils.uploadToS3(file, session.getUrl());
+
+        long start = System.nanoTime();
+        UploadValidationStatus status = usersApi.completeUploadSession(session.getId(), synchronous, false)
+                .execute().body();
+        if (!synchronous) {
+            status = usersApi.getUploadStatus(session.getId()).execute().body();
+            while (status.getStatus() != UploadStatus.SUCCEEDED
+                    && status.getStatus() != UploadStatus.VALIDATION_FAILED && elapsedMillis(start) < DEADLINE_MILLIS) {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+                status = usersApi.getUploadStatus(session.getId()).execute().body();
+            }
+        }
+        long millis = elapsedMillis(start);
+        if (status.getStatus() != UploadStatus.SUCCEEDED) {
+            throw new IllegalStateException("Upload " + session.getId() + " (" + file.getName() + ") is "
+                    + status.getStatus() + " after " + millis + " ms");
+        }
+        return millis;
+    }
+
+    private static List<Integer> getUserCounts() {
+        List<Integer> counts = new ArrayList<>();
+        for (String value : System.getProperty(USERS_PROPERTY, DEFAULT_USERS).split(",")) {
+            counts.add(Integer.parseInt(value.trim()));
+        }
+        return counts;
+    }
+
+    private static void addRow(String mode, String fixture, int users, LatencyHistogram validated,
+            double throughput, long errors) {
+        LOG.info("Time to validated, {}: {}, {} uploads/s, {} errors", validated.getName(), validated,
+                format("%.2f", throughput), errors);
+        rows.add(format("%s,%s,%d,%d,%.2f,%d,%d,%d,%d,%d", mode, fixture, users, validated.getCount(), throughput,
+                validated.getPercentile(50), validated.getPercentile(90), validated.getPercentile(99),
+                validated.getMax(), errors));
+    }
+}
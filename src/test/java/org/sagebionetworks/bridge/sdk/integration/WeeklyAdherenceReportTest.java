@@ -1,7 +1,6 @@
 package org.sagebionetworks.bridge.sdk.integration;
 
 import static org.junit.Assert.*;
-import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.MUTABLE;
 import static org.sagebionetworks.bridge.rest.model.ParticipantStudyProgress.IN_PROGRESS;
 import static org.sagebionetworks.bridge.rest.model.PerformanceOrder.SEQUENTIAL;
 import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
@@ -10,24 +9,22 @@ import static org.sagebionetworks.bridge.rest.model.TestFilter.PRODUCTION;
 import static org.sagebionetworks.bridge.sdk.integration.InitListener.CLINIC_VISIT;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.RandomStringUtils;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.sagebionetworks.bridge.rest.api.AssessmentsApi;
-import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
 import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
 import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
 import org.sagebionetworks.bridge.rest.api.SchedulesV2Api;
-import org.sagebionetworks.bridge.rest.api.StudiesApi;
 import org.sagebionetworks.bridge.rest.api.StudyAdherenceApi;
 import org.sagebionetworks.bridge.rest.api.StudyParticipantsApi;
 import org.sagebionetworks.bridge.rest.exceptions.BadRequestException;
@@ -38,18 +35,14 @@ import org.sagebionetworks.bridge.rest.model.AdherenceReportSearch;
 import org.sagebionetworks.bridge.rest.model.AdherenceStatistics;
 import org.sagebionetworks.bridge.rest.model.Assessment;
 import org.sagebionetworks.bridge.rest.model.AssessmentReference2;
-import org.sagebionetworks.bridge.rest.model.CustomEvent;
-import org.sagebionetworks.bridge.rest.model.Enrollment;
 import org.sagebionetworks.bridge.rest.model.EventStreamWindow;
 import org.sagebionetworks.bridge.rest.model.Schedule2;
 import org.sagebionetworks.bridge.rest.model.Session;
 import org.sagebionetworks.bridge.rest.model.SessionCompletionState;
-import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.rest.model.StudyActivityEvent;
 import org.sagebionetworks.bridge.rest.model.StudyActivityEventList;
 import org.sagebionetworks.bridge.rest.model.TestFilter;
 import org.sagebionetworks.bridge.rest.model.TimeWindow;
-import org.sagebionetworks.bridge.rest.model.VersionHolder;
 import org.sagebionetworks.bridge.rest.model.WeeklyAdherenceReport;
 import org.sagebionetworks.bridge.rest.model.WeeklyAdherenceReportList;
 import org.sagebionetworks.bridge.rest.model.WeeklyAdherenceReportRow;
@@ -59,6 +52,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+@Category(ForkSafeTest.class)
 public class WeeklyAdherenceReportTest {
 
     private TestUser participant1;
@@ -71,32 +65,29 @@ public class WeeklyAdherenceReportTest {
     private String asmtATag;
     private String asmtBTag;
     
-    private String studyId;
-    private Study study;
+    // This test saves a schedule and counts the study's weekly reports, and it needs a second study
+    // without a schedule, so it uses its own studies.
+    private static StudyFixture fixture;
+    private static String studyId;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        fixture = StudyFixture.create(WeeklyAdherenceReportTest.class);
+        studyId = fixture.getStudyId1();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (fixture != null) {
+            fixture.delete();
+        }
+    }
 
     @Before
     public void before() throws Exception {
         developer = TestUserHelper.createAndSignInUser(getClass(), false, DEVELOPER, STUDY_DESIGNER);
         ForDevelopersApi developersApi = developer.getClient(ForDevelopersApi.class);
         AssessmentsApi asmtsApi = developer.getClient(AssessmentsApi.class);
-
-        List<CustomEvent> events = new ArrayList<>();
-        events.add(new CustomEvent().eventId(InitListener.FAKE_ENROLLMENT).updateType(MUTABLE));
-        events.add(new CustomEvent().eventId(InitListener.CLINIC_VISIT).updateType(MUTABLE));
-
-        studyId = RandomStringUtils.randomAlphabetic(7);
-        study = new Study();
-        study.setIdentifier(studyId);
-        study.setName(studyId);
-        study.setCustomEvents(events);
-        VersionHolder version = developer.getClient(StudiesApi.class).createStudy(study).execute().body();
-        study.setVersion(version.getVersion());;
-        
-        // If there's a schedule associated to study 1, we need to delete it.
-        TestUser admin = TestUserHelper.getSignedInAdmin();
-        if (study.getScheduleGuid() != null) {
-            admin.getClient(SchedulesV2Api.class).deleteSchedule(study.getScheduleGuid()).execute();
-        }        
         
         asmtATag = Tests.randomIdentifier(getClass());
         asmtBTag = Tests.randomIdentifier(getClass());
@@ -176,19 +167,12 @@ public class WeeklyAdherenceReportTest {
         if (developer != null) {
             developer.signOutAndDeleteUser();
         }
-        if (study != null) {
-            admin.getClient(ForAdminsApi.class).deleteStudy(study.getIdentifier(), true).execute();
-        }
     }
 
     @Test
     public void test() throws Exception {
-        TestUser admin = TestUserHelper.getSignedInAdmin();
-        
         participant1 = TestUserHelper.createAndSignInUser(getClass(), true);
-        admin.getClient(ForAdminsApi.class).enrollParticipant(
-                studyId, new Enrollment().userId(participant1.getUserId())).execute();
-        participant1.signInAgain();
+        fixture.enroll(studyId, participant1);
         
         StudyAdherenceApi adherenceApi = developer.getClient(StudyAdherenceApi.class);
 
@@ -253,8 +237,7 @@ public class WeeklyAdherenceReportTest {
         
         // Paginated APIs
         participant2 = TestUserHelper.createAndSignInUser(getClass(), true);
-        admin.getClient(ForAdminsApi.class).enrollParticipant(
-                studyId, new Enrollment().userId(participant2.getUserId())).execute();
+        fixture.enroll(studyId, participant2);
         
         // does not exist unless you force it by requesting it
         devApi.getWeeklyAdherenceReport(studyId, participant2.getUserId()).execute().body();
@@ -369,7 +352,7 @@ public class WeeklyAdherenceReportTest {
             assertEquals("Study not found.", e.getMessage());
         }
         try {
-            adherenceApi.getAdherenceStatistics(Tests.STUDY_ID_2, null).execute();    
+            adherenceApi.getAdherenceStatistics(fixture.getStudyId2(), null).execute();    
         } catch(EntityNotFoundException e) {
             assertEquals("Schedule not found.", e.getMessage());
         }